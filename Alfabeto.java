@@ -0,0 +1,224 @@
+package sopadeletras.modelo;
+
+import java.util.Arrays;
+
+/**
+ * Alfabeto de la sopa de letras: normaliza el texto de entrada y asigna a cada letra un código
+ * denso de tipo {@code byte}.
+ * <p>
+ * Las letras A–Z reciben los códigos 0 a 25 y la Ñ el 26; la Ñ siempre es una letra distinta de la N.
+ * Las vocales con tilde (Á, É, Í, Ó, Ú) y la Ü se pliegan a su vocal base si el alfabeto pliega
+ * acentos, o reciben los códigos 27 a 32 en caso contrario. Otras marcas (À, Â, Ä...) siempre se
+ * pliegan. La normalización a mayúsculas no depende del idioma del sistema.
+ * <p>
+ * Como hay a lo sumo {@link #TAMANO} códigos, las tablas indexadas por letra (histogramas, hijos
+ * de un trie, máscaras) son arreglos fijos de ese tamaño.
+ */
+public class Alfabeto {
+    /** Número máximo de códigos de letra. */
+    public static final int TAMANO = 33;
+
+    /** Código de los caracteres que no son letras del alfabeto. */
+    public static final byte SIN_CODIGO = -1;
+
+    /** Código de la Ñ. */
+    private static final byte CODIGO_ENIE = 26;
+
+    /** Letras con tilde que pueden conservarse, en el orden de sus códigos (27 en adelante). */
+    private static final String ACENTUADAS = "ÁÉÍÓÚÜ";
+
+    /** Vocal base de cada letra de {@link #ACENTUADAS}. */
+    private static final String BASES_ACENTUADAS = "AEIOUU";
+
+    /** Letras latinas con marcas que siempre se pliegan a su letra base. */
+    private static final String OTRAS_MARCADAS = "ÀÂÃÄÅÈÊËÌÎÏÒÔÕÖÙÛÇÝ";
+
+    /** Letra base de cada letra de {@link #OTRAS_MARCADAS}. */
+    private static final String BASES_OTRAS = "AAAAAEEEIIIOOOOUUCY";
+
+    /** Límite (exclusivo) de los caracteres cubiertos por la tabla de códigos. */
+    private static final int LIMITE_TABLA = 0x180;
+
+    /** Alfabeto que pliega los acentos. */
+    public static final Alfabeto PLEGADO = new Alfabeto(true);
+
+    /** Alfabeto que conserva las vocales con tilde y la Ü como letras distintas. */
+    public static final Alfabeto CON_ACENTOS = new Alfabeto(false);
+
+    /** Indica si las vocales con tilde se pliegan a su vocal base. */
+    private final boolean plegarAcentos;
+
+    /** Código de cada carácter menor que {@link #LIMITE_TABLA}. */
+    private final byte[] codigos;
+
+    /** Letra canónica de cada código. */
+    private final char[] letras;
+
+    /**
+     * Construye el alfabeto con la configuración de acentos dada.
+     *
+     * @param plegarAcentos true para plegar las vocales con tilde a su vocal base.
+     */
+    private Alfabeto(boolean plegarAcentos) {
+        this.plegarAcentos = plegarAcentos;
+        this.codigos = new byte[LIMITE_TABLA];
+        this.letras = new char[plegarAcentos ? CODIGO_ENIE + 1 : TAMANO];
+        Arrays.fill(codigos, SIN_CODIGO);
+
+        for (char c = 'A'; c <= 'Z'; c++) {
+            asignar(c, (byte) (c - 'A'));
+        }
+        asignar('Ñ', CODIGO_ENIE);
+        for (int i = 0; i < ACENTUADAS.length(); i++) {
+            char acentuada = ACENTUADAS.charAt(i);
+            if (plegarAcentos) {
+                asignarPlegada(acentuada, BASES_ACENTUADAS.charAt(i));
+            } else {
+                asignar(acentuada, (byte) (CODIGO_ENIE + 1 + i));
+            }
+        }
+        for (int i = 0; i < OTRAS_MARCADAS.length(); i++) {
+            asignarPlegada(OTRAS_MARCADAS.charAt(i), BASES_OTRAS.charAt(i));
+        }
+    }
+
+    /**
+     * Asigna un código a una letra mayúscula y a su minúscula, y la registra como letra canónica.
+     *
+     * @param mayuscula Letra mayúscula.
+     * @param codigo Código de la letra.
+     */
+    private void asignar(char mayuscula, byte codigo) {
+        codigos[mayuscula] = codigo;
+        codigos[Character.toLowerCase(mayuscula)] = codigo;
+        letras[codigo] = mayuscula;
+    }
+
+    /**
+     * Hace que una letra marcada (y su minúscula) use el código de su letra base.
+     *
+     * @param marcada Letra mayúscula con marca.
+     * @param base Letra base.
+     */
+    private void asignarPlegada(char marcada, char base) {
+        codigos[marcada] = codigos[base];
+        codigos[Character.toLowerCase(marcada)] = codigos[base];
+    }
+
+    /**
+     * Obtiene el alfabeto configurado para la aplicación. Por defecto pliega los acentos;
+     * la propiedad de sistema {@code sopadeletras.acentos=distinguir} los conserva.
+     *
+     * @return Alfabeto por defecto.
+     */
+    public static Alfabeto porDefecto() {
+        return "distinguir".equalsIgnoreCase(System.getProperty("sopadeletras.acentos")) ? CON_ACENTOS : PLEGADO;
+    }
+
+    /**
+     * Obtiene el alfabeto con la configuración de acentos dada.
+     *
+     * @param plegarAcentos true para plegar las vocales con tilde.
+     * @return Alfabeto correspondiente.
+     */
+    public static Alfabeto de(boolean plegarAcentos) {
+        return plegarAcentos ? PLEGADO : CON_ACENTOS;
+    }
+
+    /**
+     * Obtiene el código de un carácter.
+     *
+     * @param c Carácter a codificar (mayúscula o minúscula).
+     * @return Código de la letra, o {@link #SIN_CODIGO} si no es una letra del alfabeto.
+     */
+    public byte codificar(char c) {
+        return c < LIMITE_TABLA ? codigos[c] : SIN_CODIGO;
+    }
+
+    /**
+     * Codifica todas las letras de un texto.
+     *
+     * @param texto Texto a codificar.
+     * @return Códigos de las letras; los caracteres que no son letras quedan como {@link #SIN_CODIGO}.
+     */
+    public byte[] codificar(String texto) {
+        byte[] resultado = new byte[texto.length()];
+        for (int i = 0; i < resultado.length; i++) {
+            resultado[i] = codificar(texto.charAt(i));
+        }
+        return resultado;
+    }
+
+    /**
+     * Indica si todas las posiciones de un texto codificado son letras del alfabeto.
+     *
+     * @param codificado Texto codificado.
+     * @return true si no hay ningún {@link #SIN_CODIGO}.
+     */
+    public static boolean esCompleto(byte[] codificado) {
+        for (byte codigo : codificado) {
+            if (codigo == SIN_CODIGO) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Obtiene la letra canónica (mayúscula) de un código.
+     *
+     * @param codigo Código de la letra.
+     * @return Letra correspondiente.
+     */
+    public char decodificar(byte codigo) {
+        return letras[codigo];
+    }
+
+    /**
+     * Decodifica un tramo de códigos en un texto.
+     *
+     * @param codificado Códigos de las letras.
+     * @return Texto con las letras canónicas.
+     */
+    public String decodificar(byte[] codificado) {
+        char[] texto = new char[codificado.length];
+        for (int i = 0; i < texto.length; i++) {
+            texto[i] = letras[codificado[i]];
+        }
+        return new String(texto);
+    }
+
+    /**
+     * Normaliza un texto: cada letra del alfabeto se reemplaza por su letra canónica en mayúscula
+     * (plegando acentos si corresponde) y el resto de los caracteres se pasa a mayúscula sin
+     * depender del idioma del sistema.
+     *
+     * @param texto Texto a normalizar.
+     * @return Texto normalizado.
+     */
+    public String normalizar(String texto) {
+        char[] resultado = new char[texto.length()];
+        for (int i = 0; i < resultado.length; i++) {
+            char c = texto.charAt(i);
+            byte codigo = codificar(c);
+            resultado[i] = codigo == SIN_CODIGO ? Character.toUpperCase(c) : letras[codigo];
+        }
+        return new String(resultado);
+    }
+
+    /**
+     * Obtiene el número de códigos que usa este alfabeto.
+     *
+     * @return 27 si pliega acentos, {@link #TAMANO} si no.
+     */
+    public int getCantidad() {
+        return letras.length;
+    }
+
+    /**
+     * Indica si el alfabeto pliega las vocales con tilde a su vocal base.
+     *
+     * @return true si pliega acentos.
+     */
+    public boolean isPlegarAcentos() {
+        return plegarAcentos;
+    }
+}
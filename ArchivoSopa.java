@@ -0,0 +1,143 @@
+package sopadeletras.archivo;
+
+import sopadeletras.estructuras.ListaPalabras;
+import sopadeletras.modelo.Sopa;
+import sopadeletras.modelo.Tablero;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Lectura y escritura de sopas de letras en el formato de texto del proyecto.
+ * El archivo contiene una sección "dic" con una palabra por línea y una sección "tab"
+ * con una fila del tablero por línea y las letras separadas por comas:
+ * <pre>
+ * dic
+ * CASA
+ * /dic
+ * tab
+ * C,A,S,A
+ * ...
+ * /tab
+ * </pre>
+ * El tablero puede tener cualquier tamaño N×M, siempre que todas las filas tengan el mismo largo.
+ */
+public class ArchivoSopa {
+
+    /**
+     * Lee una sopa de letras desde un archivo de texto (en UTF-8) con {@link CargadorSopa}.
+     *
+     * @param archivo Archivo a leer.
+     * @return Sopa con el tablero y el diccionario leídos.
+     * @throws IOException si ocurre un error de lectura o el formato es inválido.
+     */
+    public static Sopa leer(File archivo) throws IOException {
+        return new CargadorSopa().cargar(archivo.toPath(), null);
+    }
+
+    /**
+     * Lee una sopa de letras desde un lector de texto.
+     *
+     * @param br Lector posicionado al inicio de la sopa.
+     * @return Sopa con el tablero y el diccionario leídos.
+     * @throws IOException si ocurre un error de lectura o el formato es inválido.
+     */
+    public static Sopa leer(BufferedReader br) throws IOException {
+        ListaPalabras diccionario = new ListaPalabras();
+        List<char[]> filas = new ArrayList<>();
+        String linea;
+        boolean enDic = false, enTab = false;
+
+        while ((linea = br.readLine()) != null) {
+            if (linea.equalsIgnoreCase("dic")) {
+                enDic = true;
+            } else if (linea.equalsIgnoreCase("/dic")) {
+                enDic = false;
+            } else if (linea.equalsIgnoreCase("tab")) {
+                enTab = true;
+            } else if (linea.equalsIgnoreCase("/tab")) {
+                enTab = false;
+            } else if (enDic) {
+                diccionario.agregar(linea.trim());
+            } else if (enTab) {
+                filas.add(parsearFila(linea));
+            }
+        }
+
+        if (filas.isEmpty()) {
+            throw new IOException("El archivo no contiene la sección del tablero.");
+        }
+        char[][] letras = filas.toArray(new char[0][]);
+        try {
+            return new Sopa(new Tablero(letras), diccionario);
+        } catch (IllegalArgumentException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Convierte una línea de la sección "tab" en la fila de letras correspondiente.
+     *
+     * @param linea Línea con las letras separadas por comas.
+     * @return Arreglo con las letras de la fila.
+     * @throws IOException si alguna celda está vacía.
+     */
+    static char[] parsearFila(String linea) throws IOException {
+        String[] letrasLinea = linea.split(",");
+        char[] fila = new char[letrasLinea.length];
+        for (int i = 0; i < letrasLinea.length; i++) {
+            String celda = letrasLinea[i].trim();
+            if (celda.isEmpty()) {
+                throw new IOException("Celda vacía en la fila: " + linea);
+            }
+            fila[i] = Character.toUpperCase(celda.charAt(0));
+        }
+        return fila;
+    }
+
+    /**
+     * Escribe una sopa de letras en un archivo de texto.
+     *
+     * @param sopa Sopa a escribir.
+     * @param archivo Archivo de destino.
+     * @throws IOException si ocurre un error de escritura.
+     */
+    public static void escribir(Sopa sopa, File archivo) throws IOException {
+        try (Writer w = new BufferedWriter(new FileWriter(archivo, StandardCharsets.UTF_8))) {
+            escribir(sopa, w);
+        }
+    }
+
+    /**
+     * Escribe una sopa de letras en el formato de texto del proyecto.
+     * Las palabras se escriben en orden inverso al de la lista, de modo que
+     * al volver a leer el archivo se obtiene el mismo orden.
+     *
+     * @param sopa Sopa a escribir.
+     * @param w Escritor de destino.
+     * @throws IOException si ocurre un error de escritura.
+     */
+    public static void escribir(Sopa sopa, Writer w) throws IOException {
+        String[] palabras = sopa.getDiccionario().aArreglo();
+        w.write("dic\n");
+        for (int i = palabras.length - 1; i >= 0; i--) {
+            w.write(palabras[i]);
+            w.write('\n');
+        }
+        w.write("/dic\n");
+
+        Tablero tablero = sopa.getTablero();
+        w.write("tab\n");
+        for (int i = 0; i < tablero.getFilas(); i++) {
+            for (int j = 0; j < tablero.getColumnas(); j++) {
+                if (j > 0) w.write(',');
+                w.write(tablero.getLetra(i, j));
+            }
+            w.write('\n');
+        }
+        w.write("/tab\n");
+        w.flush();
+    }
+}
@@ -0,0 +1,101 @@
+package sopadeletras.logica;
+
+import sopadeletras.modelo.Alfabeto;
+
+/**
+ * Autómata de Levenshtein para una palabra y un número máximo de errores.
+ * El estado es la fila actual de la tabla de distancias de edición entre la palabra y el texto
+ * consumido: la posición j guarda la distancia mínima entre los primeros j caracteres de la
+ * palabra y el texto. Los valores se saturan en {@code maxErrores + 1}, y un estado cuyo mínimo
+ * supera {@code maxErrores} es muerto: ninguna continuación del texto puede coincidir.
+ */
+public class AutomataLevenshtein {
+    /** Códigos de las letras de la palabra buscada. */
+    private byte[] palabra;
+
+    /** Número máximo de ediciones (inserciones, borrados o sustituciones) permitidas. */
+    private int maxErrores;
+
+    /**
+     * Construye el autómata para una palabra y un número máximo de errores.
+     *
+     * @param palabra Códigos de las letras de la palabra buscada; un {@link Alfabeto#SIN_CODIGO}
+     *        no coincide con ninguna letra del tablero.
+     * @param maxErrores Número máximo de ediciones permitidas.
+     */
+    public AutomataLevenshtein(byte[] palabra, int maxErrores) {
+        if (maxErrores < 0) {
+            throw new IllegalArgumentException("El número de errores no puede ser negativo.");
+        }
+        this.palabra = palabra.clone();
+        this.maxErrores = maxErrores;
+    }
+
+    /**
+     * Obtiene el largo de las filas de estado (largo de la palabra más uno).
+     *
+     * @return Largo de una fila de estado.
+     */
+    public int getLargoEstado() {
+        return palabra.length + 1;
+    }
+
+    /**
+     * Escribe en {@code destino} el estado inicial, antes de consumir letras.
+     *
+     * @param destino Fila donde se escribe el estado.
+     */
+    public void inicial(int[] destino) {
+        for (int j = 0; j <= palabra.length; j++) {
+            destino[j] = Math.min(j, maxErrores + 1);
+        }
+    }
+
+    /**
+     * Avanza el autómata consumiendo una letra.
+     *
+     * @param fila Estado actual.
+     * @param letra Código de la letra consumida.
+     * @param destino Fila donde se escribe el nuevo estado (distinta de {@code fila}).
+     * @return Distancia mínima del nuevo estado; si supera el máximo de errores el estado es muerto.
+     */
+    public int avanzar(int[] fila, byte letra, int[] destino) {
+        int tope = maxErrores + 1;
+        int minimo = destino[0] = Math.min(fila[0] + 1, tope);
+        for (int j = 1; j <= palabra.length; j++) {
+            int sustitucion = fila[j - 1] + (palabra[j - 1] == letra ? 0 : 1);
+            int valor = Math.min(Math.min(fila[j] + 1, destino[j - 1] + 1), sustitucion);
+            destino[j] = Math.min(valor, tope);
+            if (destino[j] < minimo) minimo = destino[j];
+        }
+        return minimo;
+    }
+
+    /**
+     * Obtiene la distancia de edición entre la palabra completa y el texto consumido.
+     *
+     * @param fila Estado del autómata.
+     * @return Distancia de edición (saturada en el máximo de errores más uno).
+     */
+    public int distancia(int[] fila) {
+        return fila[palabra.length];
+    }
+
+    /**
+     * Obtiene el número máximo de errores permitidos.
+     *
+     * @return Máximo de errores.
+     */
+    public int getMaxErrores() {
+        return maxErrores;
+    }
+
+    /**
+     * Obtiene el largo de la palabra buscada.
+     *
+     * @return Largo de la palabra.
+     */
+    public int getLargoPalabra() {
+        return palabra.length;
+    }
+}
@@ -0,0 +1,109 @@
+package sopadeletras.benchmark;
+
+import java.util.Random;
+import sopadeletras.modelo.EscanerLetras;
+import sopadeletras.modelo.EscanerLetrasEscalar;
+import sopadeletras.modelo.IndiceLetras;
+
+/**
+ * Compara el rendimiento de la implementación escalar de {@link EscanerLetras} con la elegida al
+ * iniciar (la vectorial si se ejecuta con {@code --add-modules jdk.incubator.vector}).
+ * Mide las tres operaciones (contar, posiciones y máscaras por fila) sobre un tablero aleatorio,
+ * tras un calentamiento para que el compilador JIT optimice ambas versiones.
+ * <p>
+ * Uso: {@code java --add-modules jdk.incubator.vector sopadeletras.benchmark.BenchmarkEscaner [filas] [columnas] [repeticiones]}
+ */
+public class BenchmarkEscaner {
+    /** Número de letras distintas del tablero aleatorio (A–Z y Ñ). */
+    private static final int LETRAS = 27;
+
+    /** Acumulador de resultados, para que el compilador no descarte el trabajo medido. */
+    private static long sumidero;
+
+    /**
+     * Punto de entrada del benchmark.
+     *
+     * @param args Filas, columnas y repeticiones (opcionales).
+     */
+    public static void main(String[] args) {
+        int filas = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        int columnas = args.length > 1 ? Integer.parseInt(args[1]) : 2000;
+        int repeticiones = args.length > 2 ? Integer.parseInt(args[2]) : 20;
+
+        byte[] letras = new byte[filas * columnas];
+        Random azar = new Random(42);
+        for (int i = 0; i < letras.length; i++) {
+            letras[i] = (byte) azar.nextInt(LETRAS);
+        }
+
+        EscanerLetras escalar = new EscanerLetrasEscalar();
+        EscanerLetras elegido = EscanerLetras.obtener();
+        System.out.println("Tablero de " + filas + "x" + columnas + ", " + repeticiones + " repeticiones.");
+        System.out.println("Implementación elegida: " + elegido.getNombre());
+
+        for (int calentamiento = 0; calentamiento < 3; calentamiento++) {
+            medir(escalar, letras, filas, columnas, repeticiones);
+            medir(elegido, letras, filas, columnas, repeticiones);
+        }
+        long[] tiemposEscalar = medir(escalar, letras, filas, columnas, repeticiones);
+        long[] tiemposElegido = medir(elegido, letras, filas, columnas, repeticiones);
+
+        String[] operaciones = {"contar", "posiciones", "mascara"};
+        for (int i = 0; i < operaciones.length; i++) {
+            System.out.printf("%-10s escalar %8.2f ms   %s %8.2f ms   aceleración %.2fx%n",
+                operaciones[i], tiemposEscalar[i] / 1e6, elegido.getNombre(), tiemposElegido[i] / 1e6,
+                (double) tiemposEscalar[i] / Math.max(1, tiemposElegido[i]));
+        }
+
+        long inicio = System.nanoTime();
+        IndiceLetras indice = new IndiceLetras(letras);
+        System.out.printf("Índice de letras: %.2f ms%n", (System.nanoTime() - inicio) / 1e6);
+        sumidero += indice.getPosiciones().length;
+        System.out.println("(control: " + sumidero + ")");
+    }
+
+    /**
+     * Mide el tiempo total de cada operación del escáner, recorriendo todas las letras del tablero.
+     *
+     * @param escaner Implementación a medir.
+     * @param letras Códigos de las letras del tablero.
+     * @param filas Número de filas.
+     * @param columnas Número de columnas.
+     * @param repeticiones Número de repeticiones de cada operación.
+     * @return Nanosegundos de contar, posiciones y máscaras, en ese orden.
+     */
+    private static long[] medir(EscanerLetras escaner, byte[] letras, int filas, int columnas, int repeticiones) {
+        long[] tiempos = new long[3];
+        int[] posiciones = new int[letras.length];
+        int palabrasPorFila = (columnas + 63) >>> 6;
+        long[] mascara = new long[filas * palabrasPorFila];
+
+        long inicio = System.nanoTime();
+        for (int r = 0; r < repeticiones; r++) {
+            for (byte i = 0; i < LETRAS; i++) {
+                sumidero += escaner.contar(letras, 0, letras.length, i);
+            }
+        }
+        tiempos[0] = System.nanoTime() - inicio;
+
+        inicio = System.nanoTime();
+        for (int r = 0; r < repeticiones; r++) {
+            for (byte i = 0; i < LETRAS; i++) {
+                sumidero += escaner.posiciones(letras, i, posiciones, 0);
+            }
+        }
+        tiempos[1] = System.nanoTime() - inicio;
+
+        inicio = System.nanoTime();
+        for (int r = 0; r < repeticiones; r++) {
+            for (byte i = 0; i < LETRAS; i++) {
+                for (int f = 0; f < filas; f++) {
+                    escaner.mascara(letras, f * columnas, columnas, i, mascara, f * palabrasPorFila);
+                }
+                sumidero += mascara[mascara.length - 1];
+            }
+        }
+        tiempos[2] = System.nanoTime() - inicio;
+        return tiempos;
+    }
+}
@@ -0,0 +1,225 @@
+package sopadeletras.logica;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import sopadeletras.modelo.Alfabeto;
+import sopadeletras.modelo.Tablero;
+
+/**
+ * Búsqueda aproximada de una palabra en el tablero, tolerando hasta k errores de edición
+ * (letras cambiadas, sobrantes o faltantes), útil para tableros obtenidos por OCR o con erratas.
+ * Recorre los caminos simples del tablero en profundidad guiado por un {@link AutomataLevenshtein}:
+ * cada paso avanza una fila de la tabla de distancias y el camino se poda en cuanto el estado muere.
+ * Además, una vez reunidas {@code limite} coincidencias, se poda todo camino que ya no pueda
+ * mejorar la peor de ellas, de modo que el costo adicional frente a la búsqueda exacta queda acotado.
+ * <p>
+ * Un mismo acierto no se repite con variantes: dos caminos son variantes si uno es un tramo seguido
+ * del otro, en cualquier sentido ("CAS", "CASAX" o "ASA" al revés frente a "CASA"), o si empiezan en
+ * la misma celda y comparten más de la mitad de las celdas del más corto. De cada grupo de variantes
+ * solo se conserva la de menor distancia; los caminos que solo se cruzan, o que comparten celdas
+ * desde otro inicio ("QASA" frente a "CASA"), son ubicaciones distintas. Cada camino se registra al
+ * retroceder, después de sus extensiones, de modo que un prefijo sin continuación también cuenta.
+ */
+public class BusquedaAproximada {
+    /** Orden de las coincidencias: menor distancia primero, luego menor largo y luego por celdas. */
+    private static final Comparator<CoincidenciaAproximada> ORDEN =
+        Comparator.comparingInt(CoincidenciaAproximada::getDistancia)
+            .thenComparingInt(c -> c.getCeldas().length)
+            .thenComparing(CoincidenciaAproximada::getCeldas, Arrays::compare);
+
+    /** Tablero donde se realiza la búsqueda. */
+    private Tablero tablero;
+
+    /** Autómata de Levenshtein de la palabra buscada. */
+    private AutomataLevenshtein automata;
+
+    /**
+     * Prepara la búsqueda aproximada de una palabra.
+     *
+     * @param tablero Tablero donde buscar.
+     * @param palabra Palabra buscada.
+     * @param maxErrores Número máximo de errores de edición permitidos.
+     */
+    public BusquedaAproximada(Tablero tablero, String palabra, int maxErrores) {
+        if (palabra.isEmpty()) {
+            throw new IllegalArgumentException("La palabra no puede estar vacía.");
+        }
+        this.tablero = tablero;
+        this.automata = new AutomataLevenshtein(tablero.getAlfabeto().codificar(palabra), maxErrores);
+    }
+
+    /**
+     * Busca las mejores coincidencias aproximadas de la palabra en el tablero.
+     *
+     * @param limite Número máximo de coincidencias a devolver.
+     * @return Coincidencias ordenadas de menor a mayor distancia.
+     */
+    public List<CoincidenciaAproximada> buscar(int limite) {
+        List<CoincidenciaAproximada> resultado = new ArrayList<>();
+        buscar(limite, PresupuestoBusqueda.ILIMITADO, resultado);
+        return resultado;
+    }
+
+    /**
+     * Busca las mejores coincidencias aproximadas dentro de un presupuesto. Cada celda que se agrega
+     * a un camino cuenta como un estado expandido.
+     *
+     * @param limite Número máximo de coincidencias a devolver.
+     * @param presupuesto Límites de estados, memoria y tiempo.
+     * @param resultado Lista donde se agregan las coincidencias, de menor a mayor distancia; si la
+     *                  búsqueda se aborta contiene las mejores reunidas hasta ese momento.
+     * @return {@link EstadoBusqueda#ENCONTRADA} o {@link EstadoBusqueda#NO_ENCONTRADA} según haya
+     *         coincidencias, o {@link EstadoBusqueda#ABORTADA} si se agotó el presupuesto.
+     */
+    public EstadoBusqueda buscar(int limite, PresupuestoBusqueda presupuesto, List<CoincidenciaAproximada> resultado) {
+        if (limite <= 0) return EstadoBusqueda.NO_ENCONTRADA;
+        MedidorPresupuesto medidor = presupuesto.iniciar();
+
+        // Montículo con la peor coincidencia en la cima, para reemplazarla cuando aparezca una mejor
+        PriorityQueue<CoincidenciaAproximada> mejores = new PriorityQueue<>(limite, ORDEN.reversed());
+        byte[] letras = tablero.getCodigos();
+        int largoMaximo = automata.getLargoPalabra() + automata.getMaxErrores();
+        int largoEstado = automata.getLargoEstado();
+
+        int[] inicial = new int[largoEstado];
+        automata.inicial(inicial);
+        int[][] filas = new int[largoMaximo][largoEstado];
+        int[] camino = new int[largoMaximo];
+        int[][] vecinos = new int[largoMaximo][8];
+        int[] cantidadVecinos = new int[largoMaximo];
+        int[] siguiente = new int[largoMaximo];
+        boolean[] enCamino = new boolean[letras.length];
+        medidor.reservar(largoMaximo * (4L * largoEstado + 4 + 32 + 4 + 4) + letras.length);
+
+        busqueda:
+        for (int inicio = 0; inicio < letras.length; inicio++) {
+            int minimo = automata.avanzar(inicial, letras[inicio], filas[0]);
+            if (!vivo(minimo, mejores, limite)) continue;
+            if (!medidor.expandir()) break;
+
+            int nivel = 0;
+            camino[0] = inicio;
+            enCamino[inicio] = true;
+            cantidadVecinos[0] = largoMaximo > 1 ? tablero.vecinos(inicio, vecinos[0]) : 0;
+            siguiente[0] = 0;
+
+            while (nivel >= 0) {
+                if (siguiente[nivel] < cantidadVecinos[nivel]) {
+                    int vecino = vecinos[nivel][siguiente[nivel]++];
+                    if (enCamino[vecino]) continue;
+                    minimo = automata.avanzar(filas[nivel], letras[vecino], filas[nivel + 1]);
+                    if (!vivo(minimo, mejores, limite)) continue;
+                    if (!medidor.expandir()) break busqueda;
+
+                    nivel++;
+                    camino[nivel] = vecino;
+                    enCamino[vecino] = true;
+                    cantidadVecinos[nivel] = nivel + 1 < largoMaximo ? tablero.vecinos(vecino, vecinos[nivel]) : 0;
+                    siguiente[nivel] = 0;
+                } else {
+                    registrar(filas[nivel], camino, nivel + 1, mejores, limite);
+                    enCamino[camino[nivel]] = false;
+                    nivel--;
+                }
+            }
+        }
+
+        List<CoincidenciaAproximada> ordenadas = new ArrayList<>(mejores);
+        ordenadas.sort(ORDEN);
+        resultado.addAll(ordenadas);
+        if (medidor.estaAgotado()) return EstadoBusqueda.ABORTADA;
+        return ordenadas.isEmpty() ? EstadoBusqueda.NO_ENCONTRADA : EstadoBusqueda.ENCONTRADA;
+    }
+
+    /**
+     * Indica si un estado con la distancia mínima dada todavía puede aportar una coincidencia.
+     *
+     * @param minimo Distancia mínima del estado.
+     * @param mejores Coincidencias reunidas hasta ahora.
+     * @param limite Número máximo de coincidencias.
+     * @return true si el camino debe seguir explorándose.
+     */
+    private boolean vivo(int minimo, PriorityQueue<CoincidenciaAproximada> mejores, int limite) {
+        if (minimo > automata.getMaxErrores()) return false;
+        return mejores.size() < limite || minimo < mejores.peek().getDistancia();
+    }
+
+    /**
+     * Registra el camino actual como coincidencia si su distancia está dentro del máximo, mejora a
+     * las reunidas y ninguna variante reunida es igual o mejor; las variantes peores se quitan.
+     *
+     * @param fila Estado del autómata al final del camino.
+     * @param camino Celdas del camino.
+     * @param largo Número de celdas del camino.
+     * @param mejores Coincidencias reunidas hasta ahora.
+     * @param limite Número máximo de coincidencias.
+     */
+    private void registrar(int[] fila, int[] camino, int largo,
+                           PriorityQueue<CoincidenciaAproximada> mejores, int limite) {
+        int distancia = automata.distancia(fila);
+        if (distancia > automata.getMaxErrores()) return;
+        if (mejores.size() >= limite && distancia >= mejores.peek().getDistancia()) return;
+
+        int[] celdas = Arrays.copyOf(camino, largo);
+        for (CoincidenciaAproximada otra : mejores) {
+            if (otra.getDistancia() <= distancia && variantes(otra.getCeldas(), celdas)) return;
+        }
+        mejores.removeIf(otra -> variantes(otra.getCeldas(), celdas));
+
+        byte[] letras = tablero.getCodigos();
+        Alfabeto alfabeto = tablero.getAlfabeto();
+        char[] texto = new char[largo];
+        for (int i = 0; i < largo; i++) {
+            texto[i] = alfabeto.decodificar(letras[camino[i]]);
+        }
+        mejores.add(new CoincidenciaAproximada(new String(texto), celdas, distancia));
+        if (mejores.size() > limite) {
+            mejores.poll();
+        }
+    }
+
+    /**
+     * Indica si dos caminos son variantes de una misma ubicación: uno es un tramo seguido del otro, en
+     * cualquier sentido, o ambos empiezan en la misma celda y comparten más de la mitad de las celdas
+     * del más corto.
+     *
+     * @param a Un camino.
+     * @param b Otro camino.
+     * @return true si son variantes.
+     */
+    private static boolean variantes(int[] a, int[] b) {
+        int[] largo = a.length >= b.length ? a : b;
+        int[] corto = largo == a ? b : a;
+        if (contieneTramo(largo, corto)) return true;
+        if (a[0] != b[0]) return false;
+        int comunes = 0;
+        for (int celdaA : a) {
+            for (int celdaB : b) {
+                if (celdaA == celdaB) comunes++;
+            }
+        }
+        return 2 * comunes > corto.length;
+    }
+
+    /**
+     * Indica si un camino aparece como tramo seguido dentro de otro, leído en cualquiera de los dos sentidos.
+     *
+     * @param camino Camino donde buscar.
+     * @param tramo Camino buscado, no más largo que {@code camino}.
+     * @return true si {@code tramo} o su reverso es un tramo de {@code camino}.
+     */
+    private static boolean contieneTramo(int[] camino, int[] tramo) {
+        for (int desde = 0; desde + tramo.length <= camino.length; desde++) {
+            boolean directo = true, inverso = true;
+            for (int i = 0; i < tramo.length && (directo || inverso); i++) {
+                directo &= camino[desde + i] == tramo[i];
+                inverso &= camino[desde + i] == tramo[tramo.length - 1 - i];
+            }
+            if (directo || inverso) return true;
+        }
+        return false;
+    }
+}
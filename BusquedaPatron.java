@@ -0,0 +1,202 @@
+package sopadeletras.logica;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import sopadeletras.modelo.Alfabeto;
+import sopadeletras.modelo.IndiceLetras;
+import sopadeletras.modelo.Tablero;
+
+/**
+ * Busca en el tablero todas las ubicaciones de un patrón con comodines.
+ * Recorre los caminos simples del tablero (sin repetir celdas) en profundidad, avanzando el
+ * autómata del patrón con cada letra y podando el camino en cuanto el autómata queda en un
+ * estado muerto. Antes de recorrer se cruzan las clases del patrón con las letras que existen
+ * en el tablero, de modo que un patrón imposible se descarta sin explorar.
+ * Los resultados se entregan a medida que se encuentran y se detienen al llegar al límite.
+ * Un patrón amplio que casi nunca coincide puede recorrer un número exponencial de caminos; con
+ * un {@link PresupuestoBusqueda} la búsqueda se detiene y devuelve {@link EstadoBusqueda#ABORTADA}.
+ */
+public class BusquedaPatron {
+    /** Tablero donde se realiza la búsqueda. */
+    private Tablero tablero;
+
+    /** Patrón compilado a buscar. */
+    private PatronBusqueda patron;
+
+    /** Máscara de posiciones del patrón que acepta cada código de letra del tablero. */
+    private long[] aceptacionesTablero;
+
+    /** Indica si el patrón no puede coincidir con ningún camino del tablero. */
+    private boolean imposible;
+
+    /**
+     * Prepara la búsqueda de un patrón sobre un tablero.
+     *
+     * @param tablero Tablero donde buscar.
+     * @param patron Patrón compilado.
+     */
+    public BusquedaPatron(Tablero tablero, PatronBusqueda patron) {
+        this.tablero = tablero;
+        this.patron = patron;
+
+        IndiceLetras indice = tablero.getIndiceLetras();
+        Alfabeto alfabeto = tablero.getAlfabeto();
+        this.aceptacionesTablero = new long[Alfabeto.TAMANO];
+        long posibles = 0;
+        for (byte codigo = 0; codigo < alfabeto.getCantidad(); codigo++) {
+            aceptacionesTablero[codigo] = patron.aceptaciones(alfabeto.decodificar(codigo));
+            // Solo cuentan como posibles las letras que aparecen en el tablero
+            if (indice.contar(codigo) > 0) posibles |= aceptacionesTablero[codigo];
+        }
+        // Una posición obligatoria que no acepta ninguna letra del tablero hace imposible el patrón
+        long obligatorias = ((1L << patron.getLongitudMaxima()) - 1) & ~patron.getOpcionales();
+        this.imposible = (obligatorias & ~posibles) != 0;
+    }
+
+    /**
+     * Busca todas las ubicaciones del patrón hasta el límite dado y las devuelve en una lista.
+     *
+     * @param limite Número máximo de coincidencias a devolver.
+     * @return Lista de coincidencias encontradas.
+     */
+    public List<Coincidencia> buscar(int limite) {
+        List<Coincidencia> resultados = new ArrayList<>();
+        buscar(limite, resultados::add);
+        return resultados;
+    }
+
+    /**
+     * Busca las ubicaciones del patrón y las entrega al oyente a medida que se encuentran.
+     * La búsqueda termina al recorrer todo el tablero, al alcanzar el límite o cuando el oyente
+     * devuelve false.
+     *
+     * @param limite Número máximo de coincidencias a entregar.
+     * @param oyente Receptor de las coincidencias.
+     * @return Número de coincidencias entregadas.
+     */
+    public int buscar(int limite, OyenteCoincidencia oyente) {
+        if (imposible || limite <= 0) return 0;
+        return recorrer(limite, PresupuestoBusqueda.ILIMITADO.iniciar(), oyente);
+    }
+
+    /**
+     * Busca las ubicaciones del patrón dentro de un presupuesto y las entrega al oyente a medida
+     * que se encuentran. Cada celda que se agrega a un camino cuenta como un estado expandido, y la
+     * memoria estimada es la de las estructuras del recorrido.
+     *
+     * @param limite Número máximo de coincidencias a entregar.
+     * @param presupuesto Límites de estados, memoria y tiempo.
+     * @param oyente Receptor de las coincidencias.
+     * @return {@link EstadoBusqueda#ENCONTRADA} si se entregó al menos una coincidencia,
+     *         {@link EstadoBusqueda#NO_ENCONTRADA} si se recorrió todo sin coincidencias,
+     *         {@link EstadoBusqueda#IMPOSIBLE} si el patrón se descartó sin recorrer, o
+     *         {@link EstadoBusqueda#ABORTADA} si se agotó el presupuesto antes de terminar.
+     */
+    public EstadoBusqueda buscar(int limite, PresupuestoBusqueda presupuesto, OyenteCoincidencia oyente) {
+        if (imposible) return EstadoBusqueda.IMPOSIBLE;
+        if (limite <= 0) return EstadoBusqueda.NO_ENCONTRADA;
+        MedidorPresupuesto medidor = presupuesto.iniciar();
+        int encontradas = recorrer(limite, medidor, oyente);
+        if (medidor.estaAgotado()) return EstadoBusqueda.ABORTADA;
+        return encontradas > 0 ? EstadoBusqueda.ENCONTRADA : EstadoBusqueda.NO_ENCONTRADA;
+    }
+
+    /**
+     * Recorre los caminos del tablero entregando las coincidencias, hasta terminar, alcanzar el
+     * límite, que el oyente lo pida o que se agote el medidor.
+     *
+     * @param limite Número máximo de coincidencias a entregar.
+     * @param medidor Medidor del presupuesto de la búsqueda.
+     * @param oyente Receptor de las coincidencias.
+     * @return Número de coincidencias entregadas.
+     */
+    private int recorrer(int limite, MedidorPresupuesto medidor, OyenteCoincidencia oyente) {
+        byte[] letras = tablero.getCodigos();
+        int largoMaximo = patron.getLongitudMaxima();
+        int[] camino = new int[largoMaximo];
+        long[] estados = new long[largoMaximo];
+        int[][] vecinos = new int[largoMaximo][8];
+        int[] cantidadVecinos = new int[largoMaximo];
+        int[] siguiente = new int[largoMaximo];
+        boolean[] enCamino = new boolean[letras.length];
+        long inicial = patron.estadoInicial();
+        int encontradas = 0;
+        // Camino, estados, vecinos y marcas de celdas en uso
+        if (!medidor.reservar(largoMaximo * (4L + 8 + 32 + 4 + 4) + letras.length)) return 0;
+
+        for (int inicio = 0; inicio < letras.length; inicio++) {
+            long estado = patron.avanzar(inicial, aceptaciones(letras[inicio]));
+            if (estado == 0) continue;
+            if (!medidor.expandir()) return encontradas;
+
+            int nivel = 0;
+            camino[0] = inicio;
+            estados[0] = estado;
+            enCamino[inicio] = true;
+            if (patron.esAceptado(estado)) {
+                encontradas++;
+                if (!oyente.coincidencia(crearCoincidencia(camino, 1)) || encontradas >= limite) {
+                    return encontradas;
+                }
+            }
+            cantidadVecinos[0] = patron.puedeContinuar(estado) ? tablero.vecinos(inicio, vecinos[0]) : 0;
+            siguiente[0] = 0;
+
+            while (nivel >= 0) {
+                if (siguiente[nivel] < cantidadVecinos[nivel]) {
+                    int vecino = vecinos[nivel][siguiente[nivel]++];
+                    if (enCamino[vecino]) continue;
+                    long nuevo = patron.avanzar(estados[nivel], aceptaciones(letras[vecino]));
+                    if (nuevo == 0) continue;
+                    if (!medidor.expandir()) return encontradas;
+
+                    nivel++;
+                    camino[nivel] = vecino;
+                    estados[nivel] = nuevo;
+                    enCamino[vecino] = true;
+                    if (patron.esAceptado(nuevo)) {
+                        encontradas++;
+                        if (!oyente.coincidencia(crearCoincidencia(camino, nivel + 1)) || encontradas >= limite) {
+                            return encontradas;
+                        }
+                    }
+                    boolean continuar = nivel + 1 < largoMaximo && patron.puedeContinuar(nuevo);
+                    cantidadVecinos[nivel] = continuar ? tablero.vecinos(vecino, vecinos[nivel]) : 0;
+                    siguiente[nivel] = 0;
+                } else {
+                    enCamino[camino[nivel]] = false;
+                    nivel--;
+                }
+            }
+        }
+        return encontradas;
+    }
+
+    /**
+     * Obtiene la máscara de posiciones del patrón que acepta una letra del tablero.
+     *
+     * @param codigo Código de la letra de una celda del tablero.
+     * @return Máscara de posiciones que aceptan la letra.
+     */
+    private long aceptaciones(byte codigo) {
+        return aceptacionesTablero[codigo];
+    }
+
+    /**
+     * Crea una coincidencia a partir del camino actual.
+     *
+     * @param camino Celdas del camino.
+     * @param largo Número de celdas del camino.
+     * @return Coincidencia con el texto y una copia de las celdas.
+     */
+    private Coincidencia crearCoincidencia(int[] camino, int largo) {
+        byte[] letras = tablero.getCodigos();
+        Alfabeto alfabeto = tablero.getAlfabeto();
+        char[] texto = new char[largo];
+        for (int i = 0; i < largo; i++) {
+            texto[i] = alfabeto.decodificar(letras[camino[i]]);
+        }
+        return new Coincidencia(new String(texto), Arrays.copyOf(camino, largo));
+    }
+}
@@ -0,0 +1,481 @@
+package sopadeletras.logica;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import sopadeletras.modelo.Alfabeto;
+import sopadeletras.modelo.EscanerLetras;
+import sopadeletras.modelo.Tablero;
+
+/**
+ * Búsqueda paralela de una palabra en tableros muy grandes, dividiendo el tablero en mosaicos.
+ * <p>
+ * Cada mosaico es un rectángulo de celdas propias rodeado de un halo de ancho
+ * (largo de la palabra − 1): ningún camino que empiece en una celda propia puede salir del halo,
+ * así que no se pierde ninguna ubicación que cruce el borde entre mosaicos. Cada mosaico solo
+ * arranca caminos desde sus celdas propias y copia las letras de su región (celdas propias más
+ * halo) a un arreglo local, de modo que el conjunto de trabajo de cada hilo es pequeño.
+ * Como cada ubicación tiene una sola celda inicial y cada celda es propia de un único mosaico,
+ * ningún par de mosaicos devuelve la misma ubicación aunque sus halos se superpongan.
+ * <p>
+ * Todos los mosaicos comparten un {@link FiltroAlcanzabilidad} de la palabra sobre el tablero
+ * completo, que poda las celdas iniciales y los vecinos que no pueden completar el resto de la
+ * palabra. El presupuesto es de la búsqueda completa, como en las demás búsquedas: el plazo corre
+ * desde que empieza la búsqueda (también para los mosaicos que esperan en la cola del ejecutor), los
+ * estados de todos los mosaicos se suman en un mismo contador y la memoria cuenta la de los mosaicos
+ * en curso más la de las ubicaciones reunidas. En cuanto se agota, se detienen todos y la búsqueda termina como {@link EstadoBusqueda#ABORTADA}.
+ * Si el tablero cabe en un solo mosaico, se recorre en el hilo que llama, sin pasar por el ejecutor.
+ */
+public class BusquedaPorMosaicos {
+    /** Lado por defecto de cada mosaico, en celdas. */
+    public static final int LADO_DEFECTO = 256;
+
+    /** Estados que cada mosaico acumula antes de sumarlos al contador compartido y consultar el reloj. */
+    private static final int LOTE_ESTADOS = 64;
+
+    /** Desplazamientos de fila de las 8 direcciones. */
+    private static final int[] DF = {-1, -1, -1, 0, 0, 1, 1, 1};
+
+    /** Desplazamientos de columna de las 8 direcciones. */
+    private static final int[] DC = {-1, 0, 1, -1, 1, -1, 0, 1};
+
+    /** Tablero donde se realiza la búsqueda. */
+    private Tablero tablero;
+
+    /** Lado de cada mosaico, en celdas (sin contar el halo). */
+    private int lado;
+
+    /** Ejecutor donde se procesan los mosaicos. */
+    private ExecutorService ejecutor;
+
+    /**
+     * Construye la búsqueda con el lado de mosaico por defecto y el pool común de hilos.
+     *
+     * @param tablero Tablero donde buscar.
+     */
+    public BusquedaPorMosaicos(Tablero tablero) {
+        this(tablero, LADO_DEFECTO, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Construye la búsqueda con el lado de mosaico y el ejecutor dados.
+     *
+     * @param tablero Tablero donde buscar.
+     * @param lado Lado de cada mosaico, en celdas.
+     * @param ejecutor Ejecutor donde se procesan los mosaicos.
+     */
+    public BusquedaPorMosaicos(Tablero tablero, int lado, ExecutorService ejecutor) {
+        if (lado <= 0) {
+            throw new IllegalArgumentException("El lado del mosaico debe ser positivo.");
+        }
+        this.tablero = tablero;
+        this.lado = lado;
+        this.ejecutor = ejecutor;
+    }
+
+    /**
+     * Busca una ubicación cualquiera de la palabra; al encontrarla se cancelan los demás mosaicos.
+     *
+     * @param palabra Palabra a buscar.
+     * @return Una ubicación de la palabra, o null si no está en el tablero.
+     */
+    public Coincidencia buscar(String palabra) {
+        List<Coincidencia> resultado = buscarTodas(palabra, 1);
+        return resultado.isEmpty() ? null : resultado.get(0);
+    }
+
+    /**
+     * Busca todas las ubicaciones de la palabra, hasta el límite dado.
+     *
+     * @param palabra Palabra a buscar.
+     * @param limite Número máximo de ubicaciones a devolver.
+     * @return Ubicaciones encontradas, sin repetir, ordenadas por sus celdas.
+     */
+    public List<Coincidencia> buscarTodas(String palabra, int limite) {
+        List<Coincidencia> resultado = new ArrayList<>();
+        buscarTodas(palabra, limite, PresupuestoBusqueda.ILIMITADO, resultado);
+        return resultado;
+    }
+
+    /**
+     * Busca todas las ubicaciones de la palabra, hasta el límite dado, dentro de un presupuesto que
+     * comparten todos los mosaicos. Cada celda que se agrega a un camino cuenta como un estado
+     * expandido; como cada mosaico suma sus estados por lotes, el límite de estados puede excederse
+     * en menos de {@value #LOTE_ESTADOS} por mosaico en curso.
+     *
+     * @param palabra Palabra a buscar.
+     * @param limite Número máximo de ubicaciones a devolver.
+     * @param presupuesto Límites de estados, memoria y tiempo de la búsqueda.
+     * @param resultado Lista donde se agregan las ubicaciones, ordenadas por sus celdas; si la
+     *                  búsqueda se aborta contiene las reunidas hasta ese momento.
+     * @return {@link EstadoBusqueda#ENCONTRADA} o {@link EstadoBusqueda#NO_ENCONTRADA} según haya
+     *         ubicaciones, {@link EstadoBusqueda#IMPOSIBLE} si el filtro descarta la palabra sin
+     *         recorrer, o {@link EstadoBusqueda#ABORTADA} si se agotó el presupuesto o se interrumpió el hilo.
+     */
+    public EstadoBusqueda buscarTodas(String palabra, int limite, PresupuestoBusqueda presupuesto,
+                                      List<Coincidencia> resultado) {
+        if (palabra.isEmpty() || limite <= 0 || tablero.getCodigos().length == 0) return EstadoBusqueda.NO_ENCONTRADA;
+        byte[] objetivo = tablero.getAlfabeto().codificar(palabra);
+        if (!Alfabeto.esCompleto(objetivo)) return EstadoBusqueda.IMPOSIBLE;
+        FiltroAlcanzabilidad filtro = new FiltroAlcanzabilidad();
+        filtro.calcular(tablero, objetivo, objetivo.length);
+        return buscarTodas(objetivo, limite, presupuesto, filtro, resultado);
+    }
+
+    /**
+     * Busca todas las ubicaciones de una palabra ya codificada con un filtro ya calculado.
+     *
+     * @param objetivo Códigos de las letras de la palabra.
+     * @param limite Número máximo de ubicaciones a devolver.
+     * @param presupuesto Límites de estados, memoria y tiempo de la búsqueda.
+     * @param filtro Filtro de la palabra sobre el tablero completo; solo se lee mientras dura la búsqueda.
+     * @param resultado Lista donde se agregan las ubicaciones, ordenadas por sus celdas.
+     * @return Resultado de la búsqueda, como en {@link #buscarTodas(String, int, PresupuestoBusqueda, List)}.
+     */
+    EstadoBusqueda buscarTodas(byte[] objetivo, int limite, PresupuestoBusqueda presupuesto,
+                               FiltroAlcanzabilidad filtro, List<Coincidencia> resultado) {
+        if (filtro.esVacio()) return EstadoBusqueda.IMPOSIBLE;
+        int halo = objetivo.length - 1;
+        AtomicBoolean detener = new AtomicBoolean(false);
+        AtomicBoolean agotado = new AtomicBoolean(false);
+        AtomicInteger encontradas = new AtomicInteger(0);
+        Consumo consumo = new Consumo(presupuesto);
+
+        List<Coincidencia> combinadas = new ArrayList<>();
+        if (tablero.getFilas() <= lado && tablero.getColumnas() <= lado) {
+            combinadas.addAll(new Mosaico(0, 0, halo).buscar(objetivo, limite, consumo, filtro,
+                encontradas, detener, agotado));
+        } else {
+            List<Future<List<Coincidencia>>> tareas = new ArrayList<>();
+            for (int f0 = 0; f0 < tablero.getFilas(); f0 += lado) {
+                for (int c0 = 0; c0 < tablero.getColumnas(); c0 += lado) {
+                    Mosaico mosaico = new Mosaico(f0, c0, halo);
+                    tareas.add(ejecutor.submit(() -> mosaico.buscar(objetivo, limite, consumo, filtro,
+                        encontradas, detener, agotado)));
+                }
+            }
+            try {
+                for (Future<List<Coincidencia>> tarea : tareas) {
+                    combinadas.addAll(tarea.get());
+                }
+            } catch (InterruptedException e) {
+                detener.set(true);
+                agotado.set(true);
+                cancelar(tareas);
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                detener.set(true);
+                cancelar(tareas);
+                throw new IllegalStateException("Error al buscar en un mosaico.", e.getCause());
+            }
+        }
+
+        combinadas.sort((a, b) -> Arrays.compare(a.getCeldas(), b.getCeldas()));
+        resultado.addAll(combinadas.size() > limite ? combinadas.subList(0, limite) : combinadas);
+        if (combinadas.size() >= limite) return EstadoBusqueda.ENCONTRADA;
+        if (agotado.get()) return EstadoBusqueda.ABORTADA;
+        return combinadas.isEmpty() ? EstadoBusqueda.NO_ENCONTRADA : EstadoBusqueda.ENCONTRADA;
+    }
+
+    /**
+     * Cancela los mosaicos que todavía no terminaron, para que los que aún no empezaron no lleguen a ejecutarse.
+     *
+     * @param tareas Tareas de los mosaicos.
+     */
+    private static void cancelar(List<Future<List<Coincidencia>>> tareas) {
+        for (Future<List<Coincidencia>> tarea : tareas) {
+            tarea.cancel(true);
+        }
+    }
+
+    /**
+     * Consumo de una búsqueda repartido entre los mosaicos: un plazo fijado al empezar la búsqueda y
+     * contadores atómicos de estados y memoria. A diferencia de {@link MedidorPresupuesto}, puede
+     * usarse desde varios hilos a la vez.
+     */
+    private static class Consumo {
+        /** Presupuesto de la búsqueda. */
+        final PresupuestoBusqueda presupuesto;
+
+        /** Instante (System.nanoTime) en que vence el plazo, o Long.MAX_VALUE si no hay plazo. */
+        final long vencimiento;
+
+        /** Estados expandidos por todos los mosaicos, sin contar los lotes que aún no se sumaron. */
+        final AtomicLong estados = new AtomicLong();
+
+        /** Memoria estimada de los mosaicos en curso, en bytes. */
+        final AtomicLong memoria = new AtomicLong();
+
+        /**
+         * Empieza a medir una búsqueda; el plazo empieza a correr ahora.
+         *
+         * @param presupuesto Presupuesto de la búsqueda.
+         */
+        Consumo(PresupuestoBusqueda presupuesto) {
+            this.presupuesto = presupuesto;
+            this.vencimiento = MedidorPresupuesto.calcularVencimiento(presupuesto.getMaxMilisegundos());
+        }
+
+        /**
+         * Suma estados expandidos y consulta el reloj.
+         *
+         * @param cantidad Estados a sumar.
+         * @return true si la búsqueda puede continuar, false si se agotó el presupuesto.
+         */
+        boolean expandir(long cantidad) {
+            return estados.addAndGet(cantidad) <= presupuesto.getMaxEstados() && !vencido();
+        }
+
+        /**
+         * Indica si ya pasó el plazo.
+         *
+         * @return true si venció el plazo.
+         */
+        boolean vencido() {
+            return vencimiento != Long.MAX_VALUE && System.nanoTime() - vencimiento > 0;
+        }
+
+        /**
+         * Reserva memoria para un mosaico; si no alcanza, no reserva nada.
+         *
+         * @param bytes Bytes estimados.
+         * @return true si la reserva cabe en el presupuesto.
+         */
+        boolean reservar(long bytes) {
+            if (memoria.addAndGet(bytes) <= presupuesto.getMaxMemoria()) return true;
+            memoria.addAndGet(-bytes);
+            return false;
+        }
+
+        /**
+         * Libera memoria reservada por un mosaico que terminó.
+         *
+         * @param bytes Bytes estimados.
+         */
+        void liberar(long bytes) {
+            memoria.addAndGet(-bytes);
+        }
+    }
+
+    /**
+     * Región del tablero procesada por un hilo: celdas propias más el halo que las rodea.
+     */
+    private class Mosaico {
+        /** Primera fila y columna de la región con halo, en coordenadas del tablero. */
+        int filaRegion, columnaRegion;
+        /** Alto y ancho de la región con halo. */
+        int alto, ancho;
+        /** Límites de las celdas propias, en coordenadas locales de la región (fin exclusivo). */
+        int filaDesde, filaHasta, columnaDesde, columnaHasta;
+
+        /**
+         * Construye el mosaico cuyas celdas propias empiezan en (f0, c0).
+         *
+         * @param f0 Primera fila propia.
+         * @param c0 Primera columna propia.
+         * @param halo Ancho del halo.
+         */
+        Mosaico(int f0, int c0, int halo) {
+            int f1 = Math.min(f0 + lado, tablero.getFilas());
+            int c1 = Math.min(c0 + lado, tablero.getColumnas());
+            this.filaRegion = Math.max(0, f0 - halo);
+            this.columnaRegion = Math.max(0, c0 - halo);
+            this.alto = Math.min(tablero.getFilas(), f1 + halo) - filaRegion;
+            this.ancho = Math.min(tablero.getColumnas(), c1 + halo) - columnaRegion;
+            this.filaDesde = f0 - filaRegion;
+            this.filaHasta = f1 - filaRegion;
+            this.columnaDesde = c0 - columnaRegion;
+            this.columnaHasta = c1 - columnaRegion;
+        }
+
+        /**
+         * Busca la palabra arrancando desde las celdas propias del mosaico.
+         *
+         * @param objetivo Códigos de las letras de la palabra.
+         * @param limite Número máximo de ubicaciones entre todos los mosaicos.
+         * @param consumo Consumo compartido de la búsqueda.
+         * @param filtro Filtro de la palabra sobre el tablero completo.
+         * @param encontradas Contador compartido de ubicaciones encontradas.
+         * @param detener Señal compartida para abandonar la búsqueda.
+         * @param agotado Señal compartida que se enciende si algún mosaico agota el presupuesto.
+         * @return Ubicaciones encontradas en este mosaico.
+         */
+        List<Coincidencia> buscar(byte[] objetivo, int limite, Consumo consumo,
+                                  FiltroAlcanzabilidad filtro, AtomicInteger encontradas,
+                                  AtomicBoolean detener, AtomicBoolean agotado) {
+            List<Coincidencia> resultado = new ArrayList<>();
+            if (detener.get()) return resultado;
+            // Un mosaico que esperó en la cola del ejecutor puede empezar con el plazo ya vencido
+            if (consumo.vencido()) {
+                agotar(detener, agotado);
+                return resultado;
+            }
+
+            // Letras y marcas de la región, más camino y direcciones
+            long bytes = 2L * alto * ancho + 8L * objetivo.length;
+            if (!consumo.reservar(bytes)) {
+                agotar(detener, agotado);
+                return resultado;
+            }
+            try {
+                recorrer(objetivo, limite, consumo, filtro, encontradas, detener, agotado, resultado);
+            } finally {
+                consumo.liberar(bytes);
+            }
+            return resultado;
+        }
+
+        /**
+         * Recorre en profundidad los caminos que empiezan en las celdas propias del mosaico.
+         *
+         * @param objetivo Códigos de las letras de la palabra.
+         * @param limite Número máximo de ubicaciones entre todos los mosaicos.
+         * @param consumo Consumo compartido de la búsqueda.
+         * @param filtro Filtro de la palabra sobre el tablero completo.
+         * @param encontradas Contador compartido de ubicaciones encontradas.
+         * @param detener Señal compartida para abandonar la búsqueda.
+         * @param agotado Señal compartida que se enciende si se agota el presupuesto.
+         * @param resultado Lista donde se agregan las ubicaciones del mosaico.
+         */
+        private void recorrer(byte[] objetivo, int limite, Consumo consumo, FiltroAlcanzabilidad filtro,
+                              AtomicInteger encontradas, AtomicBoolean detener, AtomicBoolean agotado,
+                              List<Coincidencia> resultado) {
+            int largo = objetivo.length;
+            // Estados expandidos que todavía no se sumaron al contador compartido
+            int pendientes = 0;
+            String texto = tablero.getAlfabeto().decodificar(objetivo);
+            // Objeto, arreglo de celdas y referencia en la lista de cada ubicación
+            long bytesCoincidencia = 16 + 16 + 4L * largo + 8;
+
+            // Copia local de las letras de la región para mantener el conjunto de trabajo pequeño
+            byte[] letras = new byte[alto * ancho];
+            byte[] global = tablero.getCodigos();
+            int columnas = tablero.getColumnas();
+            for (int f = 0; f < alto; f++) {
+                System.arraycopy(global, (filaRegion + f) * columnas + columnaRegion, letras, f * ancho, ancho);
+            }
+
+            int[] camino = new int[largo];
+            int[] direccion = new int[largo];
+            boolean[] enCamino = new boolean[letras.length];
+
+            EscanerLetras escaner = EscanerLetras.obtener();
+            int propias = columnaHasta - columnaDesde;
+            long[] candidatas = new long[(propias + 63) >>> 6];
+
+            for (int f = filaDesde; f < filaHasta; f++) {
+                if (detener.get()) break;
+                // Celdas propias de la fila que tienen la primera letra, comparadas de un vector a la vez
+                Arrays.fill(candidatas, 0);
+                escaner.mascara(letras, f * ancho + columnaDesde, propias, objetivo[0], candidatas, 0);
+                for (int k = 0; k < candidatas.length && !detener.get(); k++) {
+                    long bits = candidatas[k];
+                    for (; bits != 0 && !detener.get(); bits &= bits - 1) {
+                        int inicio = f * ancho + columnaDesde + (k << 6) + Long.numberOfTrailingZeros(bits);
+                        if (!filtro.contiene(0, filaRegion + f, columnaRegion + inicio - f * ancho)) continue;
+                        if (++pendientes == LOTE_ESTADOS) {
+                            pendientes = 0;
+                            if (!consumo.expandir(LOTE_ESTADOS)) {
+                                agotar(detener, agotado);
+                                return;
+                            }
+                        }
+                        int nivel = 0;
+                        camino[0] = inicio;
+                        direccion[0] = 0;
+                        enCamino[inicio] = true;
+                        while (nivel >= 0) {
+                            if (nivel == largo - 1) {
+                                // Las ubicaciones se devuelven, así que su memoria no se libera al terminar
+                                if (!consumo.reservar(bytesCoincidencia)) {
+                                    agotar(detener, agotado);
+                                    return;
+                                }
+                                resultado.add(crearCoincidencia(texto, camino));
+                                if (encontradas.incrementAndGet() >= limite) {
+                                    detener.set(true);
+                                    return;
+                                }
+                                enCamino[camino[nivel]] = false;
+                                nivel--;
+                                continue;
+                            }
+                            int vecino = siguienteVecino(camino[nivel], direccion, nivel);
+                            if (vecino < 0) {
+                                enCamino[camino[nivel]] = false;
+                                nivel--;
+                            } else if (!enCamino[vecino] && letras[vecino] == objetivo[nivel + 1]
+                                    && filtro.contiene(nivel + 1, filaRegion + vecino / ancho, columnaRegion + vecino % ancho)) {
+                                if (++pendientes == LOTE_ESTADOS) {
+                                    pendientes = 0;
+                                    if (!consumo.expandir(LOTE_ESTADOS)) {
+                                        agotar(detener, agotado);
+                                        return;
+                                    }
+                                }
+                                nivel++;
+                                camino[nivel] = vecino;
+                                direccion[nivel] = 0;
+                                enCamino[vecino] = true;
+                            }
+                        }
+                    }
+                }
+            }
+            // Los estados del último lote también cuentan para los mosaicos que siguen
+            consumo.estados.addAndGet(pendientes);
+        }
+
+        /**
+         * Marca la búsqueda como abortada y detiene los demás mosaicos.
+         *
+         * @param detener Señal compartida para abandonar la búsqueda.
+         * @param agotado Señal compartida de presupuesto agotado.
+         */
+        private void agotar(AtomicBoolean detener, AtomicBoolean agotado) {
+            agotado.set(true);
+            detener.set(true);
+        }
+
+        /**
+         * Obtiene el siguiente vecino por probar de una celda local y avanza su dirección.
+         *
+         * @param celda Celda local.
+         * @param direccion Siguiente dirección por probar en cada nivel.
+         * @param nivel Nivel de la celda en el camino.
+         * @return Celda local vecina, o -1 si ya se probaron las 8 direcciones.
+         */
+        private int siguienteVecino(int celda, int[] direccion, int nivel) {
+            int f = celda / ancho;
+            int c = celda - f * ancho;
+            while (direccion[nivel] < 8) {
+                int d = direccion[nivel]++;
+                int nf = f + DF[d];
+                int nc = c + DC[d];
+                if (nf >= 0 && nc >= 0 && nf < alto && nc < ancho) {
+                    return nf * ancho + nc;
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * Crea una coincidencia traduciendo el camino local a celdas del tablero.
+         *
+         * @param texto Palabra buscada.
+         * @param camino Camino en coordenadas locales.
+         * @return Coincidencia con las celdas del tablero.
+         */
+        private Coincidencia crearCoincidencia(String texto, int[] camino) {
+            int[] celdas = new int[camino.length];
+            for (int i = 0; i < camino.length; i++) {
+                int f = camino[i] / ancho + filaRegion;
+                int c = camino[i] % ancho + columnaRegion;
+                celdas[i] = f * tablero.getColumnas() + c;
+            }
+            return new Coincidencia(texto, celdas);
+        }
+    }
+}
@@ -0,0 +1,502 @@
+package sopadeletras.archivo;
+
+import sopadeletras.estructuras.ListaPalabras;
+import sopadeletras.modelo.Alfabeto;
+import sopadeletras.modelo.IndiceLetras;
+import sopadeletras.modelo.Sopa;
+import sopadeletras.modelo.Tablero;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Carga de sopas de letras en formato de texto pensada para archivos grandes.
+ * <p>
+ * El hilo que llama a {@link #cargar(Path, OyenteCarga)} lee el archivo con un {@link FileChannel}
+ * en bloques grandes, lo decodifica como UTF-8 y reparte las líneas de cada sección en lotes.
+ * Dos tareas consumen los lotes en paralelo con la lectura: una agrega las palabras al diccionario
+ * (con lo que su trie se construye mientras se lee) y otra convierte las filas del tablero a códigos
+ * de letra y cuenta las celdas de cada letra, de modo que al terminar la lectura solo falta repartir
+ * las celdas en el {@link IndiceLetras}.
+ * <p>
+ * Los problemas se informan con su número de línea a medida que aparecen. Un error en el tablero es
+ * grave: la lectura se detiene en cuanto se detecta y la carga termina con una {@link IOException}.
+ */
+public class CargadorSopa {
+    /** Tamaño en bytes de cada bloque leído del archivo. */
+    private static final int TAMANO_BLOQUE = 1 << 20;
+
+    /** Número de líneas por lote enviado a las tareas. */
+    private static final int TAMANO_LOTE = 4096;
+
+    /** Lotes que pueden esperar en cada cola antes de que la lectura se detenga a esperar. */
+    private static final int CAPACIDAD_COLA = 16;
+
+    /** Milisegundos que se espera lugar en una cola antes de revisar si su tarea terminó. */
+    private static final int ESPERA_COLA = 50;
+
+    /** Lote que indica a una tarea que no hay más líneas. */
+    private static final Lote FIN = new Lote(0);
+
+    /** Oyente que no hace nada, usado cuando no se pasa ninguno. */
+    private static final OyenteCarga SIN_OYENTE = new OyenteCarga() {
+        @Override
+        public void progreso(long leidos, long total) {
+        }
+
+        @Override
+        public void errorLinea(ErrorLinea error) {
+        }
+    };
+
+    /** Ejecutor por defecto, con hilos demonio para no impedir que la aplicación termine. */
+    private static final ExecutorService EJECUTOR_DEFECTO = Executors.newCachedThreadPool(tarea -> {
+        Thread hilo = new Thread(tarea, "carga-sopa");
+        hilo.setDaemon(true);
+        return hilo;
+    });
+
+    /** Alfabeto con el que se codifican el tablero y el diccionario. */
+    private final Alfabeto alfabeto;
+
+    /** Ejecutor donde corren las tareas del diccionario y del tablero. */
+    private final ExecutorService ejecutor;
+
+    /**
+     * Construye un cargador con el alfabeto por defecto.
+     */
+    public CargadorSopa() {
+        this(Alfabeto.porDefecto(), EJECUTOR_DEFECTO);
+    }
+
+    /**
+     * Construye un cargador.
+     *
+     * @param alfabeto Alfabeto con el que se codifican el tablero y el diccionario.
+     * @param ejecutor Ejecutor para las tareas del diccionario y del tablero (necesita dos hilos libres).
+     */
+    public CargadorSopa(Alfabeto alfabeto, ExecutorService ejecutor) {
+        this.alfabeto = alfabeto;
+        this.ejecutor = ejecutor;
+    }
+
+    /**
+     * Líneas consecutivas de una misma sección, con sus números de línea.
+     */
+    private static class Lote {
+        /** Texto de cada línea. */
+        final String[] lineas;
+
+        /** Número de cada línea en el archivo (empezando en 1). */
+        final long[] numeros;
+
+        /** Número de líneas en uso. */
+        int cantidad;
+
+        /**
+         * Construye un lote vacío.
+         *
+         * @param capacidad Número máximo de líneas.
+         */
+        Lote(int capacidad) {
+            this.lineas = new String[capacidad];
+            this.numeros = new long[capacidad];
+        }
+
+        /**
+         * Indica si el lote no admite más líneas.
+         *
+         * @return true si está lleno.
+         */
+        boolean lleno() {
+            return cantidad == lineas.length;
+        }
+    }
+
+    /**
+     * Carga una sopa de letras en formato de texto.
+     *
+     * @param archivo Archivo a cargar.
+     * @param oyente Oyente que recibe el avance y los errores, o null.
+     * @return Sopa con el tablero (con su índice de letras) y el diccionario.
+     * @throws IOException si ocurre un error de lectura, el formato es inválido o se interrumpe el hilo.
+     */
+    public Sopa cargar(Path archivo, OyenteCarga oyente) throws IOException {
+        OyenteCarga destino = oyente != null ? oyente : SIN_OYENTE;
+        BlockingQueue<Lote> colaDiccionario = new ArrayBlockingQueue<>(CAPACIDAD_COLA);
+        BlockingQueue<Lote> colaTablero = new ArrayBlockingQueue<>(CAPACIDAD_COLA);
+        Future<ListaPalabras> diccionario = ejecutor.submit(() -> leerDiccionario(colaDiccionario, destino));
+        Future<Tablero> tablero = ejecutor.submit(() -> leerTablero(colaTablero, destino));
+        try {
+            Lectura lectura = new Lectura(colaDiccionario, diccionario, colaTablero, tablero, destino);
+            lectura.leer(archivo);
+            lectura.enviar(colaDiccionario, FIN, diccionario);
+            lectura.enviar(colaTablero, FIN, tablero);
+            return new Sopa(tablero.get(), diccionario.get());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Carga interrumpida: " + archivo);
+        } catch (ExecutionException e) {
+            Throwable causa = e.getCause();
+            if (causa instanceof IOException) throw (IOException) causa;
+            throw new IOException("Error al cargar " + archivo, causa);
+        } finally {
+            // Si la lectura falló, las tareas pueden seguir esperando lotes
+            diccionario.cancel(true);
+            tablero.cancel(true);
+        }
+    }
+
+    /**
+     * Lectura del archivo: separa las líneas, sigue las secciones y envía los lotes a las tareas.
+     */
+    private static class Lectura {
+        /** Cola de la tarea del diccionario. */
+        private final BlockingQueue<Lote> colaDiccionario;
+
+        /** Tarea del diccionario. */
+        private final Future<?> tareaDiccionario;
+
+        /** Cola de la tarea del tablero. */
+        private final BlockingQueue<Lote> colaTablero;
+
+        /** Tarea del tablero. */
+        private final Future<?> tareaTablero;
+
+        /** Oyente de la carga. */
+        private final OyenteCarga oyente;
+
+        /** Lote del diccionario que se está llenando. */
+        private Lote loteDiccionario = new Lote(TAMANO_LOTE);
+
+        /** Lote del tablero que se está llenando. */
+        private Lote loteTablero = new Lote(TAMANO_LOTE);
+
+        /** Indica si la lectura está en la sección "dic". */
+        private boolean enDic;
+
+        /** Indica si la lectura está en la sección "tab". */
+        private boolean enTab;
+
+        /** Número de la última línea leída. */
+        private long numeroLinea;
+
+        /**
+         * Construye la lectura.
+         *
+         * @param colaDiccionario Cola de la tarea del diccionario.
+         * @param tareaDiccionario Tarea del diccionario.
+         * @param colaTablero Cola de la tarea del tablero.
+         * @param tareaTablero Tarea del tablero.
+         * @param oyente Oyente de la carga.
+         */
+        Lectura(BlockingQueue<Lote> colaDiccionario, Future<?> tareaDiccionario,
+                BlockingQueue<Lote> colaTablero, Future<?> tareaTablero, OyenteCarga oyente) {
+            this.colaDiccionario = colaDiccionario;
+            this.tareaDiccionario = tareaDiccionario;
+            this.colaTablero = colaTablero;
+            this.tareaTablero = tareaTablero;
+            this.oyente = oyente;
+        }
+
+        /**
+         * Lee el archivo completo, o hasta que alguna tarea termine por un error.
+         *
+         * @param archivo Archivo a leer.
+         * @throws IOException si ocurre un error de lectura.
+         * @throws InterruptedException si se interrumpe el hilo.
+         */
+        void leer(Path archivo) throws IOException, InterruptedException {
+            try (FileChannel canal = FileChannel.open(archivo, StandardOpenOption.READ)) {
+                long total = canal.size();
+                ByteBuffer bytes = ByteBuffer.allocateDirect(TAMANO_BLOQUE);
+                // UTF-8 nunca produce más caracteres que bytes, así que un bloque siempre cabe
+                CharBuffer caracteres = CharBuffer.allocate(TAMANO_BLOQUE);
+                CharsetDecoder decodificador = StandardCharsets.UTF_8.newDecoder()
+                    .onMalformedInput(CodingErrorAction.REPLACE)
+                    .onUnmappableCharacter(CodingErrorAction.REPLACE);
+                StringBuilder pendiente = new StringBuilder();
+                long leidos = 0;
+                boolean fin = false;
+
+                while (!fin && !tareaTerminada()) {
+                    if (Thread.interrupted()) throw new InterruptedException();
+                    int n = canal.read(bytes);
+                    fin = n < 0;
+                    if (n > 0) leidos += n;
+                    bytes.flip();
+                    decodificador.decode(bytes, caracteres, fin);
+                    if (fin) decodificador.flush(caracteres);
+                    bytes.compact();
+                    caracteres.flip();
+                    separarLineas(caracteres, pendiente);
+                    caracteres.clear();
+                    oyente.progreso(leidos, total);
+                }
+                if (pendiente.length() > 0) {
+                    procesarLinea(quitarRetorno(pendiente.toString()));
+                }
+                enviar(colaDiccionario, loteDiccionario, tareaDiccionario);
+                enviar(colaTablero, loteTablero, tareaTablero);
+            }
+        }
+
+        /**
+         * Indica si alguna tarea terminó antes de recibir el fin, lo que solo ocurre por un error.
+         *
+         * @return true si hay que dejar de leer.
+         */
+        private boolean tareaTerminada() {
+            return tareaDiccionario.isDone() || tareaTablero.isDone();
+        }
+
+        /**
+         * Separa las líneas completas de un bloque decodificado; lo que queda después del último
+         * salto de línea se guarda en {@code pendiente} para el bloque siguiente.
+         *
+         * @param caracteres Bloque decodificado.
+         * @param pendiente Comienzo de la línea que quedó incompleta en el bloque anterior.
+         * @throws InterruptedException si se interrumpe el hilo al enviar un lote.
+         */
+        private void separarLineas(CharBuffer caracteres, StringBuilder pendiente) throws InterruptedException {
+            char[] arreglo = caracteres.array();
+            int inicioLinea = caracteres.arrayOffset() + caracteres.position();
+            int hasta = caracteres.arrayOffset() + caracteres.limit();
+            for (int i = inicioLinea; i < hasta; i++) {
+                if (arreglo[i] != '\n') continue;
+                String linea;
+                if (pendiente.length() > 0) {
+                    pendiente.append(arreglo, inicioLinea, i - inicioLinea);
+                    linea = pendiente.toString();
+                    pendiente.setLength(0);
+                } else {
+                    linea = new String(arreglo, inicioLinea, i - inicioLinea);
+                }
+                procesarLinea(quitarRetorno(linea));
+                inicioLinea = i + 1;
+            }
+            pendiente.append(arreglo, inicioLinea, hasta - inicioLinea);
+        }
+
+        /**
+         * Quita el retorno de carro final de una línea con fin de línea de Windows.
+         *
+         * @param linea Línea leída.
+         * @return Línea sin el retorno de carro.
+         */
+        private static String quitarRetorno(String linea) {
+            return linea.endsWith("\r") ? linea.substring(0, linea.length() - 1) : linea;
+        }
+
+        /**
+         * Actualiza la sección con una línea de marca o agrega la línea al lote de su sección.
+         *
+         * @param linea Línea leída.
+         * @throws InterruptedException si se interrumpe el hilo al enviar un lote.
+         */
+        private void procesarLinea(String linea) throws InterruptedException {
+            numeroLinea++;
+            if (linea.equalsIgnoreCase("dic")) {
+                enDic = true;
+            } else if (linea.equalsIgnoreCase("/dic")) {
+                enDic = false;
+            } else if (linea.equalsIgnoreCase("tab")) {
+                enTab = true;
+            } else if (linea.equalsIgnoreCase("/tab")) {
+                enTab = false;
+            } else if (enDic) {
+                agregar(loteDiccionario, linea);
+                if (loteDiccionario.lleno()) {
+                    enviar(colaDiccionario, loteDiccionario, tareaDiccionario);
+                    loteDiccionario = new Lote(TAMANO_LOTE);
+                }
+            } else if (enTab) {
+                agregar(loteTablero, linea);
+                if (loteTablero.lleno()) {
+                    enviar(colaTablero, loteTablero, tareaTablero);
+                    loteTablero = new Lote(TAMANO_LOTE);
+                }
+            }
+        }
+
+        /**
+         * Agrega la línea actual a un lote.
+         *
+         * @param lote Lote de destino.
+         * @param linea Línea a agregar.
+         */
+        private void agregar(Lote lote, String linea) {
+            lote.lineas[lote.cantidad] = linea;
+            lote.numeros[lote.cantidad] = numeroLinea;
+            lote.cantidad++;
+        }
+
+        /**
+         * Envía un lote a una tarea, esperando si su cola está llena. Si la tarea ya terminó
+         * (por un error) el lote se descarta, para no quedar esperando una cola que nadie vacía.
+         *
+         * @param cola Cola de la tarea.
+         * @param lote Lote a enviar.
+         * @param tarea Tarea que consume la cola.
+         * @throws InterruptedException si se interrumpe el hilo.
+         */
+        void enviar(BlockingQueue<Lote> cola, Lote lote, Future<?> tarea) throws InterruptedException {
+            if (lote.cantidad == 0 && lote != FIN) return;
+            while (!cola.offer(lote, ESPERA_COLA, TimeUnit.MILLISECONDS)) {
+                if (tarea.isDone()) return;
+            }
+        }
+    }
+
+    /**
+     * Tarea del diccionario: agrega al diccionario las palabras de los lotes hasta recibir el fin.
+     * Las palabras con caracteres que no son letras del alfabeto se agregan igual, pero se informan.
+     *
+     * @param cola Cola de lotes.
+     * @param oyente Oyente de la carga.
+     * @return Diccionario leído.
+     * @throws InterruptedException si se cancela la carga.
+     */
+    private ListaPalabras leerDiccionario(BlockingQueue<Lote> cola, OyenteCarga oyente) throws InterruptedException {
+        ListaPalabras diccionario = new ListaPalabras(alfabeto);
+        for (Lote lote = cola.take(); lote != FIN; lote = cola.take()) {
+            for (int i = 0; i < lote.cantidad; i++) {
+                String palabra = lote.lineas[i].trim();
+                if (palabra.isEmpty()) continue;
+                if (!Alfabeto.esCompleto(alfabeto.codificar(palabra))) {
+                    oyente.errorLinea(new ErrorLinea(lote.numeros[i], "La palabra '" + palabra
+                        + "' tiene caracteres que no son letras y no podrá encontrarse.", false));
+                }
+                diccionario.agregar(palabra);
+            }
+        }
+        return diccionario;
+    }
+
+    /**
+     * Tarea del tablero: convierte las filas de los lotes a códigos de letra, contando las celdas de
+     * cada letra, y al recibir el fin construye el tablero con su índice de letras.
+     *
+     * @param cola Cola de lotes.
+     * @param oyente Oyente de la carga.
+     * @return Tablero leído.
+     * @throws IOException si una fila es inválida o no hay filas.
+     * @throws InterruptedException si se cancela la carga.
+     */
+    private Tablero leerTablero(BlockingQueue<Lote> cola, OyenteCarga oyente) throws IOException, InterruptedException {
+        byte[] codigos = new byte[TAMANO_BLOQUE];
+        int[] conteo = new int[Alfabeto.TAMANO];
+        int filas = 0, columnas = 0;
+
+        for (Lote lote = cola.take(); lote != FIN; lote = cola.take()) {
+            for (int i = 0; i < lote.cantidad; i++) {
+                long numero = lote.numeros[i];
+                String linea = lote.lineas[i];
+                // Cada celda ocupa al menos un carácter y una coma, salvo la última
+                long necesarias = (long) filas * columnas + (linea.length() + 1) / 2;
+                if (necesarias > Integer.MAX_VALUE - 8) {
+                    throw errorGrave(oyente, numero, "El tablero es demasiado grande.");
+                }
+                if (necesarias > codigos.length) {
+                    codigos = Arrays.copyOf(codigos, (int) Math.min(Integer.MAX_VALUE - 8,
+                        Math.max(2L * codigos.length, necesarias)));
+                }
+                int celdas;
+                try {
+                    celdas = codificarFila(alfabeto, linea, codigos, filas * columnas, conteo);
+                } catch (IOException e) {
+                    throw errorGrave(oyente, numero, e.getMessage());
+                }
+                if (filas == 0) {
+                    columnas = celdas;
+                } else if (celdas != columnas) {
+                    throw errorGrave(oyente, numero, "La fila tiene " + celdas
+                        + " columnas y las anteriores tienen " + columnas + ".");
+                }
+                filas++;
+            }
+        }
+
+        if (filas == 0) {
+            throw new IOException("El archivo no contiene la sección del tablero.");
+        }
+        byte[] celdas = Arrays.copyOf(codigos, filas * columnas);
+        return new Tablero(filas, columnas, celdas, alfabeto, new IndiceLetras(celdas, conteo));
+    }
+
+    /**
+     * Convierte una fila del tablero a códigos de letra sin crear subcadenas, con las mismas reglas
+     * que {@link ArchivoSopa#parsearFila(String)}: celdas separadas por comas, espacios alrededor
+     * ignorados, se usa el primer carácter de cada celda y las celdas vacías al final no cuentan.
+     *
+     * @param alfabeto Alfabeto con el que se codifican las letras.
+     * @param linea Línea de la sección "tab".
+     * @param destino Arreglo donde se escriben los códigos.
+     * @param desde Posición de {@code destino} donde se escribe la primera celda.
+     * @param conteo Número de celdas de cada código, que se actualiza.
+     * @return Número de celdas de la fila.
+     * @throws IOException si hay una celda vacía o una letra que no pertenece al alfabeto.
+     */
+    static int codificarFila(Alfabeto alfabeto, String linea, byte[] destino, int desde, int[] conteo) throws IOException {
+        int largo = linea.length();
+        if (largo == 0) {
+            throw new IOException("Celda vacía en la fila: " + linea);
+        }
+        int celdas = 0;
+        int vacias = 0;
+        for (int inicio = 0; inicio <= largo; ) {
+            int fin = linea.indexOf(',', inicio);
+            if (fin < 0) fin = largo;
+            if (fin == inicio) {
+                // Solo es un error si después aparece otra celda
+                vacias++;
+            } else {
+                int a = inicio;
+                while (a < fin && linea.charAt(a) <= ' ') a++;
+                if (vacias > 0 || a == fin) {
+                    throw new IOException("Celda vacía en la fila: " + linea);
+                }
+                char letra = linea.charAt(a);
+                byte codigo = alfabeto.codificar(letra);
+                if (codigo == Alfabeto.SIN_CODIGO) {
+                    throw new IOException("Letra no válida en la columna " + (celdas + 1) + ": '"
+                        + Character.toUpperCase(letra) + "'.");
+                }
+                destino[desde + celdas++] = codigo;
+                conteo[codigo]++;
+            }
+            inicio = fin + 1;
+        }
+        return celdas;
+    }
+
+    /**
+     * Informa un error grave al oyente y crea la excepción con la que termina la carga.
+     *
+     * @param oyente Oyente de la carga.
+     * @param linea Número de línea.
+     * @param mensaje Descripción del problema.
+     * @return Excepción a lanzar.
+     */
+    private static IOException errorGrave(OyenteCarga oyente, long linea, String mensaje) {
+        ErrorLinea error = new ErrorLinea(linea, mensaje, true);
+        oyente.errorLinea(error);
+        return new IOException(error.toString());
+    }
+}
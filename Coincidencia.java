@@ -0,0 +1,80 @@
+package sopadeletras.logica;
+
+import java.util.Arrays;
+
+/**
+ * Ubicación de una palabra encontrada en el tablero: el texto leído y las celdas del camino.
+ * Cada celda se identifica por su posición en el arreglo plano del tablero
+ * (fila * columnas + columna). Dos coincidencias son iguales si recorren las mismas celdas
+ * en el mismo orden.
+ */
+public class Coincidencia {
+    /** Texto formado por las letras del camino. */
+    private String palabra;
+
+    /** Celdas que forman el camino, en orden. */
+    private int[] celdas;
+
+    /**
+     * Construye una coincidencia con el texto y las celdas dadas.
+     *
+     * @param palabra Texto formado por las letras del camino.
+     * @param celdas Celdas del camino, en orden.
+     */
+    public Coincidencia(String palabra, int[] celdas) {
+        this.palabra = palabra;
+        this.celdas = celdas;
+    }
+
+    /**
+     * Obtiene el texto formado por las letras del camino.
+     *
+     * @return Texto de la coincidencia.
+     */
+    public String getPalabra() {
+        return palabra;
+    }
+
+    /**
+     * Obtiene las celdas del camino, en orden.
+     *
+     * @return Arreglo de celdas (fila * columnas + columna).
+     */
+    public int[] getCeldas() {
+        return celdas;
+    }
+
+    /**
+     * Compara dos coincidencias según las celdas de su camino.
+     *
+     * @param obj Objeto a comparar.
+     * @return true si el objeto es una Coincidencia con el mismo camino.
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (obj instanceof Coincidencia) {
+            return Arrays.equals(celdas, ((Coincidencia) obj).celdas);
+        }
+        return false;
+    }
+
+    /**
+     * Genera el código hash basado en las celdas del camino.
+     *
+     * @return Código hash de la coincidencia.
+     */
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(celdas);
+    }
+
+    /**
+     * Representación en cadena de la coincidencia, con el texto y las celdas.
+     *
+     * @return Cadena con el texto y el camino.
+     */
+    @Override
+    public String toString() {
+        return palabra + " " + Arrays.toString(celdas);
+    }
+}
@@ -0,0 +1,41 @@
+package sopadeletras.logica;
+
+/**
+ * Coincidencia de una búsqueda aproximada: además del texto y del camino,
+ * guarda la distancia de edición respecto de la palabra buscada.
+ */
+public class CoincidenciaAproximada extends Coincidencia {
+    /** Distancia de edición entre el texto del camino y la palabra buscada. */
+    private int distancia;
+
+    /**
+     * Construye una coincidencia aproximada.
+     *
+     * @param palabra Texto formado por las letras del camino.
+     * @param celdas Celdas del camino, en orden.
+     * @param distancia Distancia de edición respecto de la palabra buscada.
+     */
+    public CoincidenciaAproximada(String palabra, int[] celdas, int distancia) {
+        super(palabra, celdas);
+        this.distancia = distancia;
+    }
+
+    /**
+     * Obtiene la distancia de edición respecto de la palabra buscada.
+     *
+     * @return Número de errores de la coincidencia.
+     */
+    public int getDistancia() {
+        return distancia;
+    }
+
+    /**
+     * Representación en cadena de la coincidencia, con la distancia.
+     *
+     * @return Cadena con el texto, el camino y la distancia.
+     */
+    @Override
+    public String toString() {
+        return super.toString() + " d=" + distancia;
+    }
+}
@@ -0,0 +1,183 @@
+package sopadeletras.estructuras;
+
+import java.util.Arrays;
+
+/**
+ * Conjunto de claves {@code long} con direccionamiento abierto (sondeo lineal), sin objetos
+ * por entrada. Opcionalmente guarda junto a cada clave una carga de un número fijo de enteros,
+ * que se registra la primera vez que se agrega la clave.
+ * La clave 0 está reservada para marcar posiciones libres y no puede agregarse.
+ */
+public class ConjuntoLargos {
+    /** Claves almacenadas; 0 indica posición libre. */
+    private long[] claves;
+
+    /** Cargas de cada posición, {@code anchoCarga} enteros por posición (vacío si no hay carga). */
+    private int[] cargas;
+
+    /** Número de enteros de carga por clave. */
+    private int anchoCarga;
+
+    /** Número de claves almacenadas. */
+    private int tamano;
+
+    /**
+     * Construye un conjunto vacío sin carga.
+     */
+    public ConjuntoLargos() {
+        this(0);
+    }
+
+    /**
+     * Construye un conjunto vacío que guarda {@code anchoCarga} enteros por clave.
+     *
+     * @param anchoCarga Número de enteros de carga por clave (0 para no guardar carga).
+     */
+    public ConjuntoLargos(int anchoCarga) {
+        if (anchoCarga < 0) {
+            throw new IllegalArgumentException("El ancho de la carga no puede ser negativo.");
+        }
+        this.anchoCarga = anchoCarga;
+        this.claves = new long[16];
+        this.cargas = new int[16 * anchoCarga];
+    }
+
+    /**
+     * Agrega una clave sin carga.
+     *
+     * @param clave Clave a agregar (distinta de 0).
+     * @return true si la clave no estaba en el conjunto.
+     */
+    public boolean agregar(long clave) {
+        return agregar(clave, null, 0);
+    }
+
+    /**
+     * Agrega una clave con su carga. Si la clave ya existía, se conserva la carga original.
+     *
+     * @param clave Clave a agregar (distinta de 0).
+     * @param carga Arreglo desde el que se copia la carga, o null para dejarla en ceros.
+     * @param desde Posición de {@code carga} donde empieza la carga.
+     * @return true si la clave no estaba en el conjunto.
+     */
+    public boolean agregar(long clave, int[] carga, int desde) {
+        if (clave == 0) {
+            throw new IllegalArgumentException("La clave 0 está reservada.");
+        }
+        if ((tamano + 1) * 2 > claves.length) {
+            redimensionar(claves.length * 2);
+        }
+        int mascara = claves.length - 1;
+        int i = dispersar(clave) & mascara;
+        while (claves[i] != 0) {
+            if (claves[i] == clave) return false;
+            i = (i + 1) & mascara;
+        }
+        claves[i] = clave;
+        if (carga != null && anchoCarga > 0) {
+            System.arraycopy(carga, desde, cargas, i * anchoCarga, anchoCarga);
+        }
+        tamano++;
+        return true;
+    }
+
+    /**
+     * Indica si la clave está en el conjunto.
+     *
+     * @param clave Clave a buscar.
+     * @return true si la clave está en el conjunto.
+     */
+    public boolean contiene(long clave) {
+        return posicion(clave) >= 0;
+    }
+
+    /**
+     * Copia la carga de una clave al arreglo de destino.
+     *
+     * @param clave Clave a buscar.
+     * @param destino Arreglo de al menos {@code anchoCarga} enteros.
+     * @return true si la clave está en el conjunto y se copió su carga.
+     */
+    public boolean obtenerCarga(long clave, int[] destino) {
+        int i = posicion(clave);
+        if (i < 0) return false;
+        System.arraycopy(cargas, i * anchoCarga, destino, 0, anchoCarga);
+        return true;
+    }
+
+    /**
+     * Obtiene el número de claves almacenadas.
+     *
+     * @return Número de claves.
+     */
+    public int tamano() {
+        return tamano;
+    }
+
+    /**
+     * Busca la posición interna de una clave.
+     *
+     * @param clave Clave a buscar.
+     * @return Posición de la clave, o -1 si no está.
+     */
+    private int posicion(long clave) {
+        if (clave == 0) return -1;
+        int mascara = claves.length - 1;
+        int i = dispersar(clave) & mascara;
+        while (claves[i] != 0) {
+            if (claves[i] == clave) return i;
+            i = (i + 1) & mascara;
+        }
+        return -1;
+    }
+
+    /**
+     * Duplica la capacidad y vuelve a ubicar todas las claves con sus cargas.
+     *
+     * @param capacidad Nueva capacidad (potencia de 2).
+     */
+    private void redimensionar(int capacidad) {
+        long[] viejasClaves = claves;
+        int[] viejasCargas = cargas;
+        claves = new long[capacidad];
+        cargas = new int[capacidad * anchoCarga];
+        int mascara = capacidad - 1;
+        for (int j = 0; j < viejasClaves.length; j++) {
+            long clave = viejasClaves[j];
+            if (clave == 0) continue;
+            int i = dispersar(clave) & mascara;
+            while (claves[i] != 0) {
+                i = (i + 1) & mascara;
+            }
+            claves[i] = clave;
+            if (anchoCarga > 0) {
+                System.arraycopy(viejasCargas, j * anchoCarga, cargas, i * anchoCarga, anchoCarga);
+            }
+        }
+    }
+
+    /**
+     * Mezcla los bits de la clave para repartirla uniformemente en la tabla.
+     *
+     * @param clave Clave a dispersar.
+     * @return Valor de dispersión.
+     */
+    private static int dispersar(long clave) {
+        long h = clave;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return (int) h;
+    }
+
+    /**
+     * Vacía el conjunto, conservando su capacidad.
+     */
+    public void limpiar() {
+        Arrays.fill(claves, 0);
+        Arrays.fill(cargas, 0);
+        tamano = 0;
+    }
+}
@@ -0,0 +1,273 @@
+package sopadeletras.logica;
+
+import java.util.Arrays;
+import sopadeletras.modelo.Alfabeto;
+import sopadeletras.modelo.Tablero;
+
+/**
+ * Memoria de trabajo de una búsqueda: pilas del DFS, marcas de visitados, arena de estados del BFS,
+ * filtro de alcanzabilidad y medidor de presupuesto.
+ * <p>
+ * Los arreglos crecen la primera vez que hacen falta y se reutilizan en las búsquedas siguientes,
+ * de modo que en régimen estable una búsqueda no reserva memoria. Un contexto no es seguro para
+ * usarse desde varios hilos a la vez: cada hilo obtiene el suyo con {@link #actual()} o crea uno
+ * propio y lo pasa explícitamente al {@link ControladorBusqueda}.
+ * <p>
+ * Las celdas visitadas se marcan con el número de generación de la búsqueda en curso, así que
+ * empezar una búsqueda nueva no requiere limpiar el arreglo de marcas, aunque la anterior se
+ * haya interrumpido a mitad de camino.
+ */
+public class ContextoBusqueda {
+    /** Contexto de cada hilo, creado la primera vez que el hilo lo pide. */
+    private static final ThreadLocal<ContextoBusqueda> POR_HILO = ThreadLocal.withInitial(ContextoBusqueda::new);
+
+    /** Capacidad inicial de la arena de estados del BFS. */
+    private static final int CAPACIDAD_ARENA = 256;
+
+    /** Marca de cada celda; una celda está en el camino si su marca es igual a {@link #generacion}. */
+    int[] marcas = new int[0];
+
+    /** Generación de la búsqueda en curso (nunca 0). */
+    int generacion;
+
+    /** Celdas del camino actual del DFS, una por nivel. */
+    int[] camino = new int[0];
+
+    /** Vecinos de la celda de cada nivel del DFS. */
+    int[][] vecinos = new int[0][];
+
+    /** Número de vecinos de la celda de cada nivel del DFS. */
+    int[] cantidadVecinos = new int[0];
+
+    /** Siguiente vecino por probar en cada nivel del DFS. */
+    int[] siguiente = new int[0];
+
+    /** Celdas desde las que puede empezar la palabra actual. */
+    int[] iniciales = new int[0];
+
+    /** Vecinos auxiliares para el BFS y las verificaciones previas. */
+    final int[] vecinosAuxiliares = new int[8];
+
+    /** Códigos de las letras de la palabra actual. */
+    byte[] codigosPalabra = new byte[0];
+
+    /** Apariciones de cada código de letra en la palabra actual. */
+    final int[] conteo = new int[Alfabeto.TAMANO];
+
+    /** Celda de cada estado de la arena del BFS. */
+    int[] celdaEstado = new int[CAPACIDAD_ARENA];
+
+    /** Estado padre de cada estado de la arena (-1 para el inicial). */
+    int[] padreEstado = new int[CAPACIDAD_ARENA];
+
+    /** Posición en la palabra de cada estado de la arena. */
+    int[] nivelEstado = new int[CAPACIDAD_ARENA];
+
+    /** Número de estados en la arena. */
+    int estados;
+
+    /** Celdas del camino de la última palabra encontrada con este contexto. */
+    private int[] caminoEncontrado = new int[0];
+
+    /** Largo de {@link #caminoEncontrado}, o -1 si la última búsqueda no dejó un camino. */
+    private int largoEncontrado = -1;
+
+    /** Traza donde se registran los eventos de las búsquedas, o null si no se registran. */
+    RegistroTraza traza;
+
+    /** Filtro de alcanzabilidad reutilizado entre búsquedas. */
+    final FiltroAlcanzabilidad filtro = new FiltroAlcanzabilidad();
+
+    /** Medidor de presupuesto reutilizado entre búsquedas. */
+    final MedidorPresupuesto medidor = new MedidorPresupuesto(PresupuestoBusqueda.ILIMITADO);
+
+    /**
+     * Obtiene el contexto del hilo actual.
+     *
+     * @return Contexto de búsqueda del hilo.
+     */
+    public static ContextoBusqueda actual() {
+        return POR_HILO.get();
+    }
+
+    /**
+     * Prepara el contexto para buscar la palabra codificada con {@link #codificar(Tablero, String)}:
+     * ajusta el tamaño de los arreglos, empieza una generación nueva de marcas y calcula el filtro
+     * de alcanzabilidad.
+     *
+     * @param tablero Tablero donde se busca.
+     * @param largo Largo de la palabra buscada.
+     */
+    void preparar(Tablero tablero, int largo) {
+        int celdas = tablero.getFilas() * tablero.getColumnas();
+        if (marcas.length < celdas) {
+            marcas = new int[celdas];
+            iniciales = new int[celdas];
+            generacion = 0;
+        }
+        if (++generacion == 0) {
+            Arrays.fill(marcas, 0);
+            generacion = 1;
+        }
+        if (camino.length < largo) {
+            camino = new int[largo];
+            cantidadVecinos = new int[largo];
+            siguiente = new int[largo];
+            int anterior = vecinos.length;
+            vecinos = Arrays.copyOf(vecinos, largo);
+            for (int i = anterior; i < largo; i++) {
+                vecinos[i] = new int[8];
+            }
+        }
+        filtro.calcular(tablero, codigosPalabra, largo);
+        if (traza != null) {
+            traza.iniciar(tablero.getColumnas());
+        }
+    }
+
+    /**
+     * Codifica la palabra con el alfabeto del tablero en el arreglo auxiliar, creciéndolo si hace falta.
+     *
+     * @param tablero Tablero donde se busca.
+     * @param palabra Palabra a codificar.
+     * @return Arreglo con los códigos de la palabra en sus primeras posiciones.
+     */
+    byte[] codificar(Tablero tablero, String palabra) {
+        if (codigosPalabra.length < palabra.length()) {
+            codigosPalabra = new byte[palabra.length()];
+        }
+        Alfabeto alfabeto = tablero.getAlfabeto();
+        for (int i = 0; i < palabra.length(); i++) {
+            codigosPalabra[i] = alfabeto.codificar(palabra.charAt(i));
+        }
+        return codigosPalabra;
+    }
+
+    /**
+     * Inicia el medidor de presupuesto para una búsqueda.
+     *
+     * @param presupuesto Presupuesto de la búsqueda.
+     * @return Medidor reiniciado.
+     */
+    MedidorPresupuesto iniciar(PresupuestoBusqueda presupuesto) {
+        medidor.reiniciar(presupuesto);
+        return medidor;
+    }
+
+    /**
+     * Indica si la última búsqueda hecha con este contexto se detuvo por agotar su presupuesto.
+     *
+     * @return true si se agotó alguno de los límites del presupuesto.
+     */
+    public boolean presupuestoAgotado() {
+        return medidor.estaAgotado();
+    }
+
+    /**
+     * Asigna la traza donde se registran los eventos de las búsquedas hechas con este contexto.
+     *
+     * @param traza Traza a usar, o null para dejar de registrar.
+     */
+    public void setTraza(RegistroTraza traza) {
+        this.traza = traza;
+    }
+
+    /**
+     * Obtiene la traza asignada al contexto.
+     *
+     * @return Traza, o null si no se registran eventos.
+     */
+    public RegistroTraza getTraza() {
+        return traza;
+    }
+
+    /**
+     * Obtiene el camino de la última palabra encontrada por una búsqueda DFS o BFS hecha con este
+     * contexto. Las palabras que el índice de cadenas cortas resuelve sin camino no dejan ninguno.
+     *
+     * @return Copia de las celdas del camino (fila * columnas + columna), o null si no hay camino.
+     */
+    public int[] getCaminoEncontrado() {
+        return largoEncontrado < 0 ? null : Arrays.copyOf(caminoEncontrado, largoEncontrado);
+    }
+
+    /**
+     * Descarta el camino de la búsqueda anterior.
+     */
+    void olvidarCamino() {
+        largoEncontrado = -1;
+    }
+
+    /**
+     * Guarda el camino de la palabra encontrada.
+     *
+     * @param celdas Celdas del camino.
+     * @param largo Número de celdas del camino.
+     */
+    void registrarCamino(int[] celdas, int largo) {
+        if (caminoEncontrado.length < largo) {
+            caminoEncontrado = new int[largo];
+        }
+        System.arraycopy(celdas, 0, caminoEncontrado, 0, largo);
+        largoEncontrado = largo;
+    }
+
+    /**
+     * Guarda el camino que lleva hasta un estado de la arena del BFS, recorriendo la cadena de padres.
+     *
+     * @param estado Estado final de la palabra encontrada.
+     */
+    void registrarCaminoBFS(int estado) {
+        int largo = nivelEstado[estado] + 1;
+        if (caminoEncontrado.length < largo) {
+            caminoEncontrado = new int[largo];
+        }
+        for (int e = estado; e >= 0; e = padreEstado[e]) {
+            caminoEncontrado[nivelEstado[e]] = celdaEstado[e];
+        }
+        largoEncontrado = largo;
+    }
+
+    /**
+     * Vacía la arena de estados del BFS, conservando su capacidad.
+     */
+    void vaciarArena() {
+        estados = 0;
+    }
+
+    /**
+     * Agrega un estado a la arena del BFS, duplicando su capacidad si está llena.
+     *
+     * @param celda Celda del estado.
+     * @param padre Estado del que proviene, o -1 si es el inicial.
+     * @param nivel Posición en la palabra.
+     * @return Número del estado agregado.
+     */
+    int agregarEstado(int celda, int padre, int nivel) {
+        if (estados == celdaEstado.length) {
+            int capacidad = celdaEstado.length * 2;
+            celdaEstado = Arrays.copyOf(celdaEstado, capacidad);
+            padreEstado = Arrays.copyOf(padreEstado, capacidad);
+            nivelEstado = Arrays.copyOf(nivelEstado, capacidad);
+        }
+        celdaEstado[estados] = celda;
+        padreEstado[estados] = padre;
+        nivelEstado[estados] = nivel;
+        return estados++;
+    }
+
+    /**
+     * Indica si una celda ya está en el camino que lleva hasta un estado de la arena,
+     * recorriendo la cadena de padres (a lo sumo el largo de la palabra).
+     *
+     * @param estado Estado cuyo camino se revisa.
+     * @param celda Celda buscada.
+     * @return true si la celda forma parte del camino.
+     */
+    boolean enCamino(int estado, int celda) {
+        for (int e = estado; e >= 0; e = padreEstado[e]) {
+            if (celdaEstado[e] == celda) return true;
+        }
+        return false;
+    }
+}
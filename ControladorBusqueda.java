@@ -1,24 +1,57 @@
 package sopadeletras.logica;
 
 import java.util.*;
+import sopadeletras.modelo.Alfabeto;
+import sopadeletras.modelo.IndiceLetras;
 import sopadeletras.modelo.Tablero;
 import sopadeletras.modelo.NodoGrafo;
 import sopadeletras.visualizacion.ResultadoBFS;
 
 /**
  * Controlador que implementa los algoritmos de búsqueda en el tablero de la sopa de letras.
- * Incluye búsqueda DFS y BFS con y sin visualización.
+ * Incluye búsqueda DFS y BFS con y sin visualización, una búsqueda paralela por mosaicos para
+ * tableros muy grandes, y variantes con presupuesto que se detienen al agotar un límite de
+ * estados, memoria o tiempo.
+ * Antes de recorrer, cada búsqueda calcula un {@link FiltroAlcanzabilidad} de la palabra y solo
+ * arranca desde, y avanza hacia, celdas que todavía pueden completar el resto de la palabra.
+ * <p>
+ * El controlador es inmutable y puede compartirse entre hilos: todo el estado de una búsqueda
+ * vive en un {@link ContextoBusqueda}, que se toma del hilo actual o se pasa explícitamente.
+ * Conviene crear un solo controlador por tablero y reutilizarlo en todas las búsquedas.
  */
 public class ControladorBusqueda {
+    /** Memoria estimada, en bytes, de un estado en la arena del BFS (celda, padre y nivel). */
+    private static final long BYTES_ESTADO = 12;
+
     /** Tablero que contiene la matriz de nodos con letras. */
-    private Tablero tablero;
+    private final Tablero tablero;
+
+    /** Índice de cadenas cortas del tablero, o null si no se usa. */
+    private final IndiceKGramas kgramas;
+
+    /** Búsqueda por mosaicos del tablero, sobre el pool común de hilos. */
+    private final BusquedaPorMosaicos mosaicos;
 
     /**
      * Construye un controlador con el tablero dado.
      * @param tablero el tablero donde se realizará la búsqueda.
      */
     public ControladorBusqueda(Tablero tablero) {
+        this(tablero, null);
+    }
+
+    /**
+     * Construye un controlador con el tablero dado y un índice de cadenas cortas ya construido.
+     * Las palabras de largo hasta k se responden con una consulta al índice, y las más largas
+     * se descartan sin recorrer el tablero si alguna de sus ventanas de largo k no está en él.
+     *
+     * @param tablero el tablero donde se realizará la búsqueda.
+     * @param kgramas índice de cadenas cortas del mismo tablero, o null para no usarlo.
+     */
+    public ControladorBusqueda(Tablero tablero, IndiceKGramas kgramas) {
         this.tablero = tablero;
+        this.kgramas = kgramas;
+        this.mosaicos = new BusquedaPorMosaicos(tablero);
     }
 
     /**
@@ -28,20 +61,68 @@ public class ControladorBusqueda {
      * @return true si la palabra se encuentra, false en caso contrario.
      */
     public boolean buscarPalabraDFS(String palabra) {
-        if (palabra.length() < 3) return false;
+        return buscarPalabraDFS(palabra, PresupuestoBusqueda.ILIMITADO) == EstadoBusqueda.ENCONTRADA;
+    }
 
-        NodoGrafo[][] matriz = tablero.getMatriz();
-        for (int i = 0; i < matriz.length; i++) {
-            for (int j = 0; j < matriz.length; j++) {
-                if (matriz[i][j].getLetra() == palabra.charAt(0)) {
-                    Set<NodoGrafo> visitados = new HashSet<>();
-                    if (dfs(matriz[i][j], palabra, 0, visitados)) {
-                        return true;
-                    }
-                }
+    /**
+     * Busca una palabra en el tablero usando búsqueda DFS, sin exceder el presupuesto dado.
+     *
+     * @param palabra La palabra a buscar.
+     * @param presupuesto Límites de estados, memoria y tiempo de la búsqueda.
+     * @return Resultado de la búsqueda, incluido {@link EstadoBusqueda#ABORTADA} si se agotó el presupuesto.
+     */
+    public EstadoBusqueda buscarPalabraDFS(String palabra, PresupuestoBusqueda presupuesto) {
+        return buscarPalabraDFS(palabra, presupuesto, ContextoBusqueda.actual());
+    }
+
+    /**
+     * Busca una palabra en el tablero usando búsqueda DFS, con el contexto de trabajo dado.
+     * Si la encuentra, su camino queda disponible en {@link ContextoBusqueda#getCaminoEncontrado()}.
+     *
+     * @param palabra La palabra a buscar.
+     * @param presupuesto Límites de estados, memoria y tiempo de la búsqueda.
+     * @param contexto Memoria de trabajo de la búsqueda; no debe usarse a la vez desde otro hilo.
+     * @return Resultado de la búsqueda, incluido {@link EstadoBusqueda#ABORTADA} si se agotó el presupuesto.
+     */
+    public EstadoBusqueda buscarPalabraDFS(String palabra, PresupuestoBusqueda presupuesto, ContextoBusqueda contexto) {
+        EstadoBusqueda previo = verificarAntes(palabra, contexto);
+        if (previo != null) return previo;
+
+        MedidorPresupuesto medidor = contexto.iniciar(presupuesto);
+        int cantidad = contexto.filtro.celdasIniciales(contexto.iniciales);
+        for (int i = 0; i < cantidad; i++) {
+            if (dfs(contexto.iniciales[i], palabra, contexto, medidor)) {
+                contexto.registrarCamino(contexto.camino, palabra.length());
+                return EstadoBusqueda.ENCONTRADA;
             }
+            if (medidor.estaAgotado()) return EstadoBusqueda.ABORTADA;
         }
-        return false;
+        return EstadoBusqueda.NO_ENCONTRADA;
+    }
+
+    /**
+     * Busca una palabra dividiendo el tablero en mosaicos que se recorren en paralelo con
+     * {@link BusquedaPorMosaicos}, con el contexto de trabajo dado. El presupuesto es el de toda la
+     * búsqueda, y el filtro de alcanzabilidad del contexto se comparte entre todos los mosaicos.
+     * Si la encuentra, su camino queda disponible en {@link ContextoBusqueda#getCaminoEncontrado()}.
+     *
+     * @param palabra La palabra a buscar.
+     * @param presupuesto Límites de estados, memoria y tiempo de la búsqueda.
+     * @param contexto Memoria de trabajo de la búsqueda; no debe usarse a la vez desde otro hilo.
+     * @return Resultado de la búsqueda, incluido {@link EstadoBusqueda#ABORTADA} si se agotó el presupuesto.
+     */
+    public EstadoBusqueda buscarPalabraMosaicos(String palabra, PresupuestoBusqueda presupuesto, ContextoBusqueda contexto) {
+        EstadoBusqueda previo = verificarAntes(palabra, contexto);
+        if (previo != null) return previo;
+
+        List<Coincidencia> ubicaciones = new ArrayList<>(1);
+        byte[] objetivo = Arrays.copyOf(contexto.codigosPalabra, palabra.length());
+        EstadoBusqueda estado = mosaicos.buscarTodas(objetivo, 1, presupuesto, contexto.filtro, ubicaciones);
+        if (estado == EstadoBusqueda.ENCONTRADA) {
+            int[] celdas = ubicaciones.get(0).getCeldas();
+            contexto.registrarCamino(celdas, celdas.length);
+        }
+        return estado;
     }
 
     /**
@@ -51,77 +132,148 @@ public class ControladorBusqueda {
      * @return Lista con los nodos que forman la palabra, o null si no se encuentra.
      */
     public List<NodoGrafo> buscarPalabraDFSConCamino(String palabra) {
-        NodoGrafo[][] matriz = tablero.getMatriz();
+        return buscarPalabraDFSConCamino(palabra, ContextoBusqueda.actual());
+    }
 
-        for (int i = 0; i < matriz.length; i++) {
-            for (int j = 0; j < matriz.length; j++) {
-                if (matriz[i][j].getLetra() == palabra.charAt(0)) {
-                    List<NodoGrafo> camino = new ArrayList<>();
-                    Set<NodoGrafo> visitados = new HashSet<>();
-                    if (dfs(matriz[i][j], palabra, 0, visitados, camino)) {
-                        return camino;
-                    }
-                }
+    /**
+     * Busca una palabra en el tablero usando búsqueda DFS y retorna el camino encontrado,
+     * con el contexto de trabajo dado.
+     *
+     * @param palabra La palabra a buscar.
+     * @param contexto Memoria de trabajo de la búsqueda; no debe usarse a la vez desde otro hilo.
+     * @return Lista con los nodos que forman la palabra, o null si no se encuentra.
+     */
+    public List<NodoGrafo> buscarPalabraDFSConCamino(String palabra, ContextoBusqueda contexto) {
+        if (palabra.isEmpty()) return null;
+        if (kgramas != null && kgramas.puedeResponder(palabra)) {
+            int[] celdas = kgramas.camino(palabra);
+            if (celdas != null || !kgramas.contiene(palabra)) return aNodos(celdas, celdas == null ? 0 : celdas.length);
+        }
+        if (esImposible(palabra, contexto)) return null;
+        contexto.preparar(tablero, palabra.length());
+        if (contexto.filtro.esVacio()) return null;
+
+        MedidorPresupuesto medidor = contexto.iniciar(PresupuestoBusqueda.ILIMITADO);
+        int cantidad = contexto.filtro.celdasIniciales(contexto.iniciales);
+        for (int i = 0; i < cantidad; i++) {
+            if (dfs(contexto.iniciales[i], palabra, contexto, medidor)) {
+                return aNodos(contexto.camino, palabra.length());
             }
         }
         return null;
     }
 
     /**
-     * Implementación recursiva de DFS que verifica la existencia de la palabra.
+     * Verificaciones comunes antes de recorrer el tablero: largo mínimo, índice de cadenas cortas,
+     * conteo de letras y filtro de alcanzabilidad. Deja el contexto preparado para la palabra y,
+     * si el índice la encuentra, registra su camino cuando el índice lo guarda.
      *
-     * @param actual Nodo actual en el recorrido.
-     * @param palabra Palabra que se busca.
-     * @param indice Índice actual dentro de la palabra.
-     * @param visitados Conjunto de nodos visitados para evitar ciclos.
-     * @return true si la palabra es encontrada desde el nodo actual.
+     * @param palabra La palabra a buscar.
+     * @param contexto Memoria de trabajo de la búsqueda.
+     * @return Resultado si ya se puede decidir sin recorrer, o null si hay que recorrer el tablero.
      */
-    private boolean dfs(NodoGrafo actual, String palabra, int indice, Set<NodoGrafo> visitados) {
-        if (indice >= palabra.length()) return true;
-        if (actual.getLetra() != palabra.charAt(indice)) return false;
-
-        visitados.add(actual);
+    private EstadoBusqueda verificarAntes(String palabra, ContextoBusqueda contexto) {
+        contexto.olvidarCamino();
+        if (palabra.length() < 3) return EstadoBusqueda.NO_ENCONTRADA;
+        EstadoBusqueda segunIndice = consultarKGramas(palabra);
+        if (segunIndice == EstadoBusqueda.ENCONTRADA) {
+            int[] celdas = kgramas.camino(palabra);
+            if (celdas != null) contexto.registrarCamino(celdas, celdas.length);
+        }
+        if (segunIndice != null) return segunIndice;
+        if (esImposible(palabra, contexto)) return EstadoBusqueda.IMPOSIBLE;
+        contexto.preparar(tablero, palabra.length());
+        if (contexto.filtro.esVacio()) return EstadoBusqueda.IMPOSIBLE;
+        return null;
+    }
 
-        if (indice == palabra.length() - 1) return true;
+    /**
+     * Consulta el índice de cadenas cortas, si lo hay, para resolver la búsqueda sin recorrer el tablero.
+     *
+     * @param palabra La palabra a buscar.
+     * @return Resultado si el índice basta para decidirlo, o null si hay que recorrer el tablero.
+     */
+    private EstadoBusqueda consultarKGramas(String palabra) {
+        if (kgramas == null) return null;
+        if (kgramas.puedeResponder(palabra)) {
+            return kgramas.contiene(palabra) ? EstadoBusqueda.ENCONTRADA : EstadoBusqueda.NO_ENCONTRADA;
+        }
+        return kgramas.ventanasPosibles(palabra) ? null : EstadoBusqueda.IMPOSIBLE;
+    }
 
-        for (NodoGrafo vecino : actual.getAdyacentes()) {
-            if (!visitados.contains(vecino)) {
-                if (dfs(vecino, palabra, indice + 1, visitados)) {
-                    return true;
-                }
-            }
+    /**
+     * Convierte un camino de celdas del arreglo plano en la lista de nodos correspondiente.
+     *
+     * @param celdas Celdas del camino (fila * columnas + columna), o null.
+     * @param largo Número de celdas del camino.
+     * @return Lista de nodos del camino, o null si no hay camino.
+     */
+    private List<NodoGrafo> aNodos(int[] celdas, int largo) {
+        if (celdas == null) return null;
+        List<NodoGrafo> camino = new ArrayList<>(largo);
+        for (int i = 0; i < largo; i++) {
+            camino.add(tablero.getNodo(celdas[i] / tablero.getColumnas(), celdas[i] % tablero.getColumnas()));
         }
-        return false;
+        return camino;
     }
 
     /**
-     * Implementación recursiva de DFS que construye el camino completo.
+     * DFS iterativo desde una celda inicial. Usa las pilas del contexto y marca las celdas del
+     * camino con la generación actual, desmarcándolas al retroceder.
+     * Si encuentra la palabra, el camino queda en las primeras posiciones de {@code contexto.camino}.
      *
-     * @param actual Nodo actual en el recorrido.
+     * @param inicio Celda inicial (debe poder empezar la palabra según el filtro).
      * @param palabra Palabra que se busca.
-     * @param indice Índice actual dentro de la palabra.
-     * @param visitados Conjunto de nodos visitados para evitar ciclos.
-     * @param camino Lista que almacena el camino recorrido.
-     * @return true si la palabra es encontrada desde el nodo actual.
+     * @param contexto Memoria de trabajo preparada para la palabra.
+     * @param medidor Cuenta del presupuesto de la búsqueda.
+     * @return true si la palabra es encontrada desde la celda; false si no, o si se agotó el presupuesto.
      */
-    private boolean dfs(NodoGrafo actual, String palabra, int indice, Set<NodoGrafo> visitados, List<NodoGrafo> camino) {
-        if (indice >= palabra.length()) return true;
-        if (actual.getLetra() != palabra.charAt(indice)) return false;
-
-        visitados.add(actual);
-        camino.add(actual);
-
-        if (indice == palabra.length() - 1) return true;
-
-        for (NodoGrafo vecino : actual.getAdyacentes()) {
-            if (!visitados.contains(vecino)) {
-                if (dfs(vecino, palabra, indice + 1, visitados, camino)) {
-                    return true;
+    private boolean dfs(int inicio, String palabra, ContextoBusqueda contexto, MedidorPresupuesto medidor) {
+        if (!medidor.expandir()) return false;
+        int largo = palabra.length();
+        FiltroAlcanzabilidad filtro = contexto.filtro;
+        int[] marcas = contexto.marcas;
+        int generacion = contexto.generacion;
+        int[] camino = contexto.camino;
+        int[][] vecinos = contexto.vecinos;
+        int[] cantidadVecinos = contexto.cantidadVecinos;
+        int[] siguiente = contexto.siguiente;
+        RegistroTraza traza = contexto.traza;
+
+        int nivel = 0;
+        camino[0] = inicio;
+        marcas[inicio] = generacion;
+        cantidadVecinos[0] = tablero.vecinos(inicio, vecinos[0]);
+        siguiente[0] = 0;
+        if (traza != null) traza.registrar(RegistroTraza.EMPILAR, 0, inicio, -1);
+        while (nivel >= 0) {
+            if (nivel == largo - 1) {
+                if (traza != null) {
+                    traza.registrar(RegistroTraza.COINCIDIR, nivel, camino[nivel], nivel > 0 ? camino[nivel - 1] : -1);
                 }
+                return true;
+            }
+            if (siguiente[nivel] < cantidadVecinos[nivel]) {
+                int vecino = vecinos[nivel][siguiente[nivel]++];
+                if (marcas[vecino] == generacion || !filtro.contiene(nivel + 1, vecino)) {
+                    if (traza != null) traza.registrar(RegistroTraza.PODAR, nivel + 1, vecino, camino[nivel]);
+                    continue;
+                }
+                if (!medidor.expandir()) return false;
+                nivel++;
+                camino[nivel] = vecino;
+                marcas[vecino] = generacion;
+                cantidadVecinos[nivel] = tablero.vecinos(vecino, vecinos[nivel]);
+                siguiente[nivel] = 0;
+                if (traza != null) traza.registrar(RegistroTraza.EMPILAR, nivel, vecino, camino[nivel - 1]);
+            } else {
+                if (traza != null) {
+                    traza.registrar(RegistroTraza.DESAPILAR, nivel, camino[nivel], nivel > 0 ? camino[nivel - 1] : -1);
+                }
+                marcas[camino[nivel]] = 0;
+                nivel--;
             }
         }
-
-        camino.remove(camino.size() - 1);
         return false;
     }
 
@@ -132,165 +284,236 @@ public class ControladorBusqueda {
      * @return true si la palabra se encuentra, false en caso contrario.
      */
     public boolean buscarPalabraBFS(String palabra) {
-        if (palabra.length() < 3) return false;
+        return buscarPalabraBFS(palabra, PresupuestoBusqueda.ILIMITADO) == EstadoBusqueda.ENCONTRADA;
+    }
 
-        NodoGrafo[][] matriz = tablero.getMatriz();
-        for (int i = 0; i < matriz.length; i++) {
-            for (int j = 0; j < matriz.length; j++) {
-                if (matriz[i][j].getLetra() == palabra.charAt(0)) {
-                    if (bfs(matriz[i][j], palabra)) {
-                        return true;
-                    }
-                }
+    /**
+     * Busca una palabra en el tablero usando búsqueda BFS, sin exceder el presupuesto dado.
+     *
+     * @param palabra La palabra a buscar.
+     * @param presupuesto Límites de estados, memoria y tiempo de la búsqueda.
+     * @return Resultado de la búsqueda, incluido {@link EstadoBusqueda#ABORTADA} si se agotó el presupuesto.
+     */
+    public EstadoBusqueda buscarPalabraBFS(String palabra, PresupuestoBusqueda presupuesto) {
+        return buscarPalabraBFS(palabra, presupuesto, ContextoBusqueda.actual());
+    }
+
+    /**
+     * Busca una palabra en el tablero usando búsqueda BFS, con el contexto de trabajo dado.
+     * Si la encuentra, su camino queda disponible en {@link ContextoBusqueda#getCaminoEncontrado()}.
+     *
+     * @param palabra La palabra a buscar.
+     * @param presupuesto Límites de estados, memoria y tiempo de la búsqueda.
+     * @param contexto Memoria de trabajo de la búsqueda; no debe usarse a la vez desde otro hilo.
+     * @return Resultado de la búsqueda, incluido {@link EstadoBusqueda#ABORTADA} si se agotó el presupuesto.
+     */
+    public EstadoBusqueda buscarPalabraBFS(String palabra, PresupuestoBusqueda presupuesto, ContextoBusqueda contexto) {
+        EstadoBusqueda previo = verificarAntes(palabra, contexto);
+        if (previo != null) return previo;
+
+        MedidorPresupuesto medidor = contexto.iniciar(presupuesto);
+        int cantidad = contexto.filtro.celdasIniciales(contexto.iniciales);
+        for (int i = 0; i < cantidad; i++) {
+            int estado = bfs(contexto.iniciales[i], palabra, contexto, medidor);
+            if (estado >= 0) {
+                contexto.registrarCaminoBFS(estado);
+                return EstadoBusqueda.ENCONTRADA;
             }
+            if (medidor.estaAgotado()) return EstadoBusqueda.ABORTADA;
         }
-        return false;
+        return EstadoBusqueda.NO_ENCONTRADA;
     }
 
     /**
-     * Implementación de BFS que verifica la existencia de la palabra.
+     * BFS desde una celda inicial sobre la arena del contexto. Cada estado guarda su celda,
+     * su nivel y el número de su estado padre, en lugar de una copia de sus visitados: para saber
+     * si una celda ya está en el camino se recorre la cadena de padres.
+     * La memoria reservada en el medidor corresponde al tamaño de la arena y se libera al terminar.
      *
-     * @param inicio Nodo inicial para la búsqueda.
+     * @param inicio Celda inicial (debe poder empezar la palabra según el filtro).
      * @param palabra Palabra que se busca.
-     * @return true si la palabra es encontrada.
+     * @param contexto Memoria de trabajo preparada para la palabra.
+     * @param medidor Cuenta del presupuesto de la búsqueda.
+     * @return Número del estado final en la arena si la palabra es encontrada; -1 si no, o si se agotó el presupuesto.
      */
-    private boolean bfs(NodoGrafo inicio, String palabra) {
-        Queue<NodoEstado> cola = new LinkedList<>();
-        cola.add(new NodoEstado(inicio, 0, new HashSet<>()));
-
-        while (!cola.isEmpty()) {
-            NodoEstado estado = cola.poll();
-            NodoGrafo actual = estado.nodo;
-            int indice = estado.indice;
-            Set<NodoGrafo> visitados = estado.visitados;
-
-            if (actual.getLetra() != palabra.charAt(indice)) continue;
-
-            visitados.add(actual);
-
-            if (indice == palabra.length() - 1) return true;
-
-            for (NodoGrafo vecino : actual.getAdyacentes()) {
-                if (!visitados.contains(vecino)) {
-                    Set<NodoGrafo> copia = new HashSet<>(visitados);
-                    cola.add(new NodoEstado(vecino, indice + 1, copia));
+    private int bfs(int inicio, String palabra, ContextoBusqueda contexto, MedidorPresupuesto medidor) {
+        int largo = palabra.length();
+        FiltroAlcanzabilidad filtro = contexto.filtro;
+        int[] vecinos = contexto.vecinosAuxiliares;
+        RegistroTraza traza = contexto.traza;
+        contexto.vaciarArena();
+        contexto.agregarEstado(inicio, -1, 0);
+        if (traza != null) traza.registrar(RegistroTraza.EMPILAR, 0, inicio, -1);
+        int encontrado = -1;
+
+        if (medidor.reservar(BYTES_ESTADO)) {
+            busqueda:
+            for (int frente = 0; frente < contexto.estados; frente++) {
+                if (!medidor.expandir()) break;
+                int nivel = contexto.nivelEstado[frente];
+                int celda = contexto.celdaEstado[frente];
+                if (traza != null) {
+                    int padre = contexto.padreEstado[frente];
+                    traza.registrar(nivel == largo - 1 ? RegistroTraza.COINCIDIR : RegistroTraza.DESAPILAR,
+                        nivel, celda, padre < 0 ? -1 : contexto.celdaEstado[padre]);
+                }
+                if (nivel == largo - 1) {
+                    encontrado = frente;
+                    break;
+                }
+                int n = tablero.vecinos(celda, vecinos);
+                for (int v = 0; v < n; v++) {
+                    int vecino = vecinos[v];
+                    if (filtro.contiene(nivel + 1, vecino) && !contexto.enCamino(frente, vecino)) {
+                        contexto.agregarEstado(vecino, frente, nivel + 1);
+                        if (traza != null) traza.registrar(RegistroTraza.EMPILAR, nivel + 1, vecino, celda);
+                        if (!medidor.reservar(BYTES_ESTADO)) break busqueda;
+                    } else if (traza != null) {
+                        traza.registrar(RegistroTraza.PODAR, nivel + 1, vecino, celda);
+                    }
                 }
             }
         }
-        return false;
+        medidor.liberar(BYTES_ESTADO * contexto.estados);
+        return encontrado;
     }
 
     /**
-     * Clase interna para representar el estado en la búsqueda BFS.
+     * Verificación rápida de que la palabra no puede estar en el tablero, sin recorrerlo.
+     * Usa el índice de letras para comprobar que cada letra aparece en el tablero al menos tantas
+     * veces como en la palabra, y que cada par de letras consecutivas de la palabra aparece en
+     * alguna pareja de celdas adyacentes.
+     *
+     * @param palabra La palabra a verificar.
+     * @return true si se puede asegurar que la palabra no está en el tablero.
      */
-    private static class NodoEstado {
-        /** Nodo actual en la búsqueda. */
-        NodoGrafo nodo;
-        /** Índice actual en la palabra buscada. */
-        int indice;
-        /** Conjunto de nodos visitados. */
-        Set<NodoGrafo> visitados;
-
-        /**
-         * Constructor de NodoEstado.
-         * @param nodo Nodo actual.
-         * @param indice Índice de la palabra.
-         * @param visitados Conjunto de nodos visitados.
-         */
-        NodoEstado(NodoGrafo nodo, int indice, Set<NodoGrafo> visitados) {
-            this.nodo = nodo;
-            this.indice = indice;
-            this.visitados = visitados;
-        }
+    public boolean esImposible(String palabra) {
+        return esImposible(palabra, ContextoBusqueda.actual());
     }
 
     /**
-     * Busca una palabra usando BFS y devuelve un objeto ResultadoBFS con el camino para visualización.
+     * Verificación rápida de que la palabra no puede estar en el tablero, con el contexto de trabajo dado.
+     * Deja los códigos de la palabra en el contexto, listos para {@link ContextoBusqueda#preparar}.
      *
-     * @param palabra La palabra a buscar.
-     * @return ResultadoBFS con información del recorrido o null si no se encuentra.
+     * @param palabra La palabra a verificar.
+     * @param contexto Memoria de trabajo de la búsqueda.
+     * @return true si se puede asegurar que la palabra no está en el tablero.
      */
-    public ResultadoBFS buscarConVisualizacion(String palabra) {
-        if (palabra.length() < 3) return null;
+    private boolean esImposible(String palabra, ContextoBusqueda contexto) {
+        IndiceLetras indice = tablero.getIndiceLetras();
+        int largo = palabra.length();
+        byte[] codigos = contexto.codificar(tablero, palabra);
+        int[] conteo = contexto.conteo;
+        Arrays.fill(conteo, 0);
+        for (int i = 0; i < largo; i++) {
+            // Una letra fuera del alfabeto no puede estar en ninguna celda
+            if (codigos[i] == Alfabeto.SIN_CODIGO) return true;
+            if (++conteo[codigos[i]] > indice.contar(codigos[i])) return true;
+        }
 
-        NodoGrafo[][] matriz = tablero.getMatriz();
-        for (int i = 0; i < matriz.length; i++) {
-            for (int j = 0; j < matriz.length; j++) {
-                if (matriz[i][j].getLetra() == palabra.charAt(0)) {
-                    ResultadoBFS resultado = bfsVisual(matriz[i][j], palabra);
-                    if (resultado.fueEncontrado()) {
-                        System.out.println("Palabra '" + palabra + "' encontrada con visualización.");
-                        return resultado;
+        byte[] letras = tablero.getCodigos();
+        int[] posiciones = indice.getPosiciones();
+        int[] vecinos = contexto.vecinosAuxiliares;
+        for (int i = 0; i + 1 < largo; i++) {
+            byte a = codigos[i];
+            byte b = codigos[i + 1];
+            // Se recorren las celdas de la letra menos frecuente del par
+            byte origen = indice.contar(a) <= indice.contar(b) ? a : b;
+            byte destino = origen == a ? b : a;
+            boolean adyacentes = false;
+            for (int p = indice.desde(origen); p < indice.hasta(origen) && !adyacentes; p++) {
+                int n = tablero.vecinos(posiciones[p], vecinos);
+                for (int v = 0; v < n; v++) {
+                    if (letras[vecinos[v]] == destino) {
+                        adyacentes = true;
+                        break;
                     }
                 }
             }
+            if (!adyacentes) return true;
         }
-        System.out.println("Palabra '" + palabra + "' NO encontrada con visualización.");
-        return null;
+        return false;
     }
 
     /**
-     * Implementación de BFS que devuelve un ResultadoBFS con el camino recorrido y padres para visualización.
+     * Busca una palabra usando BFS y devuelve un objeto ResultadoBFS con el camino para visualización.
      *
-     * @param inicio Nodo inicial.
-     * @param palabra Palabra a buscar.
-     * @return ResultadoBFS con información del recorrido.
+     * @param palabra La palabra a buscar.
+     * @return ResultadoBFS con información del recorrido o null si no se encuentra.
      */
-    private ResultadoBFS bfsVisual(NodoGrafo inicio, String palabra) {
-        Queue<NodoEstadoVisual> cola = new LinkedList<>();
-        Map<NodoGrafo, NodoGrafo> padres = new HashMap<>();
-        List<NodoGrafo> caminoEncontrado = new ArrayList<>();
-        
-        cola.add(new NodoEstadoVisual(inicio, 0, new HashSet<>()));
-        padres.put(inicio, null);
-
-        while (!cola.isEmpty()) {
-            NodoEstadoVisual estado = cola.poll();
-            NodoGrafo actual = estado.nodo;
-            int indice = estado.indice;
-            Set<NodoGrafo> visitados = estado.visitados;
-
-            if (actual.getLetra() != palabra.charAt(indice)) continue;
+    public ResultadoBFS buscarConVisualizacion(String palabra) {
+        return buscarConVisualizacion(palabra, ContextoBusqueda.actual());
+    }
 
-            visitados.add(actual);
-            caminoEncontrado.add(actual);
+    /**
+     * Busca una palabra usando BFS y devuelve un objeto ResultadoBFS con el camino para visualización,
+     * con el contexto de trabajo dado.
+     *
+     * @param palabra La palabra a buscar.
+     * @param contexto Memoria de trabajo de la búsqueda; no debe usarse a la vez desde otro hilo.
+     * @return ResultadoBFS con información del recorrido o null si no se encuentra.
+     */
+    public ResultadoBFS buscarConVisualizacion(String palabra, ContextoBusqueda contexto) {
+        return buscarConVisualizacion(palabra, PresupuestoBusqueda.ILIMITADO, contexto);
+    }
 
-            if (indice == palabra.length() - 1) {
-                return new ResultadoBFS(true, caminoEncontrado, padres);
+    /**
+     * Busca una palabra usando BFS dentro de un presupuesto y devuelve un objeto ResultadoBFS con el
+     * camino para visualización. Si devuelve null, {@link ContextoBusqueda#presupuestoAgotado()}
+     * distingue una palabra que no está de una búsqueda abortada.
+     *
+     * @param palabra La palabra a buscar.
+     * @param presupuesto Límites de estados, memoria y tiempo de la búsqueda.
+     * @param contexto Memoria de trabajo de la búsqueda; no debe usarse a la vez desde otro hilo.
+     * @return ResultadoBFS con información del recorrido, o null si no se encuentra o se agotó el presupuesto.
+     */
+    public ResultadoBFS buscarConVisualizacion(String palabra, PresupuestoBusqueda presupuesto, ContextoBusqueda contexto) {
+        MedidorPresupuesto medidor = contexto.iniciar(presupuesto);
+        if (palabra.length() < 3) return null;
+        if (esImposible(palabra, contexto)) {
+            System.out.println("Palabra '" + palabra + "' NO encontrada con visualización.");
+            return null;
+        }
+        contexto.preparar(tablero, palabra.length());
+
+        int cantidad = contexto.filtro.celdasIniciales(contexto.iniciales);
+        for (int i = 0; i < cantidad; i++) {
+            int encontrado = bfs(contexto.iniciales[i], palabra, contexto, medidor);
+            if (encontrado >= 0) {
+                System.out.println("Palabra '" + palabra + "' encontrada con visualización.");
+                return resultadoVisual(contexto, encontrado);
             }
-
-            for (NodoGrafo vecino : actual.getAdyacentes()) {
-                if (!visitados.contains(vecino)) {
-                    Set<NodoGrafo> copia = new HashSet<>(visitados);
-                    cola.add(new NodoEstadoVisual(vecino, indice + 1, copia));
-                    padres.put(vecino, actual);
-                }
+            if (medidor.estaAgotado()) {
+                System.out.println("Búsqueda de '" + palabra + "' con visualización abortada.");
+                return null;
             }
         }
-        return new ResultadoBFS(false, null, null);
+        System.out.println("Palabra '" + palabra + "' NO encontrada con visualización.");
+        return null;
     }
 
     /**
-     * Clase interna para representar el estado en la búsqueda BFS con visualización.
+     * Construye el ResultadoBFS para visualización a partir de la arena de un BFS exitoso:
+     * el recorrido son los estados expandidos en orden hasta el final, y cada estado encolado
+     * registra como padre la celda de la que proviene.
+     *
+     * @param contexto Contexto con la arena del BFS.
+     * @param encontrado Número del estado final.
+     * @return ResultadoBFS con información del recorrido.
      */
-    private static class NodoEstadoVisual {
-        /** Nodo actual en la búsqueda. */
-        NodoGrafo nodo;
-        /** Índice actual en la palabra buscada. */
-        int indice;
-        /** Conjunto de nodos visitados. */
-        Set<NodoGrafo> visitados;
-
-        /**
-         * Constructor de NodoEstadoVisual.
-         * @param nodo Nodo actual.
-         * @param indice Índice de la palabra.
-         * @param visitados Conjunto de nodos visitados.
-         */
-        NodoEstadoVisual(NodoGrafo nodo, int indice, Set<NodoGrafo> visitados) {
-            this.nodo = nodo;
-            this.indice = indice;
-            this.visitados = visitados;
+    private ResultadoBFS resultadoVisual(ContextoBusqueda contexto, int encontrado) {
+        NodoGrafo[][] matriz = tablero.getMatriz();
+        int columnas = tablero.getColumnas();
+        List<NodoGrafo> recorrido = new ArrayList<>(encontrado + 1);
+        Map<NodoGrafo, NodoGrafo> padres = new HashMap<>();
+        for (int e = 0; e < contexto.estados; e++) {
+            int celda = contexto.celdaEstado[e];
+            NodoGrafo nodo = matriz[celda / columnas][celda % columnas];
+            if (e <= encontrado) recorrido.add(nodo);
+            int padre = contexto.padreEstado[e];
+            padres.put(nodo, padre < 0 ? null
+                : matriz[contexto.celdaEstado[padre] / columnas][contexto.celdaEstado[padre] % columnas]);
         }
+        return new ResultadoBFS(true, recorrido, padres);
     }
 }
\ No newline at end of file
@@ -0,0 +1,117 @@
+package sopadeletras.visualizacion;
+
+import sopadeletras.logica.RegistroTraza;
+import sopadeletras.modelo.Tablero;
+
+import javax.swing.*;
+import java.awt.*;
+
+/**
+ * Controles para reproducir una {@link RegistroTraza} en un {@link PanelBFST}: reproducir o pausar,
+ * velocidad en eventos por segundo y una barra para moverse a cualquier paso.
+ */
+public class ControlesTraza extends JPanel {
+    /** Milisegundos entre dos cuadros de la animación. */
+    private static final int INTERVALO_CUADRO = 40;
+
+    /** Velocidades disponibles, en eventos por segundo. */
+    private static final Integer[] VELOCIDADES = {1, 5, 20, 100, 1000, 10_000, 100_000};
+
+    /** Panel donde se muestra la traza. */
+    private final PanelBFST panel;
+
+    /** Botón para reproducir o pausar. */
+    private final JButton botonReproducir = new JButton("Reproducir");
+
+    /** Selector de velocidad. */
+    private final JComboBox<Integer> comboVelocidad = new JComboBox<>(VELOCIDADES);
+
+    /** Barra para moverse por los pasos de la traza. */
+    private final JSlider barraPasos = new JSlider(0, 0, 0);
+
+    /** Temporizador que avanza la reproducción. */
+    private final Timer temporizador;
+
+    /** Fracción de evento acumulada entre cuadros, para velocidades menores a un evento por cuadro. */
+    private double acumulado;
+
+    /**
+     * Construye los controles para un panel.
+     *
+     * @param panel Panel donde se reproduce la traza.
+     */
+    public ControlesTraza(PanelBFST panel) {
+        super(new BorderLayout());
+        this.panel = panel;
+        comboVelocidad.setSelectedItem(20);
+
+        JPanel botones = new JPanel();
+        botones.add(botonReproducir);
+        botones.add(new JLabel("Eventos/s:"));
+        botones.add(comboVelocidad);
+        add(botones, BorderLayout.WEST);
+        add(barraPasos, BorderLayout.CENTER);
+
+        temporizador = new Timer(INTERVALO_CUADRO, e -> avanzar());
+        botonReproducir.addActionListener(e -> {
+            if (temporizador.isRunning()) {
+                pausar();
+            } else {
+                if (panel.getPaso() >= panel.getPasos()) panel.setPaso(0);
+                acumulado = 0;
+                temporizador.start();
+                botonReproducir.setText("Pausa");
+            }
+        });
+        // Al arrastrar la barra el panel salta al paso elegido; cuando la mueve el temporizador
+        // el paso ya coincide y setPaso no hace nada.
+        barraPasos.addChangeListener(e -> panel.setPaso(barraPasos.getValue()));
+        setHabilitado(false);
+    }
+
+    /**
+     * Carga una traza en el panel y deja la reproducción en pausa al principio.
+     *
+     * @param traza Traza a reproducir, o null para salir del modo reproducción y desactivar los controles.
+     * @param tablero Tablero sobre el que se registró la traza.
+     */
+    public void cargar(RegistroTraza traza, Tablero tablero) {
+        pausar();
+        panel.setTraza(traza, tablero);
+        barraPasos.setMaximum(panel.getPasos());
+        barraPasos.setValue(0);
+        setHabilitado(traza != null);
+    }
+
+    /**
+     * Detiene la animación.
+     */
+    private void pausar() {
+        temporizador.stop();
+        botonReproducir.setText("Reproducir");
+    }
+
+    /**
+     * Avanza la reproducción los eventos que corresponden a un cuadro según la velocidad elegida.
+     */
+    private void avanzar() {
+        acumulado += (Integer) comboVelocidad.getSelectedItem() * INTERVALO_CUADRO / 1000.0;
+        int eventos = (int) acumulado;
+        acumulado -= eventos;
+        if (eventos == 0) return;
+        panel.setPaso(panel.getPaso() + eventos);
+        barraPasos.setValue(panel.getPaso());
+        if (panel.getPaso() >= panel.getPasos()) pausar();
+    }
+
+    /**
+     * Habilita o deshabilita los controles.
+     *
+     * @param habilitado true si hay una traza para reproducir.
+     */
+    private void setHabilitado(boolean habilitado) {
+        botonReproducir.setEnabled(habilitado);
+        comboVelocidad.setEnabled(habilitado);
+        barraPasos.setEnabled(habilitado);
+    }
+}
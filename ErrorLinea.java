@@ -0,0 +1,61 @@
+package sopadeletras.archivo;
+
+/**
+ * Problema detectado en una línea concreta de un archivo de sopa de letras.
+ * Los errores graves impiden construir la sopa; los demás solo se informan.
+ */
+public class ErrorLinea {
+    /** Número de línea (empezando en 1). */
+    private final long linea;
+
+    /** Descripción del problema. */
+    private final String mensaje;
+
+    /** Indica si el error impide terminar la carga. */
+    private final boolean grave;
+
+    /**
+     * Construye un error de línea.
+     *
+     * @param linea Número de línea (empezando en 1).
+     * @param mensaje Descripción del problema.
+     * @param grave true si el error impide terminar la carga.
+     */
+    public ErrorLinea(long linea, String mensaje, boolean grave) {
+        this.linea = linea;
+        this.mensaje = mensaje;
+        this.grave = grave;
+    }
+
+    /**
+     * Obtiene el número de línea.
+     *
+     * @return Número de línea (empezando en 1).
+     */
+    public long getLinea() {
+        return linea;
+    }
+
+    /**
+     * Obtiene la descripción del problema.
+     *
+     * @return Mensaje del error.
+     */
+    public String getMensaje() {
+        return mensaje;
+    }
+
+    /**
+     * Indica si el error impide terminar la carga.
+     *
+     * @return true si es grave.
+     */
+    public boolean isGrave() {
+        return grave;
+    }
+
+    @Override
+    public String toString() {
+        return "Línea " + linea + ": " + mensaje;
+    }
+}
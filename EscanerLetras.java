@@ -0,0 +1,87 @@
+package sopadeletras.modelo;
+
+/**
+ * Operaciones de recorrido masivo sobre el arreglo plano de códigos de letras del tablero:
+ * contar apariciones de una letra, listar sus celdas y generar máscaras de bits de coincidencia.
+ * <p>
+ * Hay dos implementaciones: una escalar, que compara celda por celda, y una vectorial basada en
+ * la API de vectores del JDK ({@code jdk.incubator.vector}), que compara un vector completo de
+ * celdas contra la letra en una sola operación. {@link #obtener()} elige la vectorial al iniciar
+ * si el módulo está disponible (se ejecuta con {@code --add-modules jdk.incubator.vector}) y la
+ * escalar en caso contrario. La propiedad de sistema {@code sopadeletras.escaner=escalar}
+ * fuerza la versión escalar.
+ */
+public abstract class EscanerLetras {
+    /** Implementación elegida al cargar la clase. */
+    private static final EscanerLetras INSTANCIA = seleccionar();
+
+    /**
+     * Obtiene la implementación elegida al iniciar.
+     *
+     * @return Escáner de letras a usar.
+     */
+    public static EscanerLetras obtener() {
+        return INSTANCIA;
+    }
+
+    /**
+     * Elige la implementación vectorial si el módulo de vectores está disponible y no se forzó la escalar.
+     *
+     * @return Implementación elegida.
+     */
+    private static EscanerLetras seleccionar() {
+        boolean forzarEscalar = "escalar".equalsIgnoreCase(System.getProperty("sopadeletras.escaner"));
+        if (!forzarEscalar && ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()) {
+            try {
+                return (EscanerLetras) Class.forName("sopadeletras.modelo.EscanerLetrasVectorial")
+                    .getDeclaredConstructor().newInstance();
+            } catch (ReflectiveOperationException | LinkageError e) {
+                // Sin soporte de vectores en esta plataforma: se usa la versión escalar
+            }
+        }
+        return new EscanerLetrasEscalar();
+    }
+
+    /**
+     * Obtiene un nombre corto de la implementación, para mensajes y benchmarks.
+     *
+     * @return Nombre de la implementación.
+     */
+    public abstract String getNombre();
+
+    /**
+     * Cuenta las celdas de un rango que contienen la letra dada.
+     *
+     * @param letras Arreglo de códigos de letras.
+     * @param desde Primera posición del rango.
+     * @param hasta Posición final del rango (exclusiva).
+     * @param objetivo Código de la letra a contar.
+     * @return Número de apariciones de la letra en el rango.
+     */
+    public abstract int contar(byte[] letras, int desde, int hasta, byte objetivo);
+
+    /**
+     * Escribe en {@code destino} las posiciones, en orden creciente, de las celdas que contienen la letra.
+     *
+     * @param letras Arreglo de códigos de letras.
+     * @param objetivo Código de la letra buscada.
+     * @param destino Arreglo con espacio para todas las apariciones.
+     * @param desdeDestino Primera posición de {@code destino} donde escribir.
+     * @return Número de posiciones escritas.
+     */
+    public abstract int posiciones(byte[] letras, byte objetivo, int[] destino, int desdeDestino);
+
+    /**
+     * Genera la máscara de coincidencias de un tramo de letras: el bit i de la máscara queda
+     * encendido si {@code letras[desde + i] == objetivo}. Los bits se combinan con OR en
+     * {@code destino}, a partir de la palabra {@code desdeDestino}.
+     *
+     * @param letras Arreglo de códigos de letras.
+     * @param desde Primera posición del tramo.
+     * @param largo Número de letras del tramo.
+     * @param objetivo Código de la letra buscada.
+     * @param destino Arreglo de palabras de 64 bits, con al menos (largo + 63) / 64 palabras libres.
+     * @param desdeDestino Primera palabra de {@code destino} donde escribir.
+     */
+    public abstract void mascara(byte[] letras, int desde, int largo, byte objetivo, long[] destino, int desdeDestino);
+}
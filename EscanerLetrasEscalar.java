@@ -0,0 +1,40 @@
+package sopadeletras.modelo;
+
+/**
+ * Implementación escalar de {@link EscanerLetras}: compara las letras una por una.
+ * Se usa cuando la API de vectores no está disponible y como referencia en los benchmarks.
+ */
+public class EscanerLetrasEscalar extends EscanerLetras {
+
+    @Override
+    public String getNombre() {
+        return "escalar";
+    }
+
+    @Override
+    public int contar(byte[] letras, int desde, int hasta, byte objetivo) {
+        int cantidad = 0;
+        for (int i = desde; i < hasta; i++) {
+            if (letras[i] == objetivo) cantidad++;
+        }
+        return cantidad;
+    }
+
+    @Override
+    public int posiciones(byte[] letras, byte objetivo, int[] destino, int desdeDestino) {
+        int n = desdeDestino;
+        for (int i = 0; i < letras.length; i++) {
+            if (letras[i] == objetivo) destino[n++] = i;
+        }
+        return n - desdeDestino;
+    }
+
+    @Override
+    public void mascara(byte[] letras, int desde, int largo, byte objetivo, long[] destino, int desdeDestino) {
+        for (int i = 0; i < largo; i++) {
+            if (letras[desde + i] == objetivo) {
+                destino[desdeDestino + (i >>> 6)] |= 1L << (i & 63);
+            }
+        }
+    }
+}
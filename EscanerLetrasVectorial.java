@@ -0,0 +1,108 @@
+package sopadeletras.modelo;
+
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Implementación vectorial de {@link EscanerLetras} con la API de vectores del JDK.
+ * Carga un vector de códigos por iteración, lo compara con la letra buscada y trabaja con la
+ * máscara de coincidencias resultante; el resto que no llena un vector se procesa de forma escalar.
+ * Requiere ejecutar con {@code --add-modules jdk.incubator.vector}; solo se instancia por reflexión
+ * desde {@link EscanerLetras#obtener()}.
+ */
+public class EscanerLetrasVectorial extends EscanerLetras {
+    /** Especie preferida para contar, donde no hace falta convertir la máscara en bits. */
+    private static final VectorSpecies<Byte> ESPECIE_CONTEO = ByteVector.SPECIES_PREFERRED;
+
+    /** Especie de 8 códigos, para que la máscara de un vector quepa en los pesos de un {@code byte}. */
+    private static final VectorSpecies<Byte> ESPECIE = ByteVector.SPECIES_64;
+
+    /** Número de celdas por vector al convertir máscaras en bits. */
+    private static final int CARRILES = ESPECIE.length();
+
+    /** Peso de cada carril (1 &lt;&lt; carril), para convertir una máscara de coincidencias en bits. */
+    private static final ByteVector PESOS = ByteVector.fromArray(ESPECIE, pesos(), 0);
+
+    /** Vector de ceros, base de la conversión de máscaras. */
+    private static final ByteVector CERO = ByteVector.zero(ESPECIE);
+
+    /**
+     * Calcula los pesos de los carriles.
+     *
+     * @return Arreglo con 1 &lt;&lt; i en la posición i.
+     */
+    private static byte[] pesos() {
+        byte[] pesos = new byte[CARRILES];
+        for (int i = 0; i < CARRILES; i++) {
+            pesos[i] = (byte) (1 << i);
+        }
+        return pesos;
+    }
+
+    /**
+     * Convierte una máscara de coincidencias en un entero con el bit i encendido si el carril i coincide.
+     * Se combina con OR el peso de los carriles seleccionados, operaciones que el compilador JIT
+     * traduce a instrucciones vectoriales (a diferencia de {@link VectorMask#toLong()} en JDK 17).
+     *
+     * @param coincidencias Máscara de coincidencias.
+     * @return Bits de la máscara.
+     */
+    private static long bits(VectorMask<Byte> coincidencias) {
+        return CERO.blend(PESOS, coincidencias).reduceLanes(VectorOperators.OR) & 0xFFL;
+    }
+
+    @Override
+    public String getNombre() {
+        return "vectorial(" + ESPECIE_CONTEO.length() + ")";
+    }
+
+    @Override
+    public int contar(byte[] letras, int desde, int hasta, byte objetivo) {
+        int cantidad = 0;
+        int i = desde;
+        int carriles = ESPECIE_CONTEO.length();
+        for (int limite = hasta - carriles; i <= limite; i += carriles) {
+            cantidad += ByteVector.fromArray(ESPECIE_CONTEO, letras, i).eq(objetivo).trueCount();
+        }
+        for (; i < hasta; i++) {
+            if (letras[i] == objetivo) cantidad++;
+        }
+        return cantidad;
+    }
+
+    @Override
+    public int posiciones(byte[] letras, byte objetivo, int[] destino, int desdeDestino) {
+        int n = desdeDestino;
+        int i = 0;
+        for (int limite = letras.length - CARRILES; i <= limite; i += CARRILES) {
+            VectorMask<Byte> coincidencias = ByteVector.fromArray(ESPECIE, letras, i).eq(objetivo);
+            if (!coincidencias.anyTrue()) continue;
+            long encendidos = bits(coincidencias);
+            while (encendidos != 0) {
+                destino[n++] = i + Long.numberOfTrailingZeros(encendidos);
+                encendidos &= encendidos - 1;
+            }
+        }
+        for (; i < letras.length; i++) {
+            if (letras[i] == objetivo) destino[n++] = i;
+        }
+        return n - desdeDestino;
+    }
+
+    @Override
+    public void mascara(byte[] letras, int desde, int largo, byte objetivo, long[] destino, int desdeDestino) {
+        int i = 0;
+        // CARRILES es 8, así que cada vector cae dentro de una sola palabra de 64 bits
+        for (int limite = largo - CARRILES; i <= limite; i += CARRILES) {
+            long encendidos = bits(ByteVector.fromArray(ESPECIE, letras, desde + i).eq(objetivo));
+            destino[desdeDestino + (i >>> 6)] |= encendidos << (i & 63);
+        }
+        for (; i < largo; i++) {
+            if (letras[desde + i] == objetivo) {
+                destino[desdeDestino + (i >>> 6)] |= 1L << (i & 63);
+            }
+        }
+    }
+}
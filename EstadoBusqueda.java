@@ -0,0 +1,15 @@
+package sopadeletras.logica;
+
+/**
+ * Resultado de una búsqueda con presupuesto.
+ */
+public enum EstadoBusqueda {
+    /** La palabra se encontró en el tablero. */
+    ENCONTRADA,
+    /** Se exploró todo el espacio de búsqueda y la palabra no está en el tablero. */
+    NO_ENCONTRADA,
+    /** Una verificación previa demostró que la palabra no puede estar en el tablero, sin explorar. */
+    IMPOSIBLE,
+    /** La búsqueda se detuvo al agotar su presupuesto de estados, memoria o tiempo. */
+    ABORTADA
+}
@@ -0,0 +1,380 @@
+package sopadeletras.archivo;
+
+import sopadeletras.logica.EstadoBusqueda;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Escribe resultados de búsqueda a medida que se producen, en CSV o en JSON por líneas.
+ * <p>
+ * Cada registro se codifica en UTF-8 directamente en un {@link ByteBuffer} directo grande, sin
+ * construir cadenas intermedias, y el buffer se vacía en el canal cuando se llena o cuando pasó
+ * {@link #INTERVALO_VACIADO_MS} desde el último vaciado. La memoria usada no depende del número
+ * de resultados, y quien lee la salida (por ejemplo por una tubería) la recibe sin esperar al final.
+ * <p>
+ * Columnas del CSV: {@code palabra,encontrada,estado,camino,microsegundos}, con el camino como
+ * pares {@code fila:columna} separados por espacios. En JSON cada línea es un objeto con las mismas
+ * claves y el camino como arreglo de pares {@code [fila,columna]}.
+ * <p>
+ * Un exportador creado con {@link #ExportadorResultados(WritableByteChannel, Formato)} escribe los
+ * resultados de varias sopas: cada registro lleva primero el número de la sopa indicada con
+ * {@link #iniciarSopa(long, int)}, en la columna {@code sopa} del CSV o la clave {@code "sopa"} en JSON.
+ * <p>
+ * Un exportador no es seguro para usarse desde varios hilos a la vez.
+ */
+public class ExportadorResultados implements Closeable {
+    /** Formatos de salida. */
+    public enum Formato {
+        /** Valores separados por comas, con una línea de encabezado. */
+        CSV,
+        /** Un objeto JSON por línea. */
+        JSONL;
+
+        /**
+         * Elige el formato según la extensión del archivo: ".jsonl" o ".json" para JSON, CSV en otro caso.
+         *
+         * @param archivo Archivo de destino.
+         * @return Formato correspondiente.
+         */
+        public static Formato segunExtension(Path archivo) {
+            String nombre = archivo.getFileName().toString().toLowerCase();
+            return nombre.endsWith(".jsonl") || nombre.endsWith(".json") ? JSONL : CSV;
+        }
+    }
+
+    /** Capacidad del buffer de salida, en bytes. */
+    private static final int TAMANO_BUFFER = 1 << 20;
+
+    /** Milisegundos máximos que un registro espera en el buffer antes de vaciarlo. */
+    public static final long INTERVALO_VACIADO_MS = 1000;
+
+    /** Dígitos hexadecimales para los escapes de JSON. */
+    private static final byte[] HEXADECIMAL = "0123456789abcdef".getBytes();
+
+    /** Canal de destino. */
+    private final WritableByteChannel canal;
+
+    /** Indica si el canal se abrió aquí y debe cerrarse al cerrar el exportador. */
+    private final boolean cerrarCanal;
+
+    /** Formato de salida. */
+    private final Formato formato;
+
+    /** Número de columnas del tablero, para convertir celdas en fila y columna. */
+    private int columnas;
+
+    /** Indica si cada registro lleva el número de sopa. */
+    private final boolean variasSopas;
+
+    /** Número de la sopa actual, si el exportador escribe varias sopas. */
+    private long sopa;
+
+    /** Buffer de salida. */
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(TAMANO_BUFFER);
+
+    /** Dígitos de un número, escritos de derecha a izquierda. */
+    private final byte[] digitos = new byte[20];
+
+    /** Instante (System.nanoTime) del último vaciado. */
+    private long ultimoVaciado = System.nanoTime();
+
+    /** Número de registros escritos. */
+    private long registros;
+
+    /**
+     * Crea un exportador que escribe en un archivo, reemplazando su contenido.
+     *
+     * @param archivo Archivo de destino.
+     * @param formato Formato de salida.
+     * @param columnas Número de columnas del tablero.
+     * @throws IOException si no se puede abrir el archivo.
+     */
+    public ExportadorResultados(Path archivo, Formato formato, int columnas) throws IOException {
+        this(FileChannel.open(archivo, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+            StandardOpenOption.WRITE), true, formato, columnas, false);
+    }
+
+    /**
+     * Crea un exportador que escribe en un canal ya abierto, por ejemplo la salida estándar.
+     * El canal no se cierra al cerrar el exportador.
+     *
+     * @param canal Canal de destino.
+     * @param formato Formato de salida.
+     * @param columnas Número de columnas del tablero.
+     * @throws IOException si ocurre un error al escribir el encabezado.
+     */
+    public ExportadorResultados(WritableByteChannel canal, Formato formato, int columnas) throws IOException {
+        this(canal, false, formato, columnas, false);
+    }
+
+    /**
+     * Crea un exportador de los resultados de varias sopas que escribe en un canal ya abierto.
+     * Antes de los resultados de cada sopa se llama a {@link #iniciarSopa(long, int)}.
+     * El canal no se cierra al cerrar el exportador.
+     *
+     * @param canal Canal de destino.
+     * @param formato Formato de salida.
+     * @throws IOException si ocurre un error al escribir el encabezado.
+     */
+    public ExportadorResultados(WritableByteChannel canal, Formato formato) throws IOException {
+        this(canal, false, formato, 1, true);
+    }
+
+    /**
+     * Constructor común.
+     *
+     * @param canal Canal de destino.
+     * @param cerrarCanal true si el canal debe cerrarse al cerrar el exportador.
+     * @param formato Formato de salida.
+     * @param columnas Número de columnas del tablero.
+     * @param variasSopas true si cada registro lleva el número de sopa.
+     * @throws IOException si ocurre un error al escribir el encabezado.
+     */
+    private ExportadorResultados(WritableByteChannel canal, boolean cerrarCanal, Formato formato, int columnas,
+            boolean variasSopas) throws IOException {
+        this.canal = canal;
+        this.cerrarCanal = cerrarCanal;
+        this.formato = formato;
+        this.columnas = columnas;
+        this.variasSopas = variasSopas;
+        if (formato == Formato.CSV) {
+            ponerAscii(variasSopas ? "sopa,palabra,encontrada,estado,camino,microsegundos\n"
+                : "palabra,encontrada,estado,camino,microsegundos\n");
+        }
+    }
+
+    /**
+     * Indica la sopa a la que pertenecen los resultados que se escriben a continuación.
+     *
+     * @param numero Número de la sopa.
+     * @param columnas Número de columnas de su tablero.
+     */
+    public void iniciarSopa(long numero, int columnas) {
+        this.sopa = numero;
+        this.columnas = columnas;
+    }
+
+    /**
+     * Escribe el resultado de la búsqueda de una palabra.
+     *
+     * @param palabra Palabra buscada.
+     * @param estado Resultado de la búsqueda.
+     * @param camino Celdas del camino (fila * columnas + columna), o null si no hay.
+     * @param nanosegundos Duración de la búsqueda.
+     * @throws IOException si ocurre un error al vaciar el buffer.
+     */
+    public void escribir(String palabra, EstadoBusqueda estado, int[] camino, long nanosegundos) throws IOException {
+        boolean encontrada = estado == EstadoBusqueda.ENCONTRADA;
+        long microsegundos = nanosegundos / 1000;
+        if (formato == Formato.CSV) {
+            if (variasSopas) {
+                ponerEntero(sopa);
+                poner((byte) ',');
+            }
+            ponerCsv(palabra);
+            ponerAscii(encontrada ? ",true," : ",false,");
+            ponerAscii(estado.name());
+            poner((byte) ',');
+            if (camino != null) {
+                for (int i = 0; i < camino.length; i++) {
+                    if (i > 0) poner((byte) ' ');
+                    ponerEntero(camino[i] / columnas);
+                    poner((byte) ':');
+                    ponerEntero(camino[i] % columnas);
+                }
+            }
+            poner((byte) ',');
+            ponerEntero(microsegundos);
+        } else {
+            if (variasSopas) {
+                ponerAscii("{\"sopa\":");
+                ponerEntero(sopa);
+                ponerAscii(",\"palabra\":");
+            } else {
+                ponerAscii("{\"palabra\":");
+            }
+            ponerJson(palabra);
+            ponerAscii(encontrada ? ",\"encontrada\":true,\"estado\":\"" : ",\"encontrada\":false,\"estado\":\"");
+            ponerAscii(estado.name());
+            ponerAscii("\",\"camino\":[");
+            if (camino != null) {
+                for (int i = 0; i < camino.length; i++) {
+                    if (i > 0) poner((byte) ',');
+                    poner((byte) '[');
+                    ponerEntero(camino[i] / columnas);
+                    poner((byte) ',');
+                    ponerEntero(camino[i] % columnas);
+                    poner((byte) ']');
+                }
+            }
+            ponerAscii("],\"microsegundos\":");
+            ponerEntero(microsegundos);
+            poner((byte) '}');
+        }
+        poner((byte) '\n');
+        registros++;
+        if (System.nanoTime() - ultimoVaciado > INTERVALO_VACIADO_MS * 1_000_000L) {
+            vaciar();
+        }
+    }
+
+    /**
+     * Obtiene el número de registros escritos.
+     *
+     * @return Registros escritos.
+     */
+    public long getRegistros() {
+        return registros;
+    }
+
+    /**
+     * Escribe en el canal todo lo que está en el buffer.
+     *
+     * @throws IOException si ocurre un error de escritura.
+     */
+    public void vaciar() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            canal.write(buffer);
+        }
+        buffer.clear();
+        ultimoVaciado = System.nanoTime();
+    }
+
+    /**
+     * Vacía el buffer y cierra el canal si el exportador lo abrió.
+     *
+     * @throws IOException si ocurre un error de escritura.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            vaciar();
+        } finally {
+            if (cerrarCanal) canal.close();
+        }
+    }
+
+    /**
+     * Agrega un byte al buffer, vaciándolo antes si está lleno.
+     *
+     * @param b Byte a agregar.
+     * @throws IOException si ocurre un error al vaciar.
+     */
+    private void poner(byte b) throws IOException {
+        if (!buffer.hasRemaining()) vaciar();
+        buffer.put(b);
+    }
+
+    /**
+     * Agrega un texto que solo contiene caracteres ASCII.
+     *
+     * @param texto Texto a agregar.
+     * @throws IOException si ocurre un error al vaciar.
+     */
+    private void ponerAscii(String texto) throws IOException {
+        for (int i = 0; i < texto.length(); i++) {
+            poner((byte) texto.charAt(i));
+        }
+    }
+
+    /**
+     * Agrega un número entero no negativo en decimal.
+     *
+     * @param valor Número a agregar.
+     * @throws IOException si ocurre un error al vaciar.
+     */
+    private void ponerEntero(long valor) throws IOException {
+        int n = digitos.length;
+        do {
+            digitos[--n] = (byte) ('0' + valor % 10);
+            valor /= 10;
+        } while (valor > 0);
+        for (; n < digitos.length; n++) {
+            poner(digitos[n]);
+        }
+    }
+
+    /**
+     * Agrega un carácter codificado en UTF-8. Los pares sustitutos se combinan en un solo punto de código.
+     *
+     * @param texto Texto al que pertenece el carácter.
+     * @param i Posición del carácter.
+     * @return Posición del último carácter consumido (i + 1 si era un par sustituto).
+     * @throws IOException si ocurre un error al vaciar.
+     */
+    private int ponerUtf8(String texto, int i) throws IOException {
+        char c = texto.charAt(i);
+        if (c < 0x80) {
+            poner((byte) c);
+        } else if (c < 0x800) {
+            poner((byte) (0xC0 | (c >> 6)));
+            poner((byte) (0x80 | (c & 0x3F)));
+        } else if (Character.isHighSurrogate(c) && i + 1 < texto.length()
+                && Character.isLowSurrogate(texto.charAt(i + 1))) {
+            int punto = Character.toCodePoint(c, texto.charAt(i + 1));
+            poner((byte) (0xF0 | (punto >> 18)));
+            poner((byte) (0x80 | ((punto >> 12) & 0x3F)));
+            poner((byte) (0x80 | ((punto >> 6) & 0x3F)));
+            poner((byte) (0x80 | (punto & 0x3F)));
+            return i + 1;
+        } else if (Character.isSurrogate(c)) {
+            poner((byte) '?');
+        } else {
+            poner((byte) (0xE0 | (c >> 12)));
+            poner((byte) (0x80 | ((c >> 6) & 0x3F)));
+            poner((byte) (0x80 | (c & 0x3F)));
+        }
+        return i;
+    }
+
+    /**
+     * Agrega un campo de CSV, entre comillas si contiene comas, comillas o saltos de línea.
+     *
+     * @param texto Valor del campo.
+     * @throws IOException si ocurre un error al vaciar.
+     */
+    private void ponerCsv(String texto) throws IOException {
+        boolean comillas = false;
+        for (int i = 0; i < texto.length() && !comillas; i++) {
+            char c = texto.charAt(i);
+            comillas = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (comillas) poner((byte) '"');
+        for (int i = 0; i < texto.length(); i++) {
+            if (texto.charAt(i) == '"') poner((byte) '"');
+            i = ponerUtf8(texto, i);
+        }
+        if (comillas) poner((byte) '"');
+    }
+
+    /**
+     * Agrega una cadena de JSON entre comillas, escapando comillas, barras y caracteres de control.
+     *
+     * @param texto Valor de la cadena.
+     * @throws IOException si ocurre un error al vaciar.
+     */
+    private void ponerJson(String texto) throws IOException {
+        poner((byte) '"');
+        for (int i = 0; i < texto.length(); i++) {
+            char c = texto.charAt(i);
+            if (c == '"' || c == '\\') {
+                poner((byte) '\\');
+                poner((byte) c);
+            } else if (c < 0x20) {
+                ponerAscii("\\u00");
+                poner(HEXADECIMAL[c >> 4]);
+                poner(HEXADECIMAL[c & 0xF]);
+            } else {
+                i = ponerUtf8(texto, i);
+            }
+        }
+        poner((byte) '"');
+    }
+}
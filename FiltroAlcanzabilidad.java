@@ -0,0 +1,240 @@
+package sopadeletras.logica;
+
+import java.util.Arrays;
+import sopadeletras.modelo.EscanerLetras;
+import sopadeletras.modelo.Tablero;
+
+/**
+ * Tabla de factibilidad relajada de una palabra sobre el tablero, usada para podar DFS y BFS.
+ * <p>
+ * Para cada posición i de la palabra guarda un mapa de bits con las celdas desde las que se puede
+ * deletrear el sufijo que empieza en i siguiendo celdas adyacentes, sin exigir que el camino no
+ * repita celdas. Se construye de atrás hacia adelante: la capa i es la máscara de la letra i
+ * intersectada con la dilatación (los 8 vecinos) de la capa i + 1. Cada fila del tablero se guarda
+ * en palabras de 64 bits, de modo que la dilatación se calcula con desplazamientos y OR sobre
+ * 64 celdas a la vez.
+ * <p>
+ * Como la relajación solo agrega caminos, una celda sin su bit encendido en la capa i nunca puede
+ * ocupar la posición i de una ubicación real: la búsqueda puede descartarla con una sola prueba de bit.
+ */
+public class FiltroAlcanzabilidad {
+    /** Número de columnas del tablero. */
+    private int columnas;
+
+    /** Número de palabras de 64 bits por fila. */
+    private int palabrasPorFila;
+
+    /**
+     * Capas de bits, una por posición de la palabra; cada capa tiene filas * palabrasPorFila palabras.
+     * Puede tener más capas que letras la palabra cuando el filtro se reutiliza.
+     */
+    private long[][] capas;
+
+    /** Número de capas válidas (largo de la palabra actual). */
+    private int largo;
+
+    /** Capa auxiliar para la dilatación, reutilizada entre posiciones. */
+    private long[] dilatada;
+
+    /**
+     * Construye la tabla de factibilidad de una palabra sobre el tablero.
+     *
+     * @param tablero Tablero donde se buscará la palabra.
+     * @param palabra Palabra a buscar.
+     */
+    public FiltroAlcanzabilidad(Tablero tablero, String palabra) {
+        this();
+        byte[] codigos = tablero.getAlfabeto().codificar(palabra);
+        calcular(tablero, codigos, codigos.length);
+    }
+
+    /**
+     * Construye un filtro vacío, para reutilizarlo con {@link #calcular(Tablero, byte[], int)}.
+     */
+    FiltroAlcanzabilidad() {
+        this.capas = new long[0][];
+        this.dilatada = new long[0];
+    }
+
+    /**
+     * Recalcula la tabla para otra palabra, reutilizando las capas ya reservadas cuando el
+     * tablero tiene el mismo tamaño, de modo que las búsquedas repetidas no reservan memoria.
+     * Una letra fuera del alfabeto deja vacía su capa y, con ella, todas las anteriores.
+     *
+     * @param tablero Tablero donde se buscará la palabra.
+     * @param palabra Códigos de las letras de la palabra.
+     * @param largo Número de letras de la palabra (las primeras de {@code palabra}).
+     */
+    void calcular(Tablero tablero, byte[] palabra, int largo) {
+        int filas = tablero.getFilas();
+        this.columnas = tablero.getColumnas();
+        this.palabrasPorFila = (columnas + 63) >>> 6;
+        this.largo = largo;
+        if (largo == 0) return;
+
+        int tamanoCapa = filas * palabrasPorFila;
+        if (capas.length < largo) {
+            capas = Arrays.copyOf(capas, largo);
+        }
+        if (dilatada.length != tamanoCapa) {
+            dilatada = new long[tamanoCapa];
+        }
+        byte[] letras = tablero.getCodigos();
+        for (int i = largo - 1; i >= 0; i--) {
+            if (capas[i] == null || capas[i].length != tamanoCapa) {
+                capas[i] = new long[tamanoCapa];
+            }
+            long[] capa = capas[i];
+            mascaraLetra(letras, palabra[i], filas, capa);
+            if (i == largo - 1) continue;
+
+            long[] siguiente = capas[i + 1];
+            Arrays.fill(dilatada, 0);
+            for (int f = 0; f < filas; f++) {
+                int base = f * palabrasPorFila;
+                // Vecinos izquierdo y derecho en la misma fila
+                desplazar(siguiente, base, dilatada, base, false);
+                // Vecinos de la fila de arriba y de abajo (incluidas sus diagonales)
+                if (f > 0) desplazar(siguiente, base - palabrasPorFila, dilatada, base, true);
+                if (f + 1 < filas) desplazar(siguiente, base + palabrasPorFila, dilatada, base, true);
+            }
+            for (int k = 0; k < capa.length; k++) {
+                capa[k] &= dilatada[k];
+            }
+        }
+    }
+
+    /**
+     * Construye el mapa de bits de las celdas que contienen una letra, comparando cada fila
+     * completa con el {@link EscanerLetras} (vectorial si está disponible).
+     *
+     * @param letras Códigos de las letras del tablero, fila por fila.
+     * @param letra Código de la letra buscada.
+     * @param filas Número de filas del tablero.
+     * @param mascara Capa donde se escribe el mapa de bits de las celdas con la letra.
+     */
+    private void mascaraLetra(byte[] letras, byte letra, int filas, long[] mascara) {
+        Arrays.fill(mascara, 0);
+        EscanerLetras escaner = EscanerLetras.obtener();
+        for (int f = 0; f < filas; f++) {
+            escaner.mascara(letras, f * columnas, columnas, letra, mascara, f * palabrasPorFila);
+        }
+    }
+
+    /**
+     * Escribe en {@code destino} (con OR) la fila de origen desplazada una columna a cada lado,
+     * y opcionalmente la fila sin desplazar.
+     *
+     * @param origen Capa de origen.
+     * @param desdeOrigen Primera palabra de la fila de origen.
+     * @param destino Capa de destino.
+     * @param desdeDestino Primera palabra de la fila de destino.
+     * @param incluirCentro true para incluir también la fila sin desplazar.
+     */
+    private void desplazar(long[] origen, int desdeOrigen, long[] destino, int desdeDestino, boolean incluirCentro) {
+        for (int k = 0; k < palabrasPorFila; k++) {
+            long x = origen[desdeOrigen + k];
+            long anterior = k > 0 ? origen[desdeOrigen + k - 1] : 0;
+            long posterior = k + 1 < palabrasPorFila ? origen[desdeOrigen + k + 1] : 0;
+            long izquierda = (x << 1) | (anterior >>> 63);
+            long derecha = (x >>> 1) | (posterior << 63);
+            destino[desdeDestino + k] |= izquierda | derecha | (incluirCentro ? x : 0);
+        }
+    }
+
+    /**
+     * Indica si una celda puede ocupar la posición dada de la palabra.
+     *
+     * @param posicion Posición dentro de la palabra.
+     * @param fila Fila de la celda.
+     * @param columna Columna de la celda.
+     * @return true si el sufijo desde esa posición es alcanzable desde la celda.
+     */
+    public boolean contiene(int posicion, int fila, int columna) {
+        return (capas[posicion][fila * palabrasPorFila + (columna >>> 6)] & (1L << (columna & 63))) != 0;
+    }
+
+    /**
+     * Indica si una celda, dada por su posición en el arreglo plano, puede ocupar la posición dada.
+     *
+     * @param posicion Posición dentro de la palabra.
+     * @param celda Celda (fila * columnas + columna).
+     * @return true si el sufijo desde esa posición es alcanzable desde la celda.
+     */
+    public boolean contiene(int posicion, int celda) {
+        int fila = celda / columnas;
+        return contiene(posicion, fila, celda - fila * columnas);
+    }
+
+    /**
+     * Obtiene las celdas desde las que puede empezar la palabra, recorriendo solo los bits
+     * encendidos de la primera capa.
+     *
+     * @return Celdas iniciales (fila * columnas + columna), en orden creciente.
+     */
+    public int[] celdasIniciales() {
+        if (largo == 0) return new int[0];
+        int cantidad = 0;
+        for (long palabra : capas[0]) {
+            cantidad += Long.bitCount(palabra);
+        }
+        int[] celdas = new int[cantidad];
+        celdasIniciales(celdas);
+        return celdas;
+    }
+
+    /**
+     * Escribe en {@code destino} las celdas desde las que puede empezar la palabra.
+     *
+     * @param destino Arreglo con espacio para todas las celdas iniciales (basta con el número de celdas del tablero).
+     * @return Número de celdas escritas.
+     */
+    public int celdasIniciales(int[] destino) {
+        if (largo == 0) return 0;
+        long[] capa = capas[0];
+        int n = 0;
+        for (int k = 0; k < capa.length; k++) {
+            long bits = capa[k];
+            int fila = k / palabrasPorFila;
+            int columnaBase = (k - fila * palabrasPorFila) << 6;
+            while (bits != 0) {
+                destino[n++] = fila * columnas + columnaBase + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+            }
+        }
+        return n;
+    }
+
+    /**
+     * Indica si ninguna celda puede iniciar la palabra, es decir, si es imposible encontrarla.
+     *
+     * @return true si la primera capa está vacía.
+     */
+    public boolean esVacio() {
+        if (largo == 0) return true;
+        for (long palabra : capas[0]) {
+            if (palabra != 0) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Obtiene la capa de bits de una posición de la palabra.
+     * Se devuelve el arreglo interno, por lo que no debe modificarse.
+     *
+     * @param posicion Posición dentro de la palabra.
+     * @return Capa con filas * {@link #getPalabrasPorFila()} palabras de 64 bits.
+     */
+    public long[] getCapa(int posicion) {
+        return capas[posicion];
+    }
+
+    /**
+     * Obtiene el número de palabras de 64 bits que ocupa cada fila en una capa.
+     *
+     * @return Palabras por fila.
+     */
+    public int getPalabrasPorFila() {
+        return palabrasPorFila;
+    }
+}
@@ -0,0 +1,354 @@
+package sopadeletras.generador;
+
+import sopadeletras.archivo.ArchivoSopa;
+import sopadeletras.estructuras.ListaPalabras;
+import sopadeletras.modelo.Sopa;
+import sopadeletras.modelo.Tablero;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Generador determinista de sopas de letras de tamaño N×M para pruebas de carga y benchmarks.
+ * Con la misma semilla y los mismos parámetros siempre produce la misma sopa.
+ * Permite sesgar la frecuencia de las letras del alfabeto, plantar las palabras del
+ * diccionario en caminos rectos o en serpiente, y generar casos adversos como un tablero
+ * inundado con una sola letra.
+ */
+public class GeneradorSopa {
+    /** Alfabeto español en mayúsculas, usado por defecto. */
+    public static final String ALFABETO_ESPANOL = "ABCDEFGHIJKLMNÑOPQRSTUVWXYZ";
+
+    /** Número máximo de intentos para plantar cada palabra. */
+    private static final int INTENTOS_POR_PALABRA = 100;
+
+    /** Desplazamientos de fila de las 8 direcciones posibles. */
+    private static final int[] DX = {-1, -1, -1, 0, 0, 1, 1, 1};
+
+    /** Desplazamientos de columna de las 8 direcciones posibles. */
+    private static final int[] DY = {-1, 0, 1, -1, 1, -1, 0, 1};
+
+    /**
+     * Forma del camino sobre el que se planta cada palabra.
+     */
+    public enum TipoCamino {
+        /** Línea recta en una de las 8 direcciones. */
+        RECTO,
+        /** Camino aleatorio entre celdas adyacentes que no repite celdas. */
+        SERPIENTE
+    }
+
+    /** Generador de números aleatorios inicializado con la semilla. */
+    private Random random;
+
+    /** Letras que pueden aparecer en el tablero y en las palabras generadas. */
+    private String alfabeto;
+
+    /** Distribución acumulada de probabilidad de cada letra del alfabeto. */
+    private double[] acumulada;
+
+    /**
+     * Construye un generador con el alfabeto español y frecuencias uniformes.
+     *
+     * @param semilla Semilla del generador aleatorio.
+     */
+    public GeneradorSopa(long semilla) {
+        this(semilla, ALFABETO_ESPANOL, 0.0);
+    }
+
+    /**
+     * Construye un generador con un alfabeto y un sesgo de frecuencias dados.
+     * La letra en la posición r del alfabeto tiene un peso de 1 / (r + 1)^sesgo,
+     * por lo que un sesgo de 0 da frecuencias uniformes y valores mayores concentran
+     * el tablero en las primeras letras del alfabeto.
+     *
+     * @param semilla Semilla del generador aleatorio.
+     * @param alfabeto Letras que pueden aparecer en el tablero.
+     * @param sesgo Exponente del sesgo de frecuencias (0 o mayor).
+     */
+    public GeneradorSopa(long semilla, String alfabeto, double sesgo) {
+        if (alfabeto.isEmpty()) {
+            throw new IllegalArgumentException("El alfabeto no puede estar vacío.");
+        }
+        if (sesgo < 0) {
+            throw new IllegalArgumentException("El sesgo no puede ser negativo.");
+        }
+        this.random = new Random(semilla);
+        this.alfabeto = alfabeto;
+        this.acumulada = new double[alfabeto.length()];
+        double total = 0;
+        for (int r = 0; r < alfabeto.length(); r++) {
+            total += 1.0 / Math.pow(r + 1, sesgo);
+            acumulada[r] = total;
+        }
+        for (int r = 0; r < acumulada.length; r++) {
+            acumulada[r] /= total;
+        }
+    }
+
+    /**
+     * Genera una lista de palabras aleatorias distintas usando la distribución de letras del generador.
+     *
+     * @param cantidad Número de palabras a generar.
+     * @param longitudMin Longitud mínima de cada palabra.
+     * @param longitudMax Longitud máxima de cada palabra.
+     * @return Arreglo con las palabras generadas.
+     */
+    public String[] generarPalabras(int cantidad, int longitudMin, int longitudMax) {
+        if (longitudMin < 1 || longitudMax < longitudMin) {
+            throw new IllegalArgumentException("Rango de longitudes inválido.");
+        }
+        List<String> palabras = new ArrayList<>();
+        Set<String> vistas = new HashSet<>();
+        int intentos = 0;
+        while (palabras.size() < cantidad && intentos < cantidad * INTENTOS_POR_PALABRA) {
+            intentos++;
+            int longitud = longitudMin + random.nextInt(longitudMax - longitudMin + 1);
+            StringBuilder sb = new StringBuilder(longitud);
+            for (int i = 0; i < longitud; i++) {
+                sb.append(letraAleatoria());
+            }
+            String palabra = sb.toString();
+            if (vistas.add(palabra)) {
+                palabras.add(palabra);
+            }
+        }
+        return palabras.toArray(new String[0]);
+    }
+
+    /**
+     * Genera una sopa de letras de filas×columnas con las palabras dadas plantadas en el tablero.
+     * Todas las palabras se agregan al diccionario; las que no caben tras varios intentos
+     * quedan sin plantar y sirven como casos negativos. Las celdas libres se rellenan con
+     * letras aleatorias según el sesgo del generador.
+     *
+     * @param filas Número de filas del tablero.
+     * @param columnas Número de columnas del tablero.
+     * @param palabras Palabras a plantar (en mayúsculas).
+     * @param tipo Forma de los caminos donde se plantan las palabras.
+     * @return Sopa generada.
+     */
+    public Sopa generar(int filas, int columnas, String[] palabras, TipoCamino tipo) {
+        char[][] letras = new char[filas][columnas];
+        ListaPalabras diccionario = new ListaPalabras();
+        int[] camino = new int[0];
+
+        for (String palabra : palabras) {
+            diccionario.agregar(palabra);
+            if (camino.length < palabra.length()) {
+                camino = new int[palabra.length()];
+            }
+            for (int intento = 0; intento < INTENTOS_POR_PALABRA; intento++) {
+                boolean encontrado = tipo == TipoCamino.RECTO
+                    ? caminoRecto(letras, palabra, camino)
+                    : caminoSerpiente(letras, palabra, camino);
+                if (encontrado) {
+                    for (int k = 0; k < palabra.length(); k++) {
+                        letras[camino[k] / columnas][camino[k] % columnas] = palabra.charAt(k);
+                    }
+                    break;
+                }
+            }
+        }
+
+        for (int i = 0; i < filas; i++) {
+            for (int j = 0; j < columnas; j++) {
+                if (letras[i][j] == '\0') {
+                    letras[i][j] = letraAleatoria();
+                }
+            }
+        }
+        return new Sopa(new Tablero(letras), diccionario);
+    }
+
+    /**
+     * Genera un caso adverso: un tablero inundado con una sola letra, salvo una esquina con otra letra
+     * cuyos vecinos ortogonales son una tercera letra, y la palabra formada por la letra repetida, la
+     * letra de la esquina y otra vez la letra repetida (por ejemplo "AAAA…ABA").
+     * La palabra no existe: la esquina solo tiene un vecino con la letra repetida (el diagonal), y la
+     * palabra necesita entrar y salir por él. Aun así supera el conteo de letras, la prueba de pares
+     * adyacentes y el filtro de alcanzabilidad, que permite repetir celdas, de modo que DFS y BFS deben
+     * recorrer los caminos de la letra repetida hasta agotarlos o agotar su presupuesto.
+     *
+     * @param filas Número de filas del tablero (al menos 2).
+     * @param columnas Número de columnas del tablero (al menos 2).
+     * @param letra Letra con la que se inunda el tablero.
+     * @param longitudPalabra Longitud de la palabra adversa (al menos 3).
+     * @return Sopa con el tablero inundado y la palabra adversa en el diccionario.
+     */
+    public Sopa generarInundacion(int filas, int columnas, char letra, int longitudPalabra) {
+        if (filas < 2 || columnas < 2 || longitudPalabra < 3) {
+            throw new IllegalArgumentException("La inundación necesita un tablero de 2x2 y una palabra de 3 letras como mínimo.");
+        }
+        char[][] letras = new char[filas][columnas];
+        for (char[] fila : letras) {
+            Arrays.fill(fila, letra);
+        }
+        char distinta = letra == 'B' ? 'C' : 'B';
+        char muro = letra == 'D' ? 'E' : 'D';
+        letras[0][0] = distinta;
+        letras[0][1] = muro;
+        letras[1][0] = muro;
+        StringBuilder sb = new StringBuilder(longitudPalabra);
+        for (int i = 0; i < longitudPalabra - 2; i++) {
+            sb.append(letra);
+        }
+        sb.append(distinta).append(letra);
+
+        ListaPalabras diccionario = new ListaPalabras();
+        diccionario.agregar(sb.toString());
+        return new Sopa(new Tablero(letras), diccionario);
+    }
+
+    /**
+     * Intenta ubicar la palabra en línea recta desde una celda y dirección aleatorias.
+     *
+     * @param letras Tablero en construcción ('\0' indica celda libre).
+     * @param palabra Palabra a ubicar.
+     * @param camino Arreglo donde se guardan las celdas (fila * columnas + columna) del camino.
+     * @return true si la palabra cabe en el camino elegido.
+     */
+    private boolean caminoRecto(char[][] letras, String palabra, int[] camino) {
+        int filas = letras.length;
+        int columnas = letras[0].length;
+        int fila = random.nextInt(filas);
+        int columna = random.nextInt(columnas);
+        int dir = random.nextInt(8);
+        for (int k = 0; k < palabra.length(); k++) {
+            int f = fila + DX[dir] * k;
+            int c = columna + DY[dir] * k;
+            if (f < 0 || c < 0 || f >= filas || c >= columnas) return false;
+            if (!celdaCompatible(letras[f][c], palabra.charAt(k))) return false;
+            camino[k] = f * columnas + c;
+        }
+        return true;
+    }
+
+    /**
+     * Intenta ubicar la palabra en un camino en serpiente desde una celda aleatoria.
+     * En cada paso se elige al azar una celda adyacente que no forme parte del camino.
+     *
+     * @param letras Tablero en construcción ('\0' indica celda libre).
+     * @param palabra Palabra a ubicar.
+     * @param camino Arreglo donde se guardan las celdas (fila * columnas + columna) del camino.
+     * @return true si la palabra cabe en el camino elegido.
+     */
+    private boolean caminoSerpiente(char[][] letras, String palabra, int[] camino) {
+        int filas = letras.length;
+        int columnas = letras[0].length;
+        int fila = random.nextInt(filas);
+        int columna = random.nextInt(columnas);
+        if (!celdaCompatible(letras[fila][columna], palabra.charAt(0))) return false;
+        camino[0] = fila * columnas + columna;
+
+        int[] candidatos = new int[8];
+        for (int k = 1; k < palabra.length(); k++) {
+            int n = 0;
+            for (int dir = 0; dir < 8; dir++) {
+                int f = fila + DX[dir];
+                int c = columna + DY[dir];
+                if (f < 0 || c < 0 || f >= filas || c >= columnas) continue;
+                if (!celdaCompatible(letras[f][c], palabra.charAt(k))) continue;
+                if (contiene(camino, k, f * columnas + c)) continue;
+                candidatos[n++] = f * columnas + c;
+            }
+            if (n == 0) return false;
+            camino[k] = candidatos[random.nextInt(n)];
+            fila = camino[k] / columnas;
+            columna = camino[k] % columnas;
+        }
+        return true;
+    }
+
+    /**
+     * Indica si una celda del tablero en construcción puede contener la letra dada.
+     *
+     * @param actual Letra actual de la celda ('\0' si está libre).
+     * @param letra Letra que se quiere colocar.
+     * @return true si la celda está libre o ya contiene esa letra.
+     */
+    private static boolean celdaCompatible(char actual, char letra) {
+        return actual == '\0' || actual == letra;
+    }
+
+    /**
+     * Verifica si una celda ya forma parte de las primeras posiciones del camino.
+     *
+     * @param camino Celdas del camino.
+     * @param largo Número de posiciones ocupadas del camino.
+     * @param celda Celda a buscar.
+     * @return true si la celda ya está en el camino.
+     */
+    private static boolean contiene(int[] camino, int largo, int celda) {
+        for (int i = 0; i < largo; i++) {
+            if (camino[i] == celda) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Elige una letra del alfabeto según la distribución sesgada del generador.
+     *
+     * @return Letra elegida.
+     */
+    private char letraAleatoria() {
+        double u = random.nextDouble();
+        int bajo = 0, alto = acumulada.length - 1;
+        while (bajo < alto) {
+            int medio = (bajo + alto) >>> 1;
+            if (acumulada[medio] < u) {
+                bajo = medio + 1;
+            } else {
+                alto = medio;
+            }
+        }
+        return alfabeto.charAt(bajo);
+    }
+
+    /**
+     * Genera una sopa desde la línea de comandos y la escribe en el formato de texto del proyecto.
+     * <pre>
+     * GeneradorSopa &lt;filas&gt; &lt;columnas&gt; &lt;palabras&gt; &lt;semilla&gt; [recto|serpiente] [sesgo] [archivo]
+     * GeneradorSopa inundacion &lt;filas&gt; &lt;columnas&gt; &lt;longitud&gt; [archivo]
+     * </pre>
+     * Si no se indica archivo, la sopa se escribe en la salida estándar.
+     *
+     * @param args Argumentos de línea de comandos.
+     * @throws IOException si ocurre un error al escribir la sopa.
+     */
+    public static void main(String[] args) throws IOException {
+        Sopa sopa;
+        String destino;
+        if (args.length >= 4 && args[0].equalsIgnoreCase("inundacion")) {
+            GeneradorSopa generador = new GeneradorSopa(0);
+            sopa = generador.generarInundacion(Integer.parseInt(args[1]), Integer.parseInt(args[2]),
+                'A', Integer.parseInt(args[3]));
+            destino = args.length > 4 ? args[4] : null;
+        } else if (args.length >= 4) {
+            int filas = Integer.parseInt(args[0]);
+            int columnas = Integer.parseInt(args[1]);
+            int cantidad = Integer.parseInt(args[2]);
+            long semilla = Long.parseLong(args[3]);
+            TipoCamino tipo = args.length > 4 && args[4].equalsIgnoreCase("recto")
+                ? TipoCamino.RECTO : TipoCamino.SERPIENTE;
+            double sesgo = args.length > 5 ? Double.parseDouble(args[5]) : 0.0;
+            destino = args.length > 6 ? args[6] : null;
+
+            GeneradorSopa generador = new GeneradorSopa(semilla, ALFABETO_ESPANOL, sesgo);
+            String[] palabras = generador.generarPalabras(cantidad, 3, Math.max(3, Math.min(10, Math.max(filas, columnas))));
+            sopa = generador.generar(filas, columnas, palabras, tipo);
+        } else {
+            System.err.println("Uso: GeneradorSopa <filas> <columnas> <palabras> <semilla> [recto|serpiente] [sesgo] [archivo]");
+            System.err.println("     GeneradorSopa inundacion <filas> <columnas> <longitud> [archivo]");
+            return;
+        }
+
+        if (destino != null) {
+            ArchivoSopa.escribir(sopa, new File(destino));
+        } else {
+            Writer w = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8));
+            ArchivoSopa.escribir(sopa, w);
+        }
+    }
+}
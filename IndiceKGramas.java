@@ -0,0 +1,211 @@
+package sopadeletras.logica;
+
+import sopadeletras.estructuras.ConjuntoLargos;
+import sopadeletras.modelo.Alfabeto;
+import sopadeletras.modelo.Tablero;
+
+/**
+ * Índice de todas las cadenas de largo 1 a k que se pueden deletrear en el tablero
+ * siguiendo un camino simple (sin repetir celdas).
+ * <p>
+ * Cada cadena se empaqueta en una clave {@code long} (6 bits por código de letra del
+ * {@link Alfabeto} y el largo en los bits altos) y se guarda en un {@link ConjuntoLargos}, de modo que responder si una palabra corta
+ * está en el tablero cuesta una sola consulta a la tabla. Opcionalmente se guarda como carga
+ * el primer camino encontrado para cada cadena. Para palabras más largas que k, el índice sirve
+ * como filtro previo: si alguna de sus ventanas de largo k no está en el tablero, la palabra
+ * tampoco puede estarlo.
+ * <p>
+ * El índice se construye una vez por tablero y su costo crece como celdas × 8^(k−1),
+ * por lo que conviene usar k entre 3 y 5.
+ */
+public class IndiceKGramas {
+    /** Largo máximo admitido para k (9 letras de 6 bits caben debajo del largo en la clave). */
+    public static final int MAX_K = 9;
+
+    /** Bits que ocupa cada código de letra en la clave (los códigos son menores que 64). */
+    private static final int BITS_LETRA = 6;
+
+    /** Posición del largo de la cadena dentro de la clave. */
+    private static final int DESPLAZAMIENTO_LARGO = 60;
+
+    /** Tablero indexado. */
+    private Tablero tablero;
+
+    /** Largo máximo de las cadenas indexadas. */
+    private int k;
+
+    /** Indica si se guarda el primer camino de cada cadena. */
+    private boolean conCaminos;
+
+    /** Conjunto de claves de las cadenas indexadas. */
+    private ConjuntoLargos cadenas;
+
+    /**
+     * Construye el índice de las cadenas de largo hasta k del tablero.
+     *
+     * @param tablero Tablero a indexar.
+     * @param k Largo máximo de las cadenas (entre 1 y {@link #MAX_K}).
+     * @param conCaminos true para guardar el primer camino de cada cadena.
+     */
+    public IndiceKGramas(Tablero tablero, int k, boolean conCaminos) {
+        if (k < 1 || k > MAX_K) {
+            throw new IllegalArgumentException("k debe estar entre 1 y " + MAX_K + ".");
+        }
+        this.tablero = tablero;
+        this.k = k;
+        this.conCaminos = conCaminos;
+        this.cadenas = new ConjuntoLargos(conCaminos ? k : 0);
+        construir();
+    }
+
+    /**
+     * Recorre todos los caminos simples de largo hasta k y agrega sus cadenas al conjunto.
+     */
+    private void construir() {
+        byte[] letras = tablero.getCodigos();
+        int[] camino = new int[k];
+        long[] claves = new long[k];
+        int[][] vecinos = new int[k][8];
+        int[] cantidadVecinos = new int[k];
+        int[] siguiente = new int[k];
+        boolean[] enCamino = new boolean[letras.length];
+        int[] carga = new int[k];
+
+        for (int inicio = 0; inicio < letras.length; inicio++) {
+            int nivel = 0;
+            camino[0] = inicio;
+            claves[0] = letras[inicio];
+            enCamino[inicio] = true;
+            registrar(claves[0], 1, camino, carga);
+            cantidadVecinos[0] = k > 1 ? tablero.vecinos(inicio, vecinos[0]) : 0;
+            siguiente[0] = 0;
+
+            while (nivel >= 0) {
+                if (siguiente[nivel] < cantidadVecinos[nivel]) {
+                    int vecino = vecinos[nivel][siguiente[nivel]++];
+                    if (enCamino[vecino]) continue;
+                    nivel++;
+                    camino[nivel] = vecino;
+                    claves[nivel] = (claves[nivel - 1] << BITS_LETRA) | letras[vecino];
+                    enCamino[vecino] = true;
+                    registrar(claves[nivel], nivel + 1, camino, carga);
+                    cantidadVecinos[nivel] = nivel + 1 < k ? tablero.vecinos(vecino, vecinos[nivel]) : 0;
+                    siguiente[nivel] = 0;
+                } else {
+                    enCamino[camino[nivel]] = false;
+                    nivel--;
+                }
+            }
+        }
+    }
+
+    /**
+     * Agrega al conjunto la cadena del camino actual, con su camino como carga si corresponde.
+     *
+     * @param letrasEmpaquetadas Letras de la cadena empaquetadas.
+     * @param largo Largo de la cadena.
+     * @param camino Celdas del camino.
+     * @param carga Arreglo auxiliar para la carga.
+     */
+    private void registrar(long letrasEmpaquetadas, int largo, int[] camino, int[] carga) {
+        long clave = letrasEmpaquetadas | ((long) largo << DESPLAZAMIENTO_LARGO);
+        if (conCaminos) {
+            for (int i = 0; i < k; i++) {
+                carga[i] = i < largo ? camino[i] : -1;
+            }
+            cadenas.agregar(clave, carga, 0);
+        } else {
+            cadenas.agregar(clave);
+        }
+    }
+
+    /**
+     * Empaqueta una porción de la palabra en una clave.
+     *
+     * @param palabra Palabra de origen.
+     * @param desde Posición de la primera letra.
+     * @param largo Número de letras.
+     * @return Clave de la cadena, o 0 si alguna letra no pertenece al alfabeto del tablero.
+     */
+    private long clave(String palabra, int desde, int largo) {
+        Alfabeto alfabeto = tablero.getAlfabeto();
+        long clave = 0;
+        for (int i = desde; i < desde + largo; i++) {
+            byte codigo = alfabeto.codificar(palabra.charAt(i));
+            if (codigo == Alfabeto.SIN_CODIGO) return 0;
+            clave = (clave << BITS_LETRA) | codigo;
+        }
+        return clave | ((long) largo << DESPLAZAMIENTO_LARGO);
+    }
+
+    /**
+     * Indica si el índice puede responder por sí solo si la palabra está en el tablero.
+     *
+     * @param palabra Palabra a consultar.
+     * @return true si la palabra no supera k letras y todas sus letras pertenecen al alfabeto.
+     */
+    public boolean puedeResponder(String palabra) {
+        return !palabra.isEmpty() && palabra.length() <= k && clave(palabra, 0, palabra.length()) != 0;
+    }
+
+    /**
+     * Indica si una palabra de largo hasta k se puede deletrear en el tablero.
+     * Solo es exacto cuando {@link #puedeResponder(String)} es verdadero.
+     *
+     * @param palabra Palabra a consultar.
+     * @return true si la palabra está en el tablero.
+     */
+    public boolean contiene(String palabra) {
+        return puedeResponder(palabra) && cadenas.contiene(clave(palabra, 0, palabra.length()));
+    }
+
+    /**
+     * Obtiene el primer camino registrado para una palabra de largo hasta k.
+     *
+     * @param palabra Palabra a consultar.
+     * @return Celdas del camino, o null si la palabra no está o el índice no guarda caminos.
+     */
+    public int[] camino(String palabra) {
+        if (!conCaminos || !puedeResponder(palabra)) return null;
+        int[] carga = new int[k];
+        if (!cadenas.obtenerCarga(clave(palabra, 0, palabra.length()), carga)) return null;
+        int[] camino = new int[palabra.length()];
+        System.arraycopy(carga, 0, camino, 0, palabra.length());
+        return camino;
+    }
+
+    /**
+     * Verifica que todas las ventanas de largo k de la palabra se puedan deletrear en el tablero.
+     * Es una condición necesaria: si devuelve false, la palabra no está en el tablero.
+     * Las ventanas con letras fuera del alfabeto se consideran posibles.
+     *
+     * @param palabra Palabra a verificar.
+     * @return false si alguna ventana no está en el tablero.
+     */
+    public boolean ventanasPosibles(String palabra) {
+        int largo = Math.min(k, palabra.length());
+        for (int i = 0; i + largo <= palabra.length(); i++) {
+            long clave = clave(palabra, i, largo);
+            if (clave != 0 && !cadenas.contiene(clave)) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Obtiene el largo máximo de las cadenas indexadas.
+     *
+     * @return Valor de k.
+     */
+    public int getK() {
+        return k;
+    }
+
+    /**
+     * Obtiene el número de cadenas distintas indexadas.
+     *
+     * @return Número de cadenas.
+     */
+    public int getCantidad() {
+        return cadenas.tamano();
+    }
+}
@@ -0,0 +1,129 @@
+package sopadeletras.modelo;
+
+/**
+ * Índice de las celdas del tablero agrupadas por letra.
+ * Las posiciones de todas las letras se guardan en un único arreglo, ordenadas por código de letra
+ * y, dentro de cada letra, por celda; un segundo arreglo de tamaño fijo ({@link Alfabeto#TAMANO} + 1)
+ * indica dónde empieza cada letra.
+ * Permite obtener sin recorrer el tablero las celdas donde aparece una letra y cuántas hay.
+ */
+public class IndiceLetras {
+    /** Posición en {@code posiciones} donde empieza cada código de letra; tiene una entrada extra al final. */
+    private int[] inicio;
+
+    /** Celdas del tablero (fila * columnas + columna) agrupadas por letra. */
+    private int[] posiciones;
+
+    /**
+     * Construye el índice a partir del arreglo plano de códigos de un tablero,
+     * con un ordenamiento por conteo de dos pasadas.
+     *
+     * @param celdas Códigos de las letras del tablero, fila por fila.
+     */
+    public IndiceLetras(byte[] celdas) {
+        this(celdas, contar(celdas));
+    }
+
+    /**
+     * Construye el índice cuando ya se contaron las celdas de cada letra, por ejemplo mientras se
+     * leía el tablero; solo queda la pasada que reparte las celdas por letra.
+     *
+     * @param celdas Códigos de las letras del tablero, fila por fila.
+     * @param conteo Número de celdas de cada código ({@link Alfabeto#TAMANO} entradas).
+     * @throws IllegalArgumentException si el conteo no suma el número de celdas
+     */
+    public IndiceLetras(byte[] celdas, int[] conteo) {
+        this.inicio = new int[Alfabeto.TAMANO + 1];
+        this.posiciones = new int[celdas.length];
+        for (int i = 0; i < Alfabeto.TAMANO; i++) {
+            inicio[i + 1] = inicio[i] + conteo[i];
+        }
+        if (inicio[Alfabeto.TAMANO] != celdas.length) {
+            throw new IllegalArgumentException("El conteo de letras no coincide con el tablero.");
+        }
+        int[] siguiente = new int[Alfabeto.TAMANO];
+        System.arraycopy(inicio, 0, siguiente, 0, Alfabeto.TAMANO);
+        for (int celda = 0; celda < celdas.length; celda++) {
+            posiciones[siguiente[celdas[celda]]++] = celda;
+        }
+    }
+
+    /**
+     * Cuenta las celdas de cada código de letra.
+     *
+     * @param celdas Códigos de las letras del tablero.
+     * @return Número de celdas de cada código.
+     */
+    private static int[] contar(byte[] celdas) {
+        int[] conteo = new int[Alfabeto.TAMANO];
+        for (byte codigo : celdas) {
+            conteo[codigo]++;
+        }
+        return conteo;
+    }
+
+    /**
+     * Construye el índice a partir de sus arreglos ya calculados, por ejemplo al leer un snapshot.
+     * Los arreglos no se copian.
+     *
+     * @param inicio Inicio de cada código en {@code posiciones}, con una entrada extra al final.
+     * @param posiciones Celdas agrupadas por letra.
+     */
+    public IndiceLetras(int[] inicio, int[] posiciones) {
+        if (inicio.length != Alfabeto.TAMANO + 1 || inicio[Alfabeto.TAMANO] != posiciones.length) {
+            throw new IllegalArgumentException("Índice de letras inconsistente.");
+        }
+        this.inicio = inicio;
+        this.posiciones = posiciones;
+    }
+
+    /**
+     * Cuenta cuántas celdas del tablero contienen la letra dada.
+     *
+     * @param codigo Código de la letra a contar.
+     * @return Número de apariciones de la letra (0 para {@link Alfabeto#SIN_CODIGO}).
+     */
+    public int contar(byte codigo) {
+        return codigo < 0 ? 0 : inicio[codigo + 1] - inicio[codigo];
+    }
+
+    /**
+     * Obtiene la posición en {@link #getPosiciones()} donde empiezan las celdas de una letra.
+     *
+     * @param codigo Código de la letra buscada.
+     * @return Posición de inicio (igual a {@link #hasta(byte)} si la letra no aparece).
+     */
+    public int desde(byte codigo) {
+        return codigo < 0 ? 0 : inicio[codigo];
+    }
+
+    /**
+     * Obtiene la posición en {@link #getPosiciones()} donde terminan (sin incluir) las celdas de una letra.
+     *
+     * @param codigo Código de la letra buscada.
+     * @return Posición de fin exclusiva.
+     */
+    public int hasta(byte codigo) {
+        return codigo < 0 ? 0 : inicio[codigo + 1];
+    }
+
+    /**
+     * Obtiene el arreglo de inicio de cada código de letra en las posiciones.
+     * Se devuelve el arreglo interno, por lo que no debe modificarse.
+     *
+     * @return Arreglo de inicios, con {@link Alfabeto#TAMANO} + 1 entradas.
+     */
+    public int[] getInicio() {
+        return inicio;
+    }
+
+    /**
+     * Obtiene las celdas agrupadas por letra.
+     * Se devuelve el arreglo interno, por lo que no debe modificarse.
+     *
+     * @return Arreglo de celdas.
+     */
+    public int[] getPosiciones() {
+        return posiciones;
+    }
+}
@@ -1,44 +1,90 @@
 package sopadeletras.estructuras;
 
+import java.util.ArrayList;
+import java.util.List;
+import sopadeletras.modelo.Alfabeto;
+
 /**
  * Lista enlazada simple para almacenar palabras de forma única.
  * Permite agregar, eliminar, buscar y obtener un arreglo de las palabras almacenadas.
+ * Las palabras se guardan normalizadas con un {@link Alfabeto} (mayúsculas y acentos según su
+ * configuración), y las que solo tienen letras del alfabeto se indexan además en un
+ * {@link TriePalabras}, de modo que verificar si una palabra existe no recorre la lista.
  */
 public class ListaPalabras {
     /** Nodo cabeza de la lista. */
     private NodoPalabra cabeza;
 
+    /** Alfabeto con el que se normalizan las palabras. */
+    private Alfabeto alfabeto;
+
+    /** Índice de las palabras formadas solo por letras del alfabeto. */
+    private TriePalabras trie;
+
+    /** Número de palabras con caracteres fuera del alfabeto, que no están en el trie. */
+    private int fueraDelTrie;
+
     /**
-     * Constructor que inicializa la lista vacía.
+     * Constructor que inicializa la lista vacía con el alfabeto por defecto.
      */
     public ListaPalabras() {
+        this(Alfabeto.porDefecto());
+    }
+
+    /**
+     * Constructor que inicializa la lista vacía con el alfabeto dado.
+     *
+     * @param alfabeto Alfabeto con el que se normalizan las palabras.
+     */
+    public ListaPalabras(Alfabeto alfabeto) {
         this.cabeza = null;
+        this.alfabeto = alfabeto;
+        this.trie = new TriePalabras();
     }
 
     /**
      * Agrega una palabra a la lista si no existe ya.
-     * La palabra se añade al inicio de la lista.
+     * La palabra se normaliza y se añade al inicio de la lista.
      *
      * @param palabra Palabra a agregar.
      */
     public void agregar(String palabra) {
-        if (!contiene(palabra)) {
-            NodoPalabra nuevo = new NodoPalabra(palabra);
+        String normalizada = alfabeto.normalizar(palabra);
+        byte[] codigos = alfabeto.codificar(normalizada);
+        boolean completa = Alfabeto.esCompleto(codigos);
+        boolean nueva = completa ? trie.agregar(codigos) : !buscarEnLista(normalizada);
+        if (nueva) {
+            if (!completa) fueraDelTrie++;
+            NodoPalabra nuevo = new NodoPalabra(normalizada);
             nuevo.siguiente = cabeza;
             cabeza = nuevo;
         }
     }
 
     /**
-     * Verifica si la lista contiene una palabra (sin distinguir mayúsculas/minúsculas).
+     * Verifica si la lista contiene una palabra (sin distinguir mayúsculas/minúsculas,
+     * ni acentos si el alfabeto los pliega).
      *
      * @param palabra Palabra a buscar.
      * @return true si la palabra existe en la lista, false si no.
      */
     public boolean contiene(String palabra) {
+        String normalizada = alfabeto.normalizar(palabra);
+        byte[] codigos = alfabeto.codificar(normalizada);
+        return Alfabeto.esCompleto(codigos) ? trie.contiene(codigos) : buscarEnLista(normalizada);
+    }
+
+    /**
+     * Recorre la lista buscando una palabra ya normalizada. Solo se usa para palabras con
+     * caracteres fuera del alfabeto, que no están en el trie.
+     *
+     * @param normalizada Palabra normalizada.
+     * @return true si la palabra está en la lista.
+     */
+    private boolean buscarEnLista(String normalizada) {
         NodoPalabra actual = cabeza;
         while (actual != null) {
-            if (actual.palabra.equalsIgnoreCase(palabra)) {
+            if (actual.palabra.equals(normalizada)) {
                 return true;
             }
             actual = actual.siguiente;
@@ -53,15 +99,20 @@ public class ListaPalabras {
      * @return true si se eliminó la palabra, false si no se encontró.
      */
     public boolean eliminar(String palabra) {
+        String normalizada = alfabeto.normalizar(palabra);
+        byte[] codigos = alfabeto.codificar(normalizada);
+        boolean completa = Alfabeto.esCompleto(codigos);
+        if (completa && !trie.eliminar(codigos)) return false;
         NodoPalabra actual = cabeza;
         NodoPalabra anterior = null;
         while (actual != null) {
-            if (actual.palabra.equalsIgnoreCase(palabra)) {
+            if (actual.palabra.equals(normalizada)) {
                 if (anterior == null) {
                     cabeza = actual.siguiente;
                 } else {
                     anterior.siguiente = actual.siguiente;
                 }
+                if (!completa) fueraDelTrie--;
                 return true;
             }
             anterior = actual;
@@ -70,6 +121,37 @@ public class ListaPalabras {
         return false;
     }
 
+    /**
+     * Obtiene las palabras que empiezan con un prefijo. El prefijo se normaliza igual que las palabras
+     * y se busca en el trie, así que el costo depende de las palabras encontradas y no del tamaño de
+     * la lista; solo se recorre la lista si hay palabras con caracteres fuera del alfabeto.
+     *
+     * @param prefijo Prefijo a buscar.
+     * @return Palabras con ese prefijo: primero las del trie en el orden de los códigos de sus letras,
+     *         luego las demás.
+     */
+    public List<String> buscarPrefijo(String prefijo) {
+        String normalizado = alfabeto.normalizar(prefijo);
+        byte[] codigos = alfabeto.codificar(normalizado);
+        List<String> resultado = new ArrayList<>();
+        if (Alfabeto.esCompleto(codigos)) {
+            for (byte[] palabra : trie.conPrefijo(codigos)) {
+                resultado.add(alfabeto.decodificar(palabra));
+            }
+        }
+        if (fueraDelTrie > 0) {
+            NodoPalabra actual = cabeza;
+            while (actual != null) {
+                if (actual.palabra.startsWith(normalizado)
+                        && !Alfabeto.esCompleto(alfabeto.codificar(actual.palabra))) {
+                    resultado.add(actual.palabra);
+                }
+                actual = actual.siguiente;
+            }
+        }
+        return resultado;
+    }
+
     /**
      * Imprime todas las palabras almacenadas en la lista en consola.
      */
@@ -98,6 +180,15 @@ public class ListaPalabras {
         return arreglo;
     }
 
+    /**
+     * Obtiene el alfabeto con el que se normalizan las palabras.
+     *
+     * @return Alfabeto de la lista.
+     */
+    public Alfabeto getAlfabeto() {
+        return alfabeto;
+    }
+
     /**
      * Cuenta la cantidad de palabras almacenadas en la lista.
      *
@@ -0,0 +1,138 @@
+package sopadeletras.logica;
+
+/**
+ * Cuenta el consumo de una búsqueda frente a su {@link PresupuestoBusqueda}.
+ * El reloj se consulta solo cada cierto número de estados para que la medición
+ * no encarezca la búsqueda. Una vez agotado, el medidor permanece agotado.
+ */
+public class MedidorPresupuesto {
+    /** Cada cuántos estados expandidos se consulta el reloj (potencia de 2 menos 1). */
+    private static final int MASCARA_RELOJ = 1023;
+
+    /** Presupuesto que se está midiendo. */
+    private PresupuestoBusqueda presupuesto;
+
+    /** Instante (System.nanoTime) en que vence el plazo, o Long.MAX_VALUE si no hay plazo. */
+    private long vencimiento;
+
+    /** Número de estados expandidos hasta ahora. */
+    private long estados;
+
+    /** Memoria estimada en uso, en bytes. */
+    private long memoria;
+
+    /** Indica si se agotó alguno de los límites. */
+    private boolean agotado;
+
+    /**
+     * Construye un medidor para el presupuesto dado; el plazo empieza a correr ahora.
+     *
+     * @param presupuesto Presupuesto a medir.
+     */
+    MedidorPresupuesto(PresupuestoBusqueda presupuesto) {
+        this.presupuesto = presupuesto;
+        reiniciar();
+    }
+
+    /**
+     * Reinicia la cuenta para una nueva búsqueda con otro presupuesto, reutilizando el medidor.
+     *
+     * @param presupuesto Presupuesto a medir.
+     */
+    void reiniciar(PresupuestoBusqueda presupuesto) {
+        this.presupuesto = presupuesto;
+        reiniciar();
+    }
+
+    /**
+     * Reinicia la cuenta para una nueva búsqueda con el mismo presupuesto.
+     */
+    public void reiniciar() {
+        this.vencimiento = calcularVencimiento(presupuesto.getMaxMilisegundos());
+        this.estados = 0;
+        this.memoria = 0;
+        this.agotado = false;
+    }
+
+    /**
+     * Calcula el instante en que vence un plazo que empieza ahora.
+     *
+     * @param ms Plazo en milisegundos.
+     * @return Instante (System.nanoTime) del vencimiento, o Long.MAX_VALUE si el plazo no vence en la práctica.
+     */
+    static long calcularVencimiento(long ms) {
+        // Un plazo así no vence en la práctica, y pasado a nanosegundos desbordaría
+        if (ms >= Long.MAX_VALUE / 1_000_000L) return Long.MAX_VALUE;
+        long ahora = System.nanoTime();
+        long plazo = ms * 1_000_000L;
+        // System.nanoTime puede ser negativo o cercano al máximo; la suma se satura en vez de desbordar
+        return ahora > Long.MAX_VALUE - plazo ? Long.MAX_VALUE : ahora + plazo;
+    }
+
+    /**
+     * Registra la expansión de un estado.
+     *
+     * @return true si la búsqueda puede continuar, false si se agotó el presupuesto.
+     */
+    public boolean expandir() {
+        if (agotado) return false;
+        estados++;
+        if (estados > presupuesto.getMaxEstados()) {
+            agotado = true;
+        } else if ((estados & MASCARA_RELOJ) == 0 && vencimiento != Long.MAX_VALUE
+                && System.nanoTime() - vencimiento > 0) {
+            agotado = true;
+        }
+        return !agotado;
+    }
+
+    /**
+     * Registra memoria reservada por la búsqueda.
+     *
+     * @param bytes Bytes estimados que se reservan.
+     * @return true si la búsqueda puede continuar, false si se agotó el presupuesto.
+     */
+    public boolean reservar(long bytes) {
+        memoria += bytes;
+        if (memoria > presupuesto.getMaxMemoria()) {
+            agotado = true;
+        }
+        return !agotado;
+    }
+
+    /**
+     * Registra memoria liberada por la búsqueda.
+     *
+     * @param bytes Bytes estimados que se liberan.
+     */
+    public void liberar(long bytes) {
+        memoria -= bytes;
+    }
+
+    /**
+     * Indica si se agotó alguno de los límites del presupuesto.
+     *
+     * @return true si la búsqueda debe detenerse.
+     */
+    public boolean estaAgotado() {
+        return agotado;
+    }
+
+    /**
+     * Obtiene el número de estados expandidos hasta ahora.
+     *
+     * @return Estados expandidos.
+     */
+    public long getEstados() {
+        return estados;
+    }
+
+    /**
+     * Obtiene la memoria estimada en uso, en bytes.
+     *
+     * @return Memoria estimada.
+     */
+    public long getMemoria() {
+        return memoria;
+    }
+}
@@ -0,0 +1,49 @@
+package sopadeletras.vista;
+
+import javax.swing.AbstractListModel;
+import java.util.List;
+
+/**
+ * Modelo de lista sobre un arreglo de palabras para mostrar diccionarios grandes en un {@link javax.swing.JList}.
+ * La lista solo pide al modelo las filas visibles, y reemplazar el contenido avisa un único cambio,
+ * en lugar de reconstruir un documento de texto palabra por palabra.
+ */
+public class ModeloListaPalabras extends AbstractListModel<String> {
+    /** Palabras que se muestran. */
+    private String[] palabras = new String[0];
+
+    /**
+     * Reemplaza las palabras que se muestran.
+     *
+     * @param palabras Nuevas palabras; el arreglo pasa a pertenecer al modelo.
+     */
+    public void setPalabras(String[] palabras) {
+        int anteriores = this.palabras.length;
+        this.palabras = palabras;
+        if (anteriores > 0) {
+            fireIntervalRemoved(this, 0, anteriores - 1);
+        }
+        if (palabras.length > 0) {
+            fireIntervalAdded(this, 0, palabras.length - 1);
+        }
+    }
+
+    /**
+     * Reemplaza las palabras que se muestran.
+     *
+     * @param palabras Nuevas palabras.
+     */
+    public void setPalabras(List<String> palabras) {
+        setPalabras(palabras.toArray(new String[0]));
+    }
+
+    @Override
+    public int getSize() {
+        return palabras.length;
+    }
+
+    @Override
+    public String getElementAt(int indice) {
+        return palabras[indice];
+    }
+}
@@ -0,0 +1,92 @@
+package sopadeletras.vista;
+
+import javax.swing.table.AbstractTableModel;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Modelo de tabla para los resultados de las búsquedas. Las filas se agregan por lotes, de modo que
+ * una búsqueda sobre un diccionario grande avisa a la tabla una vez por lote y no una vez por palabra;
+ * la {@link javax.swing.JTable} solo dibuja las filas visibles.
+ */
+public class ModeloResultados extends AbstractTableModel {
+    /** Títulos de las columnas. */
+    private static final String[] COLUMNAS = {"Palabra", "Resultado", "Detalle"};
+
+    /** Filas de la tabla. */
+    private final List<Fila> filas = new ArrayList<>();
+
+    /**
+     * Fila de la tabla de resultados.
+     */
+    public static class Fila {
+        /** Palabra buscada o encontrada. */
+        private final String palabra;
+
+        /** Resultado de la búsqueda. */
+        private final String resultado;
+
+        /** Información adicional (por ejemplo, las celdas del camino). */
+        private final String detalle;
+
+        /**
+         * Construye una fila.
+         *
+         * @param palabra Palabra buscada o encontrada.
+         * @param resultado Resultado de la búsqueda.
+         * @param detalle Información adicional, o cadena vacía.
+         */
+        public Fila(String palabra, String resultado, String detalle) {
+            this.palabra = palabra;
+            this.resultado = resultado;
+            this.detalle = detalle;
+        }
+    }
+
+    /**
+     * Agrega un lote de filas al final de la tabla.
+     *
+     * @param lote Filas a agregar.
+     */
+    public void agregar(List<Fila> lote) {
+        if (lote.isEmpty()) return;
+        int primera = filas.size();
+        filas.addAll(lote);
+        fireTableRowsInserted(primera, filas.size() - 1);
+    }
+
+    /**
+     * Quita todas las filas.
+     */
+    public void limpiar() {
+        int cantidad = filas.size();
+        if (cantidad == 0) return;
+        filas.clear();
+        fireTableRowsDeleted(0, cantidad - 1);
+    }
+
+    @Override
+    public int getRowCount() {
+        return filas.size();
+    }
+
+    @Override
+    public int getColumnCount() {
+        return COLUMNAS.length;
+    }
+
+    @Override
+    public String getColumnName(int columna) {
+        return COLUMNAS[columna];
+    }
+
+    @Override
+    public Object getValueAt(int fila, int columna) {
+        Fila f = filas.get(fila);
+        switch (columna) {
+            case 0: return f.palabra;
+            case 1: return f.resultado;
+            default: return f.detalle;
+        }
+    }
+}
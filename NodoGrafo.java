@@ -107,12 +107,13 @@ public class NodoGrafo {
     }
 
     /**
-     * Genera el código hash basado en la posición del nodo.
+     * Genera el código hash basado en la posición del nodo. La columna ocupa los 16 bits bajos,
+     * así que dos nodos distintos no coinciden mientras el tablero tenga menos de 65536 columnas.
      *
      * @return Código hash del nodo.
      */
     @Override
     public int hashCode() {
-        return fila * 10 + columna;
+        return (fila << 16) ^ columna;
     }
 }
@@ -0,0 +1,22 @@
+package sopadeletras.archivo;
+
+/**
+ * Recibe el avance y los errores de una carga a medida que {@link CargadorSopa} lee el archivo.
+ * Los métodos se invocan desde los hilos de la carga, no desde el hilo de la interfaz.
+ */
+public interface OyenteCarga {
+    /**
+     * Se invoca cada vez que se lee un bloque del archivo.
+     *
+     * @param leidos Bytes leídos hasta ahora.
+     * @param total Tamaño del archivo en bytes.
+     */
+    void progreso(long leidos, long total);
+
+    /**
+     * Se invoca cuando se detecta un problema en una línea.
+     *
+     * @param error Error detectado.
+     */
+    void errorLinea(ErrorLinea error);
+}
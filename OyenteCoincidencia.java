@@ -0,0 +1,15 @@
+package sopadeletras.logica;
+
+/**
+ * Recibe las coincidencias a medida que una búsqueda las encuentra,
+ * sin esperar a que termine el recorrido completo del tablero.
+ */
+public interface OyenteCoincidencia {
+    /**
+     * Se invoca cada vez que la búsqueda encuentra una coincidencia.
+     *
+     * @param coincidencia Coincidencia encontrada.
+     * @return true para seguir buscando, false para detener la búsqueda.
+     */
+    boolean coincidencia(Coincidencia coincidencia);
+}
@@ -3,28 +3,194 @@ package sopadeletras.visualizacion;
 import javax.swing.*;
 import java.awt.*;
 import java.util.*;
+import sopadeletras.logica.RegistroTraza;
 import sopadeletras.modelo.NodoGrafo;
+import sopadeletras.modelo.Tablero;
 import java.util.List;
 
 /**
  * Panel para visualizar el recorrido BFS realizado sobre el tablero de la sopa de letras.
  * Dibuja los nodos visitados y las conexiones entre ellos según el resultado de la búsqueda.
+ * <p>
+ * En modo reproducción muestra una {@link RegistroTraza} hasta un paso dado: cada celda tocada por la
+ * traza se pinta según su último evento (en el camino o en la cola, visitada, podada o parte de la
+ * coincidencia), unida a la celda de la que provino.
  */
 public class PanelBFST extends JPanel {
+    /** Estado de reproducción de una celda que aún no aparece en la traza. */
+    private static final byte NINGUNO = 0;
+
+    /** Estado de una celda que está en el camino (DFS) o en la cola (BFS). */
+    private static final byte EN_CAMINO = 1;
+
+    /** Estado de una celda que salió del camino o ya se expandió. */
+    private static final byte VISITADA = 2;
+
+    /** Estado de una celda descartada por la poda. */
+    private static final byte PODADA = 3;
+
+    /** Estado de una celda del camino de una coincidencia. */
+    private static final byte COINCIDENCIA = 4;
+
+    /** Color de relleno de cada estado de reproducción. */
+    private static final Color[] COLORES = {
+        null, Color.CYAN, new Color(200, 200, 220), new Color(255, 170, 170), Color.GREEN
+    };
+
+    /** Nombre de cada tipo de evento, para el rótulo de la reproducción. */
+    private static final String[] NOMBRES_EVENTO = {"empilar", "desapilar", "podar", "coincidir"};
+
     /** Resultado de la búsqueda BFS que se va a visualizar. */
     private ResultadoBFS resultado;
 
+    /** Traza que se reproduce, o null si el panel muestra un resultado. */
+    private RegistroTraza traza;
+
+    /** Tablero de la búsqueda registrada en la traza. */
+    private Tablero tableroTraza;
+
+    /** Celdas distintas que aparecen en la traza, ordenadas. */
+    private int[] celdasTraza;
+
+    /** Posición en {@link #celdasTraza} de la celda de cada evento. */
+    private int[] indiceEvento;
+
+    /** Estado de cada celda distinta en el paso actual. */
+    private byte[] estadoCelda;
+
+    /** Dirección hacia la celda padre de cada celda distinta, según el último evento que la empiló. */
+    private byte[] direccionCelda;
+
+    /** Número de eventos aplicados. */
+    private int paso;
+
+    /** Límites (fila y columna mínimas y máximas) de las celdas de la traza. */
+    private int filaMinima, filaMaxima, columnaMinima, columnaMaxima;
+
     /**
-     * Establece el resultado de la búsqueda para visualizarlo.
+     * Establece el resultado de la búsqueda para visualizarlo y sale del modo reproducción.
      * Llama a repaint() para refrescar el panel.
      *
      * @param resultado ResultadoBFS que contiene el recorrido y estructura para mostrar.
      */
     public void setResultado(ResultadoBFS resultado) {
         this.resultado = resultado;
+        this.traza = null;
+        repaint();
+    }
+
+    /**
+     * Entra en modo reproducción con una traza, mostrando el paso 0 (ningún evento aplicado).
+     * Las celdas de la traza se numeran una vez aquí, de modo que avanzar la reproducción solo
+     * actualiza arreglos del tamaño del número de celdas distintas.
+     *
+     * @param traza Traza a reproducir, o null para salir del modo reproducción.
+     * @param tablero Tablero sobre el que se registró la traza.
+     */
+    public void setTraza(RegistroTraza traza, Tablero tablero) {
+        this.traza = traza;
+        this.tableroTraza = tablero;
+        this.resultado = null;
+        if (traza != null) {
+            int cantidad = traza.getCantidad();
+            int[] celdas = new int[cantidad];
+            for (int i = 0; i < cantidad; i++) {
+                celdas[i] = RegistroTraza.celda(traza.getEvento(i));
+            }
+            celdasTraza = Arrays.stream(celdas).sorted().distinct().toArray();
+            indiceEvento = new int[cantidad];
+            for (int i = 0; i < cantidad; i++) {
+                indiceEvento[i] = Arrays.binarySearch(celdasTraza, celdas[i]);
+            }
+            estadoCelda = new byte[celdasTraza.length];
+            direccionCelda = new byte[celdasTraza.length];
+
+            int columnas = traza.getColumnas();
+            filaMinima = columnaMinima = Integer.MAX_VALUE;
+            filaMaxima = columnaMaxima = 0;
+            for (int celda : celdasTraza) {
+                filaMinima = Math.min(filaMinima, celda / columnas);
+                filaMaxima = Math.max(filaMaxima, celda / columnas);
+                columnaMinima = Math.min(columnaMinima, celda % columnas);
+                columnaMaxima = Math.max(columnaMaxima, celda % columnas);
+            }
+            paso = 0;
+        }
+        repaint();
+    }
+
+    /**
+     * Obtiene el número de pasos (eventos) de la traza en reproducción.
+     *
+     * @return Número de eventos, o 0 si no hay traza.
+     */
+    public int getPasos() {
+        return traza == null ? 0 : traza.getCantidad();
+    }
+
+    /**
+     * Obtiene el paso actual de la reproducción.
+     *
+     * @return Número de eventos aplicados.
+     */
+    public int getPaso() {
+        return paso;
+    }
+
+    /**
+     * Muestra la traza tras aplicar un número de eventos. Avanzar aplica solo los eventos nuevos;
+     * retroceder vuelve a aplicar la traza desde el principio.
+     *
+     * @param nuevo Número de eventos a aplicar (se ajusta al rango de la traza).
+     */
+    public void setPaso(int nuevo) {
+        if (traza == null) return;
+        nuevo = Math.max(0, Math.min(nuevo, traza.getCantidad()));
+        if (nuevo == paso) return;
+        if (nuevo < paso) {
+            Arrays.fill(estadoCelda, NINGUNO);
+            Arrays.fill(direccionCelda, (byte) 0);
+            paso = 0;
+        }
+        for (; paso < nuevo; paso++) {
+            aplicar(paso);
+        }
         repaint();
     }
 
+    /**
+     * Aplica un evento de la traza al estado de las celdas.
+     *
+     * @param i Posición del evento.
+     */
+    private void aplicar(int i) {
+        long evento = traza.getEvento(i);
+        int indice = indiceEvento[i];
+        switch (RegistroTraza.tipo(evento)) {
+            case RegistroTraza.EMPILAR:
+                estadoCelda[indice] = EN_CAMINO;
+                direccionCelda[indice] = (byte) RegistroTraza.direccion(evento);
+                break;
+            case RegistroTraza.DESAPILAR:
+                if (estadoCelda[indice] != COINCIDENCIA) estadoCelda[indice] = VISITADA;
+                break;
+            case RegistroTraza.PODAR:
+                if (estadoCelda[indice] == NINGUNO || estadoCelda[indice] == VISITADA) estadoCelda[indice] = PODADA;
+                break;
+            default:
+                // Se marca el camino siguiendo las direcciones hacia los padres. En DFS es el camino
+                // exacto; en BFS una celda puede haberse empilado después desde otra rama.
+                int celda = RegistroTraza.celda(evento);
+                direccionCelda[indice] = (byte) RegistroTraza.direccion(evento);
+                for (int nivel = RegistroTraza.nivel(evento); nivel >= 0 && indice >= 0; nivel--) {
+                    estadoCelda[indice] = COINCIDENCIA;
+                    celda = RegistroTraza.vecina(celda, direccionCelda[indice], traza.getColumnas());
+                    indice = celda < 0 ? -1 : Arrays.binarySearch(celdasTraza, celda);
+                }
+                break;
+        }
+    }
+
     /**
      * Dibuja el recorrido BFS en el panel.
      * Los nodos se posicionan según su fila y columna escaladas al tamaño del panel.
@@ -37,6 +203,11 @@ public class PanelBFST extends JPanel {
     protected void paintComponent(Graphics g) {
         super.paintComponent(g);
 
+        if (traza != null) {
+            pintarTraza((Graphics2D) g);
+            return;
+        }
+
         if (resultado == null || !resultado.fueEncontrado()) {
             // No hay nada que dibujar
             return;
@@ -100,4 +271,81 @@ public class PanelBFST extends JPanel {
             g2.drawString(letra, p.x - anchoLetra / 2, p.y + altoLetra / 4);
         }
     }
+
+    /**
+     * Dibuja la traza en el paso actual, escalando a todo el panel el rectángulo de celdas que toca.
+     *
+     * @param g2 Objeto Graphics2D para dibujar.
+     */
+    private void pintarTraza(Graphics2D g2) {
+        int columnas = traza.getColumnas();
+        int margen = 20;
+        double escalaX = (double) (getWidth() - 2 * margen) / (columnaMaxima - columnaMinima + 1);
+        double escalaY = (double) (getHeight() - 2 * margen - 20) / (filaMaxima - filaMinima + 1);
+        int diametro = (int) Math.max(4, Math.min(40, Math.min(escalaX, escalaY) - 2));
+        g2.setFont(new Font("Arial", Font.BOLD, Math.max(8, diametro * 2 / 5)));
+        FontMetrics fm = g2.getFontMetrics();
+
+        // Conexiones con la celda padre de las celdas empiladas
+        g2.setStroke(new BasicStroke(2));
+        g2.setColor(Color.BLUE);
+        for (int i = 0; i < celdasTraza.length; i++) {
+            if (estadoCelda[i] == NINGUNO || estadoCelda[i] == PODADA) continue;
+            int padre = RegistroTraza.vecina(celdasTraza[i], direccionCelda[i], columnas);
+            if (padre < 0) continue;
+            g2.drawLine(x(celdasTraza[i], columnas, escalaX, margen), y(celdasTraza[i], columnas, escalaY, margen),
+                x(padre, columnas, escalaX, margen), y(padre, columnas, escalaY, margen));
+        }
+
+        for (int i = 0; i < celdasTraza.length; i++) {
+            if (estadoCelda[i] == NINGUNO) continue;
+            int celda = celdasTraza[i];
+            int px = x(celda, columnas, escalaX, margen);
+            int py = y(celda, columnas, escalaY, margen);
+            g2.setColor(COLORES[estadoCelda[i]]);
+            g2.fillOval(px - diametro / 2, py - diametro / 2, diametro, diametro);
+            g2.setColor(Color.BLACK);
+            g2.drawOval(px - diametro / 2, py - diametro / 2, diametro, diametro);
+            if (diametro >= 14) {
+                String letra = String.valueOf(tableroTraza.getLetra(celda / columnas, celda % columnas));
+                g2.drawString(letra, px - fm.stringWidth(letra) / 2, py + fm.getAscent() / 4);
+            }
+        }
+
+        String rotulo = "Paso " + paso + " de " + traza.getCantidad();
+        if (paso > 0) {
+            long evento = traza.getEvento(paso - 1);
+            int celda = RegistroTraza.celda(evento);
+            rotulo += ": " + NOMBRES_EVENTO[RegistroTraza.tipo(evento)] + " (" + celda / columnas + ", "
+                + celda % columnas + ") nivel " + RegistroTraza.nivel(evento);
+        }
+        g2.setFont(new Font("Arial", Font.PLAIN, 12));
+        g2.drawString(rotulo, margen, getHeight() - 6);
+    }
+
+    /**
+     * Calcula la coordenada horizontal de una celda en modo reproducción.
+     *
+     * @param celda Celda (fila * columnas + columna).
+     * @param columnas Número de columnas del tablero.
+     * @param escala Píxeles por columna.
+     * @param margen Margen del panel.
+     * @return Coordenada x del centro de la celda.
+     */
+    private int x(int celda, int columnas, double escala, int margen) {
+        return (int) ((celda % columnas - columnaMinima + 0.5) * escala) + margen;
+    }
+
+    /**
+     * Calcula la coordenada vertical de una celda en modo reproducción.
+     *
+     * @param celda Celda (fila * columnas + columna).
+     * @param columnas Número de columnas del tablero.
+     * @param escala Píxeles por fila.
+     * @param margen Margen del panel.
+     * @return Coordenada y del centro de la celda.
+     */
+    private int y(int celda, int columnas, double escala, int margen) {
+        return (int) ((celda / columnas - filaMinima + 0.5) * escala) + margen;
+    }
 }
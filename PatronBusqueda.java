@@ -0,0 +1,316 @@
+package sopadeletras.logica;
+
+import java.util.Arrays;
+import sopadeletras.modelo.Alfabeto;
+
+/**
+ * Patrón de búsqueda con comodines compilado a un autómata finito pequeño.
+ * <p>
+ * Sintaxis admitida:
+ * <ul>
+ *   <li>Una letra coincide consigo misma (sin distinguir mayúsculas/minúsculas).</li>
+ *   <li>{@code ?} coincide con exactamente una letra cualquiera.</li>
+ *   <li>{@code *} coincide con entre 0 y {@code maxComodin} letras cualesquiera.</li>
+ *   <li>{@code [ABC]}, {@code [A-E]} coinciden con una letra de la clase; {@code [^AB]} con una que no esté.</li>
+ * </ul>
+ * Cada letra, comodín o clase ocupa una posición del autómata ({@code *} ocupa {@code maxComodin}
+ * posiciones opcionales). El estado del autómata es una máscara de bits con las posiciones activas,
+ * por lo que avanzar una letra cuesta unas pocas operaciones sobre un {@code long}.
+ */
+public class PatronBusqueda {
+    /** Número máximo de letras que cubre un {@code *} si no se indica otro valor. */
+    public static final int MAX_COMODIN_DEFECTO = 5;
+
+    /** Número máximo de posiciones del autómata (el bit siguiente marca la aceptación). */
+    private static final int MAX_POSICIONES = 63;
+
+    /** Texto original del patrón. */
+    private String texto;
+
+    /** Letras de la clase de cada posición, ordenadas. */
+    private char[][] letras;
+
+    /** Indica para cada posición si la clase está negada (vacía y negada equivale a cualquier letra). */
+    private boolean[] negada;
+
+    /** Máscara de las posiciones opcionales, que pueden saltarse sin consumir letra. */
+    private long opcionales;
+
+    /** Número de posiciones del autómata. */
+    private int posiciones;
+
+    /**
+     * Construye un patrón ya compilado.
+     *
+     * @param texto Texto original del patrón.
+     * @param letras Letras de la clase de cada posición.
+     * @param negada Negación de la clase de cada posición.
+     * @param opcionales Máscara de posiciones opcionales.
+     */
+    private PatronBusqueda(String texto, char[][] letras, boolean[] negada, long opcionales) {
+        this.texto = texto;
+        this.letras = letras;
+        this.negada = negada;
+        this.opcionales = opcionales;
+        this.posiciones = letras.length;
+    }
+
+    /**
+     * Compila un patrón usando {@link #MAX_COMODIN_DEFECTO} como límite de {@code *}.
+     *
+     * @param patron Texto del patrón.
+     * @return Patrón compilado.
+     * @throws IllegalArgumentException si el patrón no es válido.
+     */
+    public static PatronBusqueda compilar(String patron) {
+        return compilar(patron, MAX_COMODIN_DEFECTO);
+    }
+
+    /**
+     * Compila un patrón con el límite de letras indicado para cada {@code *}.
+     *
+     * @param patron Texto del patrón.
+     * @param maxComodin Número máximo de letras que cubre cada {@code *}.
+     * @return Patrón compilado.
+     * @throws IllegalArgumentException si el patrón no es válido o genera demasiadas posiciones.
+     */
+    public static PatronBusqueda compilar(String patron, int maxComodin) {
+        return compilar(patron, maxComodin, Alfabeto.porDefecto());
+    }
+
+    /**
+     * Compila un patrón con el límite de letras indicado para cada {@code *}, normalizando sus
+     * letras con el alfabeto dado (mayúsculas y acentos), que debe ser el del tablero.
+     *
+     * @param patron Texto del patrón.
+     * @param maxComodin Número máximo de letras que cubre cada {@code *}.
+     * @param alfabeto Alfabeto con el que se normalizan las letras del patrón.
+     * @return Patrón compilado.
+     * @throws IllegalArgumentException si el patrón no es válido o genera demasiadas posiciones.
+     */
+    public static PatronBusqueda compilar(String patron, int maxComodin, Alfabeto alfabeto) {
+        if (maxComodin < 0) {
+            throw new IllegalArgumentException("El límite de '*' no puede ser negativo.");
+        }
+        String p = alfabeto.normalizar(patron.trim());
+        char[][] letras = new char[MAX_POSICIONES][];
+        boolean[] negada = new boolean[MAX_POSICIONES];
+        long opcionales = 0;
+        int n = 0;
+
+        int i = 0;
+        while (i < p.length()) {
+            char c = p.charAt(i);
+            if (c == '*') {
+                for (int k = 0; k < maxComodin; k++) {
+                    verificarEspacio(n, patron);
+                    letras[n] = new char[0];
+                    negada[n] = true;
+                    opcionales |= 1L << n;
+                    n++;
+                }
+                i++;
+            } else if (c == '?') {
+                verificarEspacio(n, patron);
+                letras[n] = new char[0];
+                negada[n] = true;
+                n++;
+                i++;
+            } else if (c == '[') {
+                int cierre = p.indexOf(']', i + 1);
+                if (cierre < 0) {
+                    throw new IllegalArgumentException("Clase sin cerrar en el patrón: " + patron);
+                }
+                verificarEspacio(n, patron);
+                int desde = i + 1;
+                if (desde < cierre && p.charAt(desde) == '^') {
+                    negada[n] = true;
+                    desde++;
+                }
+                letras[n] = clase(p.substring(desde, cierre), patron);
+                if (letras[n].length == 0) {
+                    throw new IllegalArgumentException("Clase vacía en el patrón: " + patron);
+                }
+                n++;
+                i = cierre + 1;
+            } else if (c == ']') {
+                throw new IllegalArgumentException("']' sin '[' en el patrón: " + patron);
+            } else {
+                verificarEspacio(n, patron);
+                letras[n] = new char[]{c};
+                n++;
+                i++;
+            }
+        }
+        if (n == 0) {
+            throw new IllegalArgumentException("El patrón está vacío.");
+        }
+        return new PatronBusqueda(patron, Arrays.copyOf(letras, n), Arrays.copyOf(negada, n), opcionales);
+    }
+
+    /**
+     * Indica si un texto contiene caracteres especiales de patrón ({@code ?}, {@code *} o {@code [}).
+     *
+     * @param texto Texto a revisar.
+     * @return true si el texto debe tratarse como patrón.
+     */
+    public static boolean esPatron(String texto) {
+        return texto.indexOf('?') >= 0 || texto.indexOf('*') >= 0 || texto.indexOf('[') >= 0;
+    }
+
+    /**
+     * Verifica que quede espacio para una posición más en el autómata.
+     *
+     * @param n Número de posiciones ya usadas.
+     * @param patron Patrón original, para el mensaje de error.
+     */
+    private static void verificarEspacio(int n, String patron) {
+        if (n >= MAX_POSICIONES) {
+            throw new IllegalArgumentException("El patrón es demasiado largo: " + patron);
+        }
+    }
+
+    /**
+     * Expande el contenido de una clase (letras y rangos como A-E) a sus letras, ordenadas y sin repetir.
+     *
+     * @param contenido Texto entre los corchetes.
+     * @param patron Patrón original, para el mensaje de error.
+     * @return Letras de la clase.
+     */
+    private static char[] clase(String contenido, String patron) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < contenido.length(); i++) {
+            char c = contenido.charAt(i);
+            if (i + 2 < contenido.length() && contenido.charAt(i + 1) == '-') {
+                char fin = contenido.charAt(i + 2);
+                if (fin < c) {
+                    throw new IllegalArgumentException("Rango inválido " + c + "-" + fin + " en el patrón: " + patron);
+                }
+                for (char r = c; r <= fin; r++) {
+                    sb.append(r);
+                }
+                i += 2;
+            } else {
+                sb.append(c);
+            }
+        }
+        char[] resultado = sb.toString().toCharArray();
+        Arrays.sort(resultado);
+        int distintas = 0;
+        for (int i = 0; i < resultado.length; i++) {
+            if (i == 0 || resultado[i] != resultado[i - 1]) {
+                resultado[distintas++] = resultado[i];
+            }
+        }
+        return Arrays.copyOf(resultado, distintas);
+    }
+
+    /**
+     * Calcula la máscara de posiciones cuya clase acepta la letra dada.
+     *
+     * @param letra Letra a evaluar.
+     * @return Máscara de bits con las posiciones que aceptan la letra.
+     */
+    public long aceptaciones(char letra) {
+        long mascara = 0;
+        for (int p = 0; p < posiciones; p++) {
+            boolean enClase = Arrays.binarySearch(letras[p], letra) >= 0;
+            if (enClase != negada[p]) {
+                mascara |= 1L << p;
+            }
+        }
+        return mascara;
+    }
+
+    /**
+     * Obtiene el estado inicial del autómata, antes de consumir letras.
+     *
+     * @return Máscara de posiciones activas al inicio.
+     */
+    public long estadoInicial() {
+        return clausura(1L);
+    }
+
+    /**
+     * Avanza el autómata consumiendo una letra.
+     *
+     * @param estado Estado actual.
+     * @param aceptaciones Máscara de posiciones que aceptan la letra (ver {@link #aceptaciones(char)}).
+     * @return Nuevo estado, o 0 si ninguna posición activa acepta la letra (estado muerto).
+     */
+    public long avanzar(long estado, long aceptaciones) {
+        return clausura((estado & aceptaciones) << 1);
+    }
+
+    /**
+     * Indica si el estado dado acepta el texto consumido hasta ahora.
+     *
+     * @param estado Estado del autómata.
+     * @return true si el texto consumido coincide con el patrón completo.
+     */
+    public boolean esAceptado(long estado) {
+        return (estado & (1L << posiciones)) != 0;
+    }
+
+    /**
+     * Indica si desde el estado dado todavía pueden consumirse más letras.
+     *
+     * @param estado Estado del autómata.
+     * @return true si queda alguna posición activa antes de la aceptación.
+     */
+    public boolean puedeContinuar(long estado) {
+        return (estado & ((1L << posiciones) - 1)) != 0;
+    }
+
+    /**
+     * Activa las posiciones alcanzables saltando posiciones opcionales.
+     *
+     * @param estado Estado a completar.
+     * @return Estado con las posiciones opcionales saltadas.
+     */
+    private long clausura(long estado) {
+        long x = estado;
+        while (true) {
+            long y = x | ((x & opcionales) << 1);
+            if (y == x) return x;
+            x = y;
+        }
+    }
+
+    /**
+     * Obtiene la máscara de las posiciones opcionales del autómata.
+     *
+     * @return Máscara de posiciones opcionales.
+     */
+    public long getOpcionales() {
+        return opcionales;
+    }
+
+    /**
+     * Obtiene el número de posiciones del autómata, que es la longitud máxima de una coincidencia.
+     *
+     * @return Longitud máxima de una coincidencia.
+     */
+    public int getLongitudMaxima() {
+        return posiciones;
+    }
+
+    /**
+     * Obtiene la longitud mínima de una coincidencia (número de posiciones obligatorias).
+     *
+     * @return Longitud mínima de una coincidencia.
+     */
+    public int getLongitudMinima() {
+        return posiciones - Long.bitCount(opcionales);
+    }
+
+    /**
+     * Representación en cadena del patrón: su texto original.
+     *
+     * @return Texto del patrón.
+     */
+    @Override
+    public String toString() {
+        return texto;
+    }
+}
@@ -0,0 +1,77 @@
+package sopadeletras.logica;
+
+/**
+ * Límites de una búsqueda: número de estados expandidos, memoria estimada y tiempo máximo.
+ * Un tablero adverso (por ejemplo, lleno de una sola letra) puede hacer que DFS o BFS
+ * exploren un número exponencial de caminos; con un presupuesto la búsqueda se detiene
+ * y devuelve {@link EstadoBusqueda#ABORTADA} en lugar de bloquear el hilo indefinidamente.
+ * El presupuesto es inmutable y puede compartirse; cada búsqueda lleva su propia cuenta
+ * en un {@link MedidorPresupuesto}.
+ */
+public class PresupuestoBusqueda {
+    /** Presupuesto sin límites. */
+    public static final PresupuestoBusqueda ILIMITADO =
+        new PresupuestoBusqueda(Long.MAX_VALUE, Long.MAX_VALUE, Long.MAX_VALUE);
+
+    /** Número máximo de estados expandidos. */
+    private long maxEstados;
+
+    /** Memoria máxima estimada, en bytes, de las estructuras de la búsqueda. */
+    private long maxMemoria;
+
+    /** Tiempo máximo de la búsqueda, en milisegundos. */
+    private long maxMilisegundos;
+
+    /**
+     * Construye un presupuesto. Use {@code Long.MAX_VALUE} para dejar un límite abierto.
+     *
+     * @param maxEstados Número máximo de estados expandidos.
+     * @param maxMemoria Memoria máxima estimada, en bytes.
+     * @param maxMilisegundos Tiempo máximo, en milisegundos.
+     */
+    public PresupuestoBusqueda(long maxEstados, long maxMemoria, long maxMilisegundos) {
+        if (maxEstados <= 0 || maxMemoria <= 0 || maxMilisegundos <= 0) {
+            throw new IllegalArgumentException("Los límites del presupuesto deben ser positivos.");
+        }
+        this.maxEstados = maxEstados;
+        this.maxMemoria = maxMemoria;
+        this.maxMilisegundos = maxMilisegundos;
+    }
+
+    /**
+     * Inicia la cuenta de una búsqueda con este presupuesto.
+     * El plazo de tiempo empieza a correr en este momento.
+     *
+     * @return Medidor para la búsqueda.
+     */
+    public MedidorPresupuesto iniciar() {
+        return new MedidorPresupuesto(this);
+    }
+
+    /**
+     * Obtiene el número máximo de estados expandidos.
+     *
+     * @return Máximo de estados.
+     */
+    public long getMaxEstados() {
+        return maxEstados;
+    }
+
+    /**
+     * Obtiene la memoria máxima estimada, en bytes.
+     *
+     * @return Máximo de memoria.
+     */
+    public long getMaxMemoria() {
+        return maxMemoria;
+    }
+
+    /**
+     * Obtiene el tiempo máximo, en milisegundos.
+     *
+     * @return Máximo de tiempo.
+     */
+    public long getMaxMilisegundos() {
+        return maxMilisegundos;
+    }
+}
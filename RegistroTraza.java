@@ -0,0 +1,198 @@
+package sopadeletras.logica;
+
+/**
+ * Registro de los eventos de una búsqueda para reproducirla paso a paso.
+ * <p>
+ * Cada evento se empaqueta en un {@code long} dentro de un buffer circular reservado de antemano,
+ * así que registrar no reserva memoria; cuando el buffer se llena se conservan los eventos más
+ * recientes. La traza es opcional: se activa asignándola a un contexto con
+ * {@link ContextoBusqueda#setTraza(RegistroTraza)}, y sin ella los motores de búsqueda solo comparan
+ * una referencia con null en cada evento. Una traza registra búsquedas sobre un único tablero.
+ * <p>
+ * Bits de cada evento: 0–31 celda, 32–47 nivel (posición en la palabra), 48–51 dirección hacia la
+ * celda padre ({@link #SIN_PADRE} si no tiene), 52–54 tipo.
+ */
+public class RegistroTraza {
+    /** La celda entra en el camino (DFS) o en la cola (BFS). */
+    public static final int EMPILAR = 0;
+
+    /** La celda sale del camino al retroceder (DFS) o se expande (BFS). */
+    public static final int DESAPILAR = 1;
+
+    /** Un vecino se descarta por el filtro de alcanzabilidad o por estar ya en el camino. */
+    public static final int PODAR = 2;
+
+    /** La palabra se completa en la celda. */
+    public static final int COINCIDIR = 3;
+
+    /** Dirección de los eventos sin celda padre. */
+    public static final int SIN_PADRE = 4;
+
+    /** Capacidad por defecto, en eventos. */
+    private static final int CAPACIDAD_DEFECTO = 1 << 20;
+
+    /** Buffer circular de eventos. */
+    private final long[] eventos;
+
+    /** Capacidad menos 1 (la capacidad es potencia de 2). */
+    private final int mascara;
+
+    /** Número de eventos registrados desde la última limpieza, incluidos los ya sobrescritos. */
+    private long total;
+
+    /** Número de columnas del tablero de la búsqueda registrada. */
+    private int columnas = 1;
+
+    /**
+     * Construye una traza con capacidad para {@value #CAPACIDAD_DEFECTO} eventos.
+     */
+    public RegistroTraza() {
+        this(CAPACIDAD_DEFECTO);
+    }
+
+    /**
+     * Construye una traza.
+     *
+     * @param capacidad Número de eventos que se conservan; se redondea a la siguiente potencia de 2.
+     */
+    public RegistroTraza(int capacidad) {
+        int redondeada = capacidad <= 1 ? 1 : Integer.highestOneBit(Math.min(capacidad, 1 << 30) - 1) << 1;
+        this.eventos = new long[redondeada];
+        this.mascara = redondeada - 1;
+    }
+
+    /**
+     * Indica el tablero de la búsqueda que empieza, para calcular las direcciones hacia las celdas padre.
+     *
+     * @param columnas Número de columnas del tablero.
+     */
+    void iniciar(int columnas) {
+        this.columnas = columnas;
+    }
+
+    /**
+     * Registra un evento.
+     *
+     * @param tipo Tipo del evento ({@link #EMPILAR}, {@link #DESAPILAR}, {@link #PODAR} o {@link #COINCIDIR}).
+     * @param nivel Posición en la palabra.
+     * @param celda Celda del evento (fila * columnas + columna).
+     * @param padre Celda adyacente de la que proviene, o -1 si no tiene.
+     */
+    void registrar(int tipo, int nivel, int celda, int padre) {
+        int direccion = SIN_PADRE;
+        if (padre >= 0) {
+            direccion = (padre / columnas - celda / columnas + 1) * 3 + (padre % columnas - celda % columnas + 1);
+        }
+        eventos[(int) (total++ & mascara)] = (celda & 0xFFFFFFFFL)
+            | ((long) Math.min(nivel, 0xFFFF) << 32)
+            | ((long) direccion << 48)
+            | ((long) tipo << 52);
+    }
+
+    /**
+     * Descarta todos los eventos.
+     */
+    public void limpiar() {
+        total = 0;
+    }
+
+    /**
+     * Obtiene el número de eventos conservados.
+     *
+     * @return Eventos disponibles con {@link #getEvento(int)}.
+     */
+    public int getCantidad() {
+        return (int) Math.min(total, eventos.length);
+    }
+
+    /**
+     * Obtiene el número de eventos registrados, incluidos los que se sobrescribieron.
+     *
+     * @return Total de eventos.
+     */
+    public long getTotal() {
+        return total;
+    }
+
+    /**
+     * Obtiene el número de eventos antiguos que se sobrescribieron por falta de capacidad.
+     *
+     * @return Eventos descartados.
+     */
+    public long getDescartados() {
+        return total - getCantidad();
+    }
+
+    /**
+     * Obtiene un evento conservado, del más antiguo al más reciente.
+     *
+     * @param i Posición del evento (0 a {@link #getCantidad()} - 1).
+     * @return Evento empaquetado.
+     */
+    public long getEvento(int i) {
+        return eventos[(int) ((getDescartados() + i) & mascara)];
+    }
+
+    /**
+     * Obtiene el número de columnas del tablero de la búsqueda registrada.
+     *
+     * @return Número de columnas.
+     */
+    public int getColumnas() {
+        return columnas;
+    }
+
+    /**
+     * Obtiene el tipo de un evento.
+     *
+     * @param evento Evento empaquetado.
+     * @return Tipo del evento.
+     */
+    public static int tipo(long evento) {
+        return (int) (evento >>> 52) & 0x7;
+    }
+
+    /**
+     * Obtiene el nivel (posición en la palabra) de un evento.
+     *
+     * @param evento Evento empaquetado.
+     * @return Nivel del evento.
+     */
+    public static int nivel(long evento) {
+        return (int) (evento >>> 32) & 0xFFFF;
+    }
+
+    /**
+     * Obtiene la celda de un evento.
+     *
+     * @param evento Evento empaquetado.
+     * @return Celda (fila * columnas + columna).
+     */
+    public static int celda(long evento) {
+        return (int) evento;
+    }
+
+    /**
+     * Obtiene la dirección hacia la celda padre de un evento: (df + 1) * 3 + (dc + 1), con df y dc
+     * entre -1 y 1, o {@link #SIN_PADRE}.
+     *
+     * @param evento Evento empaquetado.
+     * @return Dirección hacia la celda padre.
+     */
+    public static int direccion(long evento) {
+        return (int) (evento >>> 48) & 0xF;
+    }
+
+    /**
+     * Calcula la celda que está en una dirección desde otra.
+     *
+     * @param celda Celda de partida.
+     * @param direccion Dirección, como la devuelve {@link #direccion(long)}.
+     * @param columnas Número de columnas del tablero.
+     * @return Celda en esa dirección, o -1 si la dirección es {@link #SIN_PADRE}.
+     */
+    public static int vecina(int celda, int direccion, int columnas) {
+        if (direccion == SIN_PADRE) return -1;
+        return celda + (direccion / 3 - 1) * columnas + (direccion % 3 - 1);
+    }
+}
@@ -0,0 +1,517 @@
+package sopadeletras.archivo;
+
+import sopadeletras.estructuras.ListaPalabras;
+import sopadeletras.logica.ContextoBusqueda;
+import sopadeletras.logica.ControladorBusqueda;
+import sopadeletras.logica.EstadoBusqueda;
+import sopadeletras.logica.IndiceKGramas;
+import sopadeletras.logica.PresupuestoBusqueda;
+import sopadeletras.modelo.Alfabeto;
+import sopadeletras.modelo.IndiceLetras;
+import sopadeletras.modelo.Tablero;
+
+import java.io.BufferedReader;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Resuelve un flujo continuo de sopas de letras leído de la entrada estándar o de una tubería con nombre.
+ * <p>
+ * La entrada es una sucesión de sopas en el formato de texto de siempre: cada sopa tiene una sección
+ * "dic" y una sección "tab", en cualquier orden, y termina cuando se cierran las dos. El trabajo se
+ * reparte en cuatro etapas, cada una en su propio hilo y unidas por colas acotadas:
+ * <ol>
+ *   <li>lectura: separa las sopas y convierte las filas del tablero a códigos de letra;</li>
+ *   <li>índices: construye el tablero con su índice de letras, el índice de k-gramas y el diccionario;</li>
+ *   <li>resolución: busca cada palabra del diccionario con DFS y un presupuesto;</li>
+ *   <li>escritura: escribe los resultados con un {@link ExportadorResultados}.</li>
+ * </ol>
+ * Cada etapa procesa las sopas de una en una y en orden, así que la salida respeta el orden de la
+ * entrada. Cuando una etapa se atrasa su cola se llena y las anteriores esperan, de modo que la memoria
+ * usada no depende del largo del flujo. Las sopas con errores graves se informan con su número de línea
+ * y se omiten, sin detener el flujo.
+ */
+public class ResolvedorFlujo {
+    /** Sopas que pueden esperar entre dos etapas. */
+    private static final int CAPACIDAD_COLA = 4;
+
+    /** Milisegundos que se espera lugar en una cola antes de revisar si la etapa siguiente terminó. */
+    private static final int ESPERA_COLA = 50;
+
+    /** Tamaño del buffer de lectura, en caracteres. */
+    private static final int TAMANO_BUFFER = 1 << 16;
+
+    /** Largo de las cadenas cortas que se indexan en cada tablero. */
+    private static final int K_INDICE = 3;
+
+    /** Presupuesto de cada búsqueda, para que un tablero adverso no detenga el flujo. */
+    private static final PresupuestoBusqueda PRESUPUESTO =
+        new PresupuestoBusqueda(5_000_000, 256L * 1024 * 1024, 2000);
+
+    /** Sopa que indica a una etapa que no hay más. */
+    private static final Trabajo FIN = new Trabajo(0);
+
+    /** Alfabeto con el que se codifican los tableros y los diccionarios. */
+    private final Alfabeto alfabeto;
+
+    /** Ejecutor donde corren las etapas de índices, resolución y escritura. */
+    private final ExecutorService ejecutor;
+
+    /**
+     * Construye un resolvedor.
+     *
+     * @param alfabeto Alfabeto con el que se codifican los tableros y los diccionarios.
+     * @param ejecutor Ejecutor para las etapas posteriores a la lectura (necesita tres hilos libres).
+     */
+    public ResolvedorFlujo(Alfabeto alfabeto, ExecutorService ejecutor) {
+        this.alfabeto = alfabeto;
+        this.ejecutor = ejecutor;
+    }
+
+    /**
+     * Una sopa del flujo. Cada etapa completa sus campos y la pasa a la siguiente; las colas entre
+     * etapas garantizan que cada una vea lo que escribió la anterior.
+     */
+    private static class Trabajo {
+        /** Número de la sopa en el flujo (empezando en 1). */
+        final long numero;
+
+        /** Indica si apareció la sección "dic". */
+        boolean tieneDic;
+
+        /** Indica si apareció la sección "tab". */
+        boolean tieneTab;
+
+        /** Indica si la sopa tiene un error grave y debe omitirse. */
+        boolean error;
+
+        /** Número de la línea donde termina la sopa, para informar los errores de las etapas posteriores. */
+        long linea;
+
+        /** Palabras de la sección "dic". */
+        List<String> palabras = new ArrayList<>();
+
+        /** Códigos de letra de las filas leídas. */
+        byte[] codigos = new byte[1024];
+
+        /** Número de celdas de cada código. */
+        final int[] conteo = new int[Alfabeto.TAMANO];
+
+        /** Número de filas y columnas leídas. */
+        int filas, columnas;
+
+        /** Controlador de búsqueda del tablero, construido por la etapa de índices. */
+        ControladorBusqueda buscador;
+
+        /** Palabras a buscar, normalizadas y sin repetir. */
+        String[] diccionario;
+
+        /** Resultado de cada palabra. */
+        EstadoBusqueda[] estados;
+
+        /** Camino de cada palabra encontrada, o null. */
+        int[][] caminos;
+
+        /** Duración de cada búsqueda, en nanosegundos. */
+        long[] nanos;
+
+        /**
+         * Construye una sopa vacía.
+         *
+         * @param numero Número de la sopa en el flujo.
+         */
+        Trabajo(long numero) {
+            this.numero = numero;
+        }
+    }
+
+    /**
+     * Resuelve todas las sopas de un flujo y escribe los resultados a medida que se obtienen.
+     * Cada registro lleva el número de la sopa, contando también las que se omiten por errores.
+     *
+     * @param entrada Flujo de entrada en UTF-8; se lee hasta el final pero no se cierra.
+     * @param salida Canal donde se escriben los resultados; no se cierra.
+     * @param formato Formato de los resultados.
+     * @param oyente Oyente que recibe los errores de línea (no recibe avance), o null. Se llama desde
+     *               el hilo que lee y desde el de la etapa de índices, que pueden coincidir en el tiempo.
+     * @return Número de sopas resueltas.
+     * @throws IOException si ocurre un error de lectura o escritura o se interrumpe el hilo.
+     */
+    public long resolver(InputStream entrada, WritableByteChannel salida, ExportadorResultados.Formato formato,
+            OyenteCarga oyente) throws IOException {
+        BlockingQueue<Trabajo> colaIndices = new ArrayBlockingQueue<>(CAPACIDAD_COLA);
+        BlockingQueue<Trabajo> colaResolucion = new ArrayBlockingQueue<>(CAPACIDAD_COLA);
+        BlockingQueue<Trabajo> colaEscritura = new ArrayBlockingQueue<>(CAPACIDAD_COLA);
+        // Se lanzan de atrás hacia adelante para que cada etapa conozca a la siguiente
+        Future<Long> escritura = ejecutor.submit(() -> escribir(colaEscritura, salida, formato));
+        Future<?> resolucion = ejecutor.submit(() -> {
+            resolverPalabras(colaResolucion, colaEscritura, escritura);
+            return null;
+        });
+        Future<?> indices = ejecutor.submit(() -> {
+            indexar(colaIndices, colaResolucion, resolucion, oyente);
+            return null;
+        });
+        try {
+            BufferedReader lector = new BufferedReader(new InputStreamReader(entrada, StandardCharsets.UTF_8),
+                TAMANO_BUFFER);
+            try {
+                leer(lector, colaIndices, indices, oyente);
+            } finally {
+                enviar(colaIndices, FIN, indices);
+            }
+            indices.get();
+            resolucion.get();
+            return escritura.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Flujo interrumpido");
+        } catch (ExecutionException e) {
+            Throwable causa = e.getCause();
+            if (causa instanceof IOException) throw (IOException) causa;
+            throw new IOException("Error al resolver el flujo", causa);
+        } finally {
+            // Si la lectura falló, las etapas pueden seguir esperando sopas
+            indices.cancel(true);
+            resolucion.cancel(true);
+            escritura.cancel(true);
+        }
+    }
+
+    /**
+     * Etapa de lectura: sigue las secciones de cada sopa, codifica las filas del tablero y envía cada
+     * sopa completa a la etapa de índices. Termina al final de la entrada o si la etapa siguiente terminó.
+     *
+     * @param lector Lector de la entrada.
+     * @param salida Cola de la etapa de índices.
+     * @param siguiente Etapa de índices.
+     * @param oyente Oyente de los errores, o null.
+     * @throws IOException si ocurre un error de lectura.
+     * @throws InterruptedException si se interrumpe el hilo.
+     */
+    private void leer(BufferedReader lector, BlockingQueue<Trabajo> salida, Future<?> siguiente, OyenteCarga oyente)
+            throws IOException, InterruptedException {
+        Trabajo actual = null;
+        boolean enDic = false, enTab = false;
+        long numeroLinea = 0, sopas = 0;
+        for (String linea = lector.readLine(); linea != null; linea = lector.readLine()) {
+            numeroLinea++;
+            boolean abreDic = linea.equalsIgnoreCase("dic");
+            // Dentro de una sección solo cuenta su cierre: "DIC" o "TAB" pueden ser palabras o filas
+            if (enDic && !linea.equalsIgnoreCase("/dic")) {
+                agregarPalabra(actual, linea, numeroLinea, oyente);
+            } else if (enTab && !linea.equalsIgnoreCase("/tab")) {
+                if (!actual.error) agregarFila(actual, linea, numeroLinea, oyente);
+            } else if (abreDic || linea.equalsIgnoreCase("tab")) {
+                if (actual != null && (abreDic ? actual.tieneDic : actual.tieneTab)) {
+                    // Empieza otra sopa sin que la actual haya tenido sus dos secciones
+                    informar(oyente, actual, numeroLinea, "La sopa " + actual.numero + " no tiene la sección "
+                        + (abreDic ? "tab" : "dic") + ".");
+                    actual = null;
+                }
+                if (actual == null) {
+                    actual = new Trabajo(++sopas);
+                }
+                if (abreDic) {
+                    actual.tieneDic = enDic = true;
+                } else {
+                    actual.tieneTab = enTab = true;
+                }
+            } else if (enDic || enTab) {
+                enDic = enTab = false;
+                if (actual.tieneDic && actual.tieneTab) {
+                    if (!terminarSopa(actual, numeroLinea, salida, siguiente, oyente)) return;
+                    actual = null;
+                }
+            }
+        }
+        if (actual != null) {
+            if (!actual.tieneDic || !actual.tieneTab) {
+                informar(oyente, actual, numeroLinea, "La sopa " + actual.numero + " no tiene la sección "
+                    + (actual.tieneDic ? "tab" : "dic") + ".");
+            } else {
+                terminarSopa(actual, numeroLinea, salida, siguiente, oyente);
+            }
+        }
+    }
+
+    /**
+     * Agrega una palabra de la sección "dic". Las palabras con caracteres que no son letras del alfabeto
+     * se agregan igual, pero se informan.
+     *
+     * @param sopa Sopa actual.
+     * @param linea Línea leída.
+     * @param numeroLinea Número de la línea.
+     * @param oyente Oyente de los errores, o null.
+     */
+    private void agregarPalabra(Trabajo sopa, String linea, long numeroLinea, OyenteCarga oyente) {
+        String palabra = linea.trim();
+        if (palabra.isEmpty()) return;
+        if (oyente != null && !Alfabeto.esCompleto(alfabeto.codificar(palabra))) {
+            oyente.errorLinea(new ErrorLinea(numeroLinea, "La palabra '" + palabra
+                + "' tiene caracteres que no son letras y no podrá encontrarse.", false));
+        }
+        sopa.palabras.add(palabra);
+    }
+
+    /**
+     * Codifica una fila de la sección "tab". Si la fila es inválida la sopa se marca con error.
+     *
+     * @param sopa Sopa actual.
+     * @param linea Línea leída.
+     * @param numeroLinea Número de la línea.
+     * @param oyente Oyente de los errores, o null.
+     */
+    private void agregarFila(Trabajo sopa, String linea, long numeroLinea, OyenteCarga oyente) {
+        // Cada celda ocupa al menos un carácter y una coma, salvo la última
+        long necesarias = (long) sopa.filas * sopa.columnas + (linea.length() + 1) / 2;
+        if (necesarias > Integer.MAX_VALUE - 8) {
+            informar(oyente, sopa, numeroLinea, "El tablero es demasiado grande.");
+            return;
+        }
+        if (necesarias > sopa.codigos.length) {
+            sopa.codigos = Arrays.copyOf(sopa.codigos, (int) Math.min(Integer.MAX_VALUE - 8,
+                Math.max(2L * sopa.codigos.length, necesarias)));
+        }
+        int celdas;
+        try {
+            celdas = CargadorSopa.codificarFila(alfabeto, linea, sopa.codigos, sopa.filas * sopa.columnas, sopa.conteo);
+        } catch (IOException e) {
+            informar(oyente, sopa, numeroLinea, e.getMessage());
+            return;
+        }
+        if (sopa.filas == 0) {
+            sopa.columnas = celdas;
+        } else if (celdas != sopa.columnas) {
+            informar(oyente, sopa, numeroLinea, "La fila tiene " + celdas
+                + " columnas y las anteriores tienen " + sopa.columnas + ".");
+            return;
+        }
+        sopa.filas++;
+    }
+
+    /**
+     * Envía una sopa completa a la etapa de índices, salvo que tenga errores.
+     *
+     * @param sopa Sopa completa.
+     * @param numeroLinea Número de la línea donde termina.
+     * @param salida Cola de la etapa de índices.
+     * @param siguiente Etapa de índices.
+     * @param oyente Oyente de los errores, o null.
+     * @return false si la etapa siguiente terminó y hay que dejar de leer.
+     * @throws InterruptedException si se interrumpe el hilo.
+     */
+    private static boolean terminarSopa(Trabajo sopa, long numeroLinea, BlockingQueue<Trabajo> salida,
+            Future<?> siguiente, OyenteCarga oyente) throws InterruptedException {
+        if (!sopa.error && sopa.filas == 0) {
+            informar(oyente, sopa, numeroLinea, "La sopa " + sopa.numero + " no tiene filas en la sección tab.");
+        }
+        sopa.linea = numeroLinea;
+        return sopa.error || enviar(salida, sopa, siguiente);
+    }
+
+    /**
+     * Etapa de índices: construye el tablero con su índice de letras, el índice de k-gramas y el
+     * diccionario (que normaliza las palabras y quita las repetidas) de cada sopa. Si una sopa no se
+     * puede indexar, se informa con la línea donde termina y se omite, sin detener el flujo.
+     *
+     * @param entrada Cola de la etapa.
+     * @param salida Cola de la etapa de resolución.
+     * @param siguiente Etapa de resolución.
+     * @param oyente Oyente de los errores, o null.
+     * @throws InterruptedException si se cancela el flujo.
+     */
+    private void indexar(BlockingQueue<Trabajo> entrada, BlockingQueue<Trabajo> salida, Future<?> siguiente,
+            OyenteCarga oyente) throws InterruptedException {
+        try {
+            for (Trabajo sopa = entrada.take(); sopa != FIN; sopa = entrada.take()) {
+                try {
+                    byte[] celdas = Arrays.copyOf(sopa.codigos, sopa.filas * sopa.columnas);
+                    sopa.codigos = null;
+                    Tablero tablero = new Tablero(sopa.filas, sopa.columnas, celdas, alfabeto,
+                        new IndiceLetras(celdas, sopa.conteo));
+                    sopa.buscador = new ControladorBusqueda(tablero, new IndiceKGramas(tablero, K_INDICE, true));
+                    ListaPalabras diccionario = new ListaPalabras(alfabeto);
+                    for (String palabra : sopa.palabras) {
+                        diccionario.agregar(palabra);
+                    }
+                    sopa.diccionario = diccionario.aArreglo();
+                    sopa.palabras = null;
+                } catch (RuntimeException | OutOfMemoryError e) {
+                    informar(oyente, sopa, sopa.linea, "La sopa " + sopa.numero + " no se pudo indexar: " + e);
+                    continue;
+                }
+                if (!enviar(salida, sopa, siguiente)) return;
+            }
+        } finally {
+            enviar(salida, FIN, siguiente);
+        }
+    }
+
+    /**
+     * Etapa de resolución: busca cada palabra del diccionario con DFS, guardando el resultado, el
+     * camino de las encontradas y la duración.
+     *
+     * @param entrada Cola de la etapa.
+     * @param salida Cola de la etapa de escritura.
+     * @param siguiente Etapa de escritura.
+     * @throws InterruptedException si se cancela el flujo.
+     */
+    private static void resolverPalabras(BlockingQueue<Trabajo> entrada, BlockingQueue<Trabajo> salida,
+            Future<?> siguiente) throws InterruptedException {
+        try {
+            ContextoBusqueda contexto = ContextoBusqueda.actual();
+            for (Trabajo sopa = entrada.take(); sopa != FIN; sopa = entrada.take()) {
+                int n = sopa.diccionario.length;
+                sopa.estados = new EstadoBusqueda[n];
+                sopa.caminos = new int[n][];
+                sopa.nanos = new long[n];
+                for (int i = 0; i < n; i++) {
+                    long inicio = System.nanoTime();
+                    EstadoBusqueda estado = sopa.buscador.buscarPalabraDFS(sopa.diccionario[i], PRESUPUESTO, contexto);
+                    sopa.nanos[i] = System.nanoTime() - inicio;
+                    sopa.estados[i] = estado;
+                    if (estado == EstadoBusqueda.ENCONTRADA) {
+                        sopa.caminos[i] = contexto.getCaminoEncontrado();
+                    }
+                }
+                // Los índices ya no hacen falta y no deben ocupar memoria mientras la sopa espera
+                sopa.buscador = null;
+                if (!enviar(salida, sopa, siguiente)) return;
+            }
+        } finally {
+            enviar(salida, FIN, siguiente);
+        }
+    }
+
+    /**
+     * Etapa de escritura: escribe los resultados de cada sopa. El buffer se vacía cuando no hay otra
+     * sopa esperando, así quien lee la salida recibe cada sopa en cuanto está resuelta.
+     *
+     * @param entrada Cola de la etapa.
+     * @param salida Canal de destino.
+     * @param formato Formato de los resultados.
+     * @return Número de sopas escritas.
+     * @throws IOException si ocurre un error de escritura.
+     * @throws InterruptedException si se cancela el flujo.
+     */
+    private static long escribir(BlockingQueue<Trabajo> entrada, WritableByteChannel salida,
+            ExportadorResultados.Formato formato) throws IOException, InterruptedException {
+        long sopas = 0;
+        try (ExportadorResultados exportador = new ExportadorResultados(salida, formato)) {
+            for (Trabajo sopa = entrada.take(); sopa != FIN; sopa = entrada.take()) {
+                exportador.iniciarSopa(sopa.numero, sopa.columnas);
+                for (int i = 0; i < sopa.diccionario.length; i++) {
+                    exportador.escribir(sopa.diccionario[i], sopa.estados[i], sopa.caminos[i], sopa.nanos[i]);
+                }
+                sopas++;
+                if (entrada.isEmpty()) {
+                    exportador.vaciar();
+                }
+            }
+        }
+        return sopas;
+    }
+
+    /**
+     * Envía una sopa a una etapa, esperando si su cola está llena. Si la etapa ya terminó (por un error)
+     * la sopa se descarta, para no quedar esperando una cola que nadie vacía.
+     *
+     * @param cola Cola de la etapa.
+     * @param sopa Sopa a enviar.
+     * @param siguiente Etapa que consume la cola.
+     * @return false si la etapa terminó.
+     * @throws InterruptedException si se interrumpe el hilo.
+     */
+    private static boolean enviar(BlockingQueue<Trabajo> cola, Trabajo sopa, Future<?> siguiente)
+            throws InterruptedException {
+        while (!cola.offer(sopa, ESPERA_COLA, TimeUnit.MILLISECONDS)) {
+            if (siguiente.isDone()) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Informa un error grave de una sopa, que queda marcada para omitirse.
+     *
+     * @param oyente Oyente de los errores, o null.
+     * @param sopa Sopa con el error.
+     * @param linea Número de línea.
+     * @param mensaje Descripción del problema.
+     */
+    private static void informar(OyenteCarga oyente, Trabajo sopa, long linea, String mensaje) {
+        sopa.error = true;
+        if (oyente != null) {
+            oyente.errorLinea(new ErrorLinea(linea, mensaje, true));
+        }
+    }
+
+    /**
+     * Punto de entrada del modo flujo:
+     * <pre>
+     * ResolvedorFlujo [--csv] [tuberia]
+     * </pre>
+     * Lee las sopas del archivo o tubería con nombre indicado, o de la entrada estándar si no se indica
+     * ninguno. Los resultados se escriben en la salida estándar en JSON por líneas (o en CSV con
+     * {@code --csv}) y los errores en la salida de errores.
+     *
+     * @param args Argumentos de línea de comandos.
+     * @throws IOException si ocurre un error de lectura o escritura.
+     */
+    public static void main(String[] args) throws IOException {
+        ExportadorResultados.Formato formato = ExportadorResultados.Formato.JSONL;
+        Path ruta = null;
+        for (String argumento : args) {
+            if (argumento.equals("--csv")) {
+                formato = ExportadorResultados.Formato.CSV;
+            } else if (ruta == null && !argumento.startsWith("--")) {
+                ruta = Path.of(argumento);
+            } else {
+                System.err.println("Uso: ResolvedorFlujo [--csv] [tuberia]");
+                return;
+            }
+        }
+
+        OyenteCarga oyente = new OyenteCarga() {
+            @Override
+            public void progreso(long leidos, long total) {
+            }
+
+            @Override
+            public void errorLinea(ErrorLinea error) {
+                System.err.println(error);
+            }
+        };
+        ExecutorService ejecutor = Executors.newFixedThreadPool(3, tarea -> {
+            Thread hilo = new Thread(tarea, "flujo-sopa");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+        // Canal directo sobre la salida estándar, sin el buffer de System.out
+        WritableByteChannel salida = new FileOutputStream(FileDescriptor.out).getChannel();
+        try (InputStream entrada = ruta == null ? System.in : Files.newInputStream(ruta)) {
+            long sopas = new ResolvedorFlujo(Alfabeto.porDefecto(), ejecutor).resolver(entrada, salida, formato, oyente);
+            System.err.println(sopas + " sopas resueltas.");
+        } finally {
+            ejecutor.shutdownNow();
+        }
+    }
+}
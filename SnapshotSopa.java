@@ -0,0 +1,266 @@
+package sopadeletras.archivo;
+
+import sopadeletras.estructuras.ListaPalabras;
+import sopadeletras.modelo.Alfabeto;
+import sopadeletras.modelo.IndiceLetras;
+import sopadeletras.modelo.Sopa;
+import sopadeletras.modelo.Tablero;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Formato binario compacto para guardar y abrir rápidamente sopas de letras grandes.
+ * El archivo se lee mediante un {@link FileChannel} mapeado en memoria: los códigos de las letras, el índice
+ * de letras y el diccionario se copian en bloque a sus arreglos, sin interpretar texto ni
+ * recalcular el índice (solo se comprueba en una pasada que coincida con el tablero), de modo que el
+ * tablero queda listo para buscar al terminar la carga.
+ * <p>
+ * La carga no usa vistas de solo lectura sobre el mapeo: {@link Tablero}, {@link IndiceLetras} y el
+ * escáner vectorial trabajan sobre arreglos del heap, y pasarlos a buffers agregaría una comprobación
+ * de límites en cada acceso de los bucles de búsqueda. Cada sección se copia con una sola copia en
+ * bloque, que cuesta poco frente a interpretar el texto, y así el archivo no queda mapeado (ni
+ * bloqueado en Windows) mientras la sopa está abierta. El diccionario sí se reconstruye palabra por
+ * palabra, porque el trie de {@link ListaPalabras} no se guarda en el archivo.
+ * <p>
+ * Estructura del archivo (little-endian):
+ * <pre>
+ * int   MAGICO, int VERSION
+ * int   filas, int columnas
+ * int   plegarAcentos                       (1 si el alfabeto pliega acentos, 0 si no)
+ * byte  codigos[filas * columnas]           (relleno a múltiplo de 4 bytes)
+ * int   inicio[Alfabeto.TAMANO + 1]
+ * int   posiciones[filas * columnas]
+ * int   palabras
+ * por palabra: int largo, char letras[largo] (relleno a múltiplo de 4 bytes)
+ * </pre>
+ * El formato de texto sigue siendo el de intercambio; {@link #convertir(File, File)} genera
+ * el snapshot a partir de él.
+ */
+public class SnapshotSopa {
+    /** Número mágico que identifica el formato ("SOPA"). */
+    private static final int MAGICO = 0x534F5041;
+
+    /** Versión actual del formato (la 2 guarda códigos de {@link Alfabeto} en lugar de caracteres). */
+    private static final int VERSION = 2;
+
+    /**
+     * Escribe una sopa de letras en formato snapshot.
+     *
+     * @param sopa Sopa a escribir.
+     * @param archivo Archivo de destino.
+     * @throws IOException si ocurre un error de escritura.
+     */
+    public static void escribir(Sopa sopa, File archivo) throws IOException {
+        Tablero tablero = sopa.getTablero();
+        IndiceLetras indice = tablero.getIndiceLetras();
+        byte[] codigos = tablero.getCodigos();
+        String[] palabras = sopa.getDiccionario().aArreglo();
+
+        long tamano = 20 + alinear(codigos.length)
+            + 4L * indice.getInicio().length + 4L * indice.getPosiciones().length
+            + 4;
+        for (String palabra : palabras) {
+            tamano += 4 + alinear(2L * palabra.length());
+        }
+
+        try (FileChannel canal = FileChannel.open(archivo.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = canal.map(FileChannel.MapMode.READ_WRITE, 0, tamano);
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            buffer.putInt(MAGICO).putInt(VERSION);
+            buffer.putInt(tablero.getFilas()).putInt(tablero.getColumnas());
+            buffer.putInt(tablero.getAlfabeto().isPlegarAcentos() ? 1 : 0);
+            buffer.put(codigos);
+            buffer.position(buffer.position() + (int) (alinear(codigos.length) - codigos.length));
+
+            escribirEnteros(buffer, indice.getInicio());
+            escribirEnteros(buffer, indice.getPosiciones());
+
+            // Se escriben en orden inverso para que al leerlas la lista quede en el mismo orden
+            buffer.putInt(palabras.length);
+            for (int i = palabras.length - 1; i >= 0; i--) {
+                buffer.putInt(palabras[i].length());
+                escribirLetras(buffer, palabras[i].toCharArray());
+            }
+            buffer.force();
+        }
+    }
+
+    /**
+     * Carga una sopa de letras desde un archivo en formato snapshot.
+     *
+     * @param archivo Archivo a cargar.
+     * @return Sopa con el tablero (incluido su índice de letras) y el diccionario.
+     * @throws IOException si ocurre un error de lectura o el archivo no es un snapshot válido.
+     */
+    public static Sopa cargar(File archivo) throws IOException {
+        try (FileChannel canal = FileChannel.open(archivo.toPath(), StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = canal.map(FileChannel.MapMode.READ_ONLY, 0, canal.size());
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            if (buffer.remaining() < 20 || buffer.getInt() != MAGICO) {
+                throw new IOException("El archivo no es un snapshot de sopa de letras.");
+            }
+            int version = buffer.getInt();
+            if (version != VERSION) {
+                throw new IOException("Versión de snapshot no soportada: " + version);
+            }
+            int filas = buffer.getInt();
+            int columnas = buffer.getInt();
+            if (filas < 0 || columnas < 0 || (long) filas * columnas > Integer.MAX_VALUE) {
+                throw new IOException("Dimensiones inválidas en el snapshot: " + filas + "x" + columnas);
+            }
+            Alfabeto alfabeto = Alfabeto.de(buffer.getInt() != 0);
+            byte[] codigos = new byte[filas * columnas];
+            buffer.get(codigos);
+            buffer.position(buffer.position() + (int) (alinear(codigos.length) - codigos.length));
+
+            int[] inicio = leerEnteros(buffer, Alfabeto.TAMANO + 1);
+            int[] posiciones = leerEnteros(buffer, filas * columnas);
+
+            ListaPalabras diccionario = new ListaPalabras(alfabeto);
+            int cantidad = buffer.getInt();
+            for (int i = 0; i < cantidad; i++) {
+                diccionario.agregar(new String(leerLetras(buffer, buffer.getInt())));
+            }
+
+            // Un índice corrupto o de otro tablero daría resultados IMPOSIBLE falsos o fallaría en plena
+            // búsqueda; si no coincide con los códigos se reconstruye a partir de ellos
+            IndiceLetras indice = indiceCoincide(inicio, posiciones, codigos)
+                ? new IndiceLetras(inicio, posiciones) : new IndiceLetras(codigos);
+            return new Sopa(new Tablero(filas, columnas, codigos, alfabeto, indice), diccionario);
+        } catch (RuntimeException e) {
+            // BufferUnderflowException, IllegalArgumentException, etc. indican un archivo truncado o corrupto
+            throw new IOException("Snapshot inválido o truncado: " + archivo, e);
+        }
+    }
+
+    /**
+     * Convierte una sopa en formato de texto a formato snapshot.
+     *
+     * @param texto Archivo de texto de entrada.
+     * @param binario Archivo snapshot de salida.
+     * @throws IOException si ocurre un error de lectura o escritura.
+     */
+    public static void convertir(File texto, File binario) throws IOException {
+        escribir(ArchivoSopa.leer(texto), binario);
+    }
+
+    /**
+     * Indica si un archivo tiene la extensión de los snapshots (".sopa").
+     *
+     * @param archivo Archivo a revisar.
+     * @return true si el nombre termina en ".sopa".
+     */
+    public static boolean esSnapshot(File archivo) {
+        return archivo.getName().toLowerCase().endsWith(".sopa");
+    }
+
+    /**
+     * Comprueba que un índice de letras leído del archivo corresponda a los códigos del tablero: los
+     * inicios deben crecer desde 0 hasta el número de celdas, y las celdas de cada letra deben estar
+     * en orden creciente, dentro del tablero y tener esa letra. Así cada celda aparece exactamente una vez.
+     *
+     * @param inicio Inicio de cada código en {@code posiciones}, con una entrada extra al final.
+     * @param posiciones Celdas agrupadas por letra.
+     * @param codigos Códigos de las letras del tablero.
+     * @return true si el índice coincide con el tablero.
+     */
+    private static boolean indiceCoincide(int[] inicio, int[] posiciones, byte[] codigos) {
+        if (inicio[0] != 0 || inicio[Alfabeto.TAMANO] != codigos.length) return false;
+        for (int letra = 0; letra < Alfabeto.TAMANO; letra++) {
+            if (inicio[letra + 1] < inicio[letra]) return false;
+        }
+        for (int letra = 0; letra < Alfabeto.TAMANO; letra++) {
+            int anterior = -1;
+            for (int j = inicio[letra]; j < inicio[letra + 1]; j++) {
+                int celda = posiciones[j];
+                if (celda <= anterior || celda >= codigos.length || codigos[celda] != letra) return false;
+                anterior = celda;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Redondea un número de bytes al siguiente múltiplo de 4.
+     *
+     * @param bytes Número de bytes.
+     * @return Número de bytes alineado.
+     */
+    private static long alinear(long bytes) {
+        return (bytes + 3) & ~3L;
+    }
+
+    /**
+     * Escribe un arreglo de letras en bloque y rellena hasta el siguiente múltiplo de 4 bytes.
+     *
+     * @param buffer Buffer de destino.
+     * @param letras Letras a escribir.
+     */
+    private static void escribirLetras(MappedByteBuffer buffer, char[] letras) {
+        buffer.asCharBuffer().put(letras);
+        buffer.position(buffer.position() + (int) alinear(2L * letras.length));
+    }
+
+    /**
+     * Escribe un arreglo de enteros en bloque.
+     *
+     * @param buffer Buffer de destino.
+     * @param enteros Enteros a escribir.
+     */
+    private static void escribirEnteros(MappedByteBuffer buffer, int[] enteros) {
+        buffer.asIntBuffer().put(enteros);
+        buffer.position(buffer.position() + 4 * enteros.length);
+    }
+
+    /**
+     * Lee en bloque un arreglo de letras seguido de su relleno.
+     *
+     * @param buffer Buffer de origen.
+     * @param cantidad Número de letras.
+     * @return Arreglo con las letras leídas.
+     */
+    private static char[] leerLetras(MappedByteBuffer buffer, int cantidad) {
+        char[] letras = new char[cantidad];
+        buffer.asCharBuffer().get(letras);
+        buffer.position(buffer.position() + (int) alinear(2L * cantidad));
+        return letras;
+    }
+
+    /**
+     * Lee en bloque un arreglo de enteros.
+     *
+     * @param buffer Buffer de origen.
+     * @param cantidad Número de enteros.
+     * @return Arreglo con los enteros leídos.
+     */
+    private static int[] leerEnteros(MappedByteBuffer buffer, int cantidad) {
+        int[] enteros = new int[cantidad];
+        buffer.asIntBuffer().get(enteros);
+        buffer.position(buffer.position() + 4 * cantidad);
+        return enteros;
+    }
+
+    /**
+     * Convierte un archivo de texto al formato snapshot desde la línea de comandos.
+     * <pre>
+     * SnapshotSopa &lt;entrada.txt&gt; &lt;salida.sopa&gt;
+     * </pre>
+     *
+     * @param args Argumentos de línea de comandos.
+     * @throws IOException si ocurre un error de lectura o escritura.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Uso: SnapshotSopa <entrada.txt> <salida.sopa>");
+            return;
+        }
+        convertir(Path.of(args[0]).toFile(), Path.of(args[1]).toFile());
+    }
+}
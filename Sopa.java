@@ -0,0 +1,44 @@
+package sopadeletras.modelo;
+
+import sopadeletras.estructuras.ListaPalabras;
+
+/**
+ * Agrupa un tablero y su diccionario de palabras, tal como se leen de un archivo
+ * o como los produce el generador de sopas de letras.
+ */
+public class Sopa {
+    /** Tablero de la sopa de letras. */
+    private Tablero tablero;
+
+    /** Diccionario de palabras a buscar en el tablero. */
+    private ListaPalabras diccionario;
+
+    /**
+     * Construye una sopa de letras con el tablero y el diccionario dados.
+     *
+     * @param tablero Tablero de la sopa de letras.
+     * @param diccionario Diccionario de palabras.
+     */
+    public Sopa(Tablero tablero, ListaPalabras diccionario) {
+        this.tablero = tablero;
+        this.diccionario = diccionario;
+    }
+
+    /**
+     * Obtiene el tablero de la sopa de letras.
+     *
+     * @return Tablero de la sopa.
+     */
+    public Tablero getTablero() {
+        return tablero;
+    }
+
+    /**
+     * Obtiene el diccionario de palabras de la sopa de letras.
+     *
+     * @return Diccionario de palabras.
+     */
+    public ListaPalabras getDiccionario() {
+        return diccionario;
+    }
+}
@@ -3,56 +3,132 @@ package sopadeletras.modelo;
 /**
  * Clase que representa el tablero de la sopa de letras como una matriz de nodos (grafo).
  * Cada nodo contiene una letra y referencias a sus nodos adyacentes (hasta 8 direcciones).
+ * Las letras se guardan además en un arreglo plano por filas (celda = fila * columnas + columna)
+ * como códigos densos de un {@link Alfabeto}, y el grafo de nodos se construye solo la primera vez
+ * que se solicita.
  */
 public class Tablero {
-    /** Matriz de nodos que forman el tablero. */
-    private NodoGrafo[][] matriz;
+    /** Matriz de nodos que forman el tablero, construida al primer uso. */
+    private volatile NodoGrafo[][] matriz;
 
-    /** Dimensión del tablero (número de filas y columnas). */
-    private int dimension;
+    /** Códigos de las letras del tablero en un arreglo plano, fila por fila. */
+    private byte[] codigos;
+
+    /** Alfabeto con el que se codifican las letras. */
+    private Alfabeto alfabeto;
+
+    /** Índice de posiciones por letra, construido al primer uso. */
+    private volatile IndiceLetras indice;
+
+    /** Número de filas del tablero. */
+    private int filas;
+
+    /** Número de columnas del tablero. */
+    private int columnas;
 
     /**
-     * Construye un tablero a partir de una matriz de letras.
-     * Crea los nodos correspondientes y los conecta con sus adyacentes.
+     * Construye un tablero a partir de una matriz de letras, con el alfabeto por defecto.
+     * La matriz puede ser rectangular (N×M), pero todas sus filas deben tener el mismo largo.
      *
      * @param letras Matriz de caracteres que representan el tablero.
+     * @throws IllegalArgumentException si las filas no tienen todas el mismo número de columnas
+     *         o alguna celda no es una letra del alfabeto.
      */
     public Tablero(char[][] letras) {
-        this.dimension = letras.length;
-        this.matriz = new NodoGrafo[dimension][dimension];
-        construirNodos(letras);
-        conectarAdyacentes();
+        this(letras, Alfabeto.porDefecto());
     }
 
     /**
-     * Construye los nodos grafo para cada letra en la matriz de entrada.
+     * Construye un tablero a partir de una matriz de letras, codificándolas con el alfabeto dado.
+     * La matriz puede ser rectangular (N×M), pero todas sus filas deben tener el mismo largo.
      *
-     * @param letras Matriz de caracteres que representan las letras del tablero.
+     * @param letras Matriz de caracteres que representan el tablero.
+     * @param alfabeto Alfabeto con el que se codifican las letras.
+     * @throws IllegalArgumentException si las filas no tienen todas el mismo número de columnas
+     *         o alguna celda no es una letra del alfabeto.
      */
-    private void construirNodos(char[][] letras) {
-        for (int i = 0; i < dimension; i++) {
-            for (int j = 0; j < dimension; j++) {
-                matriz[i][j] = new NodoGrafo(letras[i][j], i, j);
+    public Tablero(char[][] letras, Alfabeto alfabeto) {
+        this.alfabeto = alfabeto;
+        this.filas = letras.length;
+        this.columnas = filas == 0 ? 0 : letras[0].length;
+        this.codigos = new byte[filas * columnas];
+        for (int i = 0; i < filas; i++) {
+            if (letras[i].length != columnas) {
+                throw new IllegalArgumentException("Todas las filas del tablero deben tener " + columnas + " columnas.");
+            }
+            for (int j = 0; j < columnas; j++) {
+                byte codigo = alfabeto.codificar(letras[i][j]);
+                if (codigo == Alfabeto.SIN_CODIGO) {
+                    throw new IllegalArgumentException("Letra no válida en la fila " + (i + 1)
+                        + ", columna " + (j + 1) + ": '" + letras[i][j] + "'.");
+                }
+                codigos[i * columnas + j] = codigo;
             }
         }
     }
 
+    /**
+     * Construye un tablero a partir de un arreglo plano de códigos ordenado por filas.
+     * El arreglo no se copia, por lo que no debe modificarse después.
+     *
+     * @param filas Número de filas.
+     * @param columnas Número de columnas.
+     * @param codigos Códigos de las letras del tablero, fila por fila.
+     * @param alfabeto Alfabeto de los códigos.
+     * @param indice Índice de letras ya calculado para estos códigos, o null para calcularlo al primer uso.
+     * @throws IllegalArgumentException si el largo del arreglo no coincide con las dimensiones
+     *         o algún código no pertenece al alfabeto.
+     */
+    public Tablero(int filas, int columnas, byte[] codigos, Alfabeto alfabeto, IndiceLetras indice) {
+        if (filas < 0 || columnas < 0 || codigos.length != filas * columnas) {
+            throw new IllegalArgumentException("Dimensiones " + filas + "x" + columnas
+                + " no coinciden con " + codigos.length + " letras.");
+        }
+        for (byte codigo : codigos) {
+            if (codigo < 0 || codigo >= alfabeto.getCantidad()) {
+                throw new IllegalArgumentException("Código de letra inválido: " + codigo);
+            }
+        }
+        this.filas = filas;
+        this.columnas = columnas;
+        this.codigos = codigos;
+        this.alfabeto = alfabeto;
+        this.indice = indice;
+    }
+
+    /**
+     * Construye los nodos grafo para cada letra del tablero.
+     *
+     * @return Matriz de nodos sin conectar.
+     */
+    private NodoGrafo[][] construirNodos() {
+        NodoGrafo[][] nodos = new NodoGrafo[filas][columnas];
+        for (int i = 0; i < filas; i++) {
+            for (int j = 0; j < columnas; j++) {
+                nodos[i][j] = new NodoGrafo(alfabeto.decodificar(codigos[i * columnas + j]), i, j);
+            }
+        }
+        return nodos;
+    }
+
     /**
      * Conecta cada nodo con sus adyacentes válidos (hasta 8 direcciones).
      * Se consideran vecinos horizontales, verticales y diagonales.
+     *
+     * @param nodos Matriz de nodos a conectar.
      */
-    private void conectarAdyacentes() {
+    private void conectarAdyacentes(NodoGrafo[][] nodos) {
         // Direcciones relativas para los 8 vecinos posibles
         int[] dx = {-1, -1, -1, 0, 0, 1, 1, 1};
         int[] dy = {-1, 0, 1, -1, 1, -1, 0, 1};
 
-        for (int i = 0; i < dimension; i++) {
-            for (int j = 0; j < dimension; j++) {
+        for (int i = 0; i < filas; i++) {
+            for (int j = 0; j < columnas; j++) {
                 for (int dir = 0; dir < 8; dir++) {
                     int ni = i + dx[dir];
                     int nj = j + dy[dir];
                     if (esValido(ni, nj)) {
-                        matriz[i][j].agregarAdyacente(matriz[ni][nj]);
+                        nodos[i][j].agregarAdyacente(nodos[ni][nj]);
                     }
                 }
             }
@@ -67,16 +143,120 @@ public class Tablero {
      * @return true si la posición es válida dentro del tablero, false de lo contrario.
      */
     private boolean esValido(int i, int j) {
-        return i >= 0 && j >= 0 && i < dimension && j < dimension;
+        return i >= 0 && j >= 0 && i < filas && j < columnas;
     }
 
     /**
      * Obtiene la matriz completa de nodos del tablero.
+     * El grafo se construye la primera vez que se llama a este método.
      *
      * @return Matriz bidimensional de objetos NodoGrafo.
      */
     public NodoGrafo[][] getMatriz() {
-        return matriz;
+        NodoGrafo[][] m = matriz;
+        if (m == null) {
+            synchronized (this) {
+                m = matriz;
+                if (m == null) {
+                    m = construirNodos();
+                    conectarAdyacentes(m);
+                    matriz = m;
+                }
+            }
+        }
+        return m;
+    }
+
+    /**
+     * Obtiene el número de filas del tablero.
+     *
+     * @return Número de filas.
+     */
+    public int getFilas() {
+        return filas;
+    }
+
+    /**
+     * Obtiene el número de columnas del tablero.
+     *
+     * @return Número de columnas.
+     */
+    public int getColumnas() {
+        return columnas;
+    }
+
+    /**
+     * Obtiene la letra de una celda dada su fila y columna.
+     *
+     * @param fila Fila de la celda.
+     * @param columna Columna de la celda.
+     * @return Letra de la celda.
+     */
+    public char getLetra(int fila, int columna) {
+        return alfabeto.decodificar(codigos[fila * columnas + columna]);
+    }
+
+    /**
+     * Escribe en {@code destino} las celdas adyacentes (hasta 8) a una celda del arreglo plano.
+     * Los vecinos se recorren en el mismo orden de direcciones que usa el grafo de nodos.
+     *
+     * @param celda Celda de origen (fila * columnas + columna).
+     * @param destino Arreglo de al menos 8 posiciones donde se guardan los vecinos.
+     * @return Número de vecinos escritos.
+     */
+    public int vecinos(int celda, int[] destino) {
+        int fila = celda / columnas;
+        int columna = celda - fila * columnas;
+        int n = 0;
+        for (int df = -1; df <= 1; df++) {
+            int f = fila + df;
+            if (f < 0 || f >= filas) continue;
+            for (int dc = -1; dc <= 1; dc++) {
+                int c = columna + dc;
+                if ((df == 0 && dc == 0) || c < 0 || c >= columnas) continue;
+                destino[n++] = f * columnas + c;
+            }
+        }
+        return n;
+    }
+
+    /**
+     * Obtiene el arreglo plano de códigos de las letras del tablero, ordenado por filas.
+     * Se devuelve el arreglo interno, por lo que no debe modificarse.
+     *
+     * @return Códigos de las letras del tablero.
+     */
+    public byte[] getCodigos() {
+        return codigos;
+    }
+
+    /**
+     * Obtiene el alfabeto con el que se codifican las letras del tablero.
+     *
+     * @return Alfabeto del tablero.
+     */
+    public Alfabeto getAlfabeto() {
+        return alfabeto;
+    }
+
+    /**
+     * Obtiene el índice de posiciones por letra del tablero.
+     * Se calcula la primera vez que se solicita, salvo que se haya recibido al construir el tablero.
+     *
+     * @return Índice de letras del tablero.
+     */
+    public IndiceLetras getIndiceLetras() {
+        IndiceLetras i = indice;
+        if (i == null) {
+            synchronized (this) {
+                i = indice;
+                if (i == null) {
+                    i = new IndiceLetras(codigos);
+                    indice = i;
+                }
+            }
+        }
+        return i;
     }
 
     /**
@@ -87,6 +267,6 @@ public class Tablero {
      * @return NodoGrafo ubicado en la fila y columna indicadas.
      */
     public NodoGrafo getNodo(int fila, int columna) {
-        return matriz[fila][columna];
+        return getMatriz()[fila][columna];
     }
 }
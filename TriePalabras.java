@@ -0,0 +1,165 @@
+package sopadeletras.estructuras;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import sopadeletras.modelo.Alfabeto;
+
+/**
+ * Trie de palabras codificadas con un {@link Alfabeto}, guardado en arreglos planos.
+ * Cada nodo tiene {@link Alfabeto#TAMANO} hijos en posiciones consecutivas del arreglo
+ * {@code hijos} (nodo * TAMANO + código), de modo que bajar un nivel es un solo acceso a arreglo.
+ * El nodo 0 es la raíz; un hijo 0 indica que no existe.
+ */
+public class TriePalabras {
+    /** Hijos de cada nodo, {@link Alfabeto#TAMANO} por nodo; 0 si no hay hijo. */
+    private int[] hijos;
+
+    /** Indica para cada nodo si en él termina una palabra. */
+    private boolean[] terminal;
+
+    /** Número de nodos en uso (incluida la raíz). */
+    private int nodos;
+
+    /** Número de palabras almacenadas. */
+    private int tamano;
+
+    /**
+     * Construye un trie vacío.
+     */
+    public TriePalabras() {
+        this.hijos = new int[16 * Alfabeto.TAMANO];
+        this.terminal = new boolean[16];
+        this.nodos = 1;
+    }
+
+    /**
+     * Agrega una palabra al trie.
+     *
+     * @param palabra Códigos de las letras de la palabra (sin {@link Alfabeto#SIN_CODIGO}).
+     * @return true si la palabra no estaba en el trie.
+     */
+    public boolean agregar(byte[] palabra) {
+        int nodo = 0;
+        for (byte codigo : palabra) {
+            int posicion = nodo * Alfabeto.TAMANO + codigo;
+            if (hijos[posicion] == 0) {
+                // nuevoNodo() puede reemplazar el arreglo de hijos, así que se llama antes de indexarlo
+                int hijo = nuevoNodo();
+                hijos[posicion] = hijo;
+            }
+            nodo = hijos[posicion];
+        }
+        if (terminal[nodo]) return false;
+        terminal[nodo] = true;
+        tamano++;
+        return true;
+    }
+
+    /**
+     * Indica si la palabra está en el trie.
+     *
+     * @param palabra Códigos de las letras de la palabra.
+     * @return true si la palabra está almacenada.
+     */
+    public boolean contiene(byte[] palabra) {
+        int nodo = buscarNodo(palabra, palabra.length);
+        return nodo >= 0 && terminal[nodo];
+    }
+
+    /**
+     * Quita una palabra del trie. Los nodos quedan en su lugar para reutilizarse si se vuelve a agregar.
+     *
+     * @param palabra Códigos de las letras de la palabra.
+     * @return true si la palabra estaba en el trie.
+     */
+    public boolean eliminar(byte[] palabra) {
+        int nodo = buscarNodo(palabra, palabra.length);
+        if (nodo < 0 || !terminal[nodo]) return false;
+        terminal[nodo] = false;
+        tamano--;
+        return true;
+    }
+
+    /**
+     * Obtiene las palabras que empiezan con un prefijo, en el orden de los códigos de sus letras.
+     * Solo se recorre el subárbol del prefijo.
+     *
+     * @param prefijo Códigos de las letras del prefijo.
+     * @return Códigos de cada palabra encontrada (vacía si ninguna empieza así).
+     */
+    public List<byte[]> conPrefijo(byte[] prefijo) {
+        List<byte[]> resultado = new ArrayList<>();
+        int nodo = buscarNodo(prefijo, prefijo.length);
+        if (nodo >= 0) {
+            recolectar(nodo, Arrays.copyOf(prefijo, prefijo.length + 16), prefijo.length, resultado);
+        }
+        return resultado;
+    }
+
+    /**
+     * Agrega a la lista las palabras del subárbol de un nodo.
+     *
+     * @param nodo Nodo del que se parte.
+     * @param camino Códigos de las letras desde la raíz hasta el nodo.
+     * @param largo Número de letras en uso de {@code camino}.
+     * @param resultado Lista donde se agregan las palabras.
+     * @return Arreglo del camino, que puede haberse reemplazado por uno más grande.
+     */
+    private byte[] recolectar(int nodo, byte[] camino, int largo, List<byte[]> resultado) {
+        if (terminal[nodo]) {
+            resultado.add(Arrays.copyOf(camino, largo));
+        }
+        int base = nodo * Alfabeto.TAMANO;
+        for (int codigo = 0; codigo < Alfabeto.TAMANO; codigo++) {
+            int hijo = hijos[base + codigo];
+            if (hijo == 0) continue;
+            if (largo == camino.length) {
+                camino = Arrays.copyOf(camino, largo * 2);
+            }
+            camino[largo] = (byte) codigo;
+            camino = recolectar(hijo, camino, largo + 1, resultado);
+        }
+        return camino;
+    }
+
+    /**
+     * Obtiene el nodo al que lleva un prefijo.
+     *
+     * @param prefijo Códigos de las letras del prefijo.
+     * @param largo Número de letras del prefijo que se usan.
+     * @return Nodo del prefijo, o -1 si ninguna palabra empieza así.
+     */
+    private int buscarNodo(byte[] prefijo, int largo) {
+        int nodo = 0;
+        for (int i = 0; i < largo; i++) {
+            byte codigo = prefijo[i];
+            if (codigo < 0) return -1;
+            nodo = hijos[nodo * Alfabeto.TAMANO + codigo];
+            if (nodo == 0) return -1;
+        }
+        return nodo;
+    }
+
+    /**
+     * Reserva un nodo nuevo, duplicando la capacidad de los arreglos si están llenos.
+     *
+     * @return Número del nodo reservado.
+     */
+    private int nuevoNodo() {
+        if (nodos == terminal.length) {
+            terminal = Arrays.copyOf(terminal, nodos * 2);
+            hijos = Arrays.copyOf(hijos, nodos * 2 * Alfabeto.TAMANO);
+        }
+        return nodos++;
+    }
+
+    /**
+     * Obtiene el número de palabras almacenadas.
+     *
+     * @return Número de palabras.
+     */
+    public int tamano() {
+        return tamano;
+    }
+}
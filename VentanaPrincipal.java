@@ -1,15 +1,35 @@
 package sopadeletras.vista;
 
+import sopadeletras.archivo.CargadorSopa;
+import sopadeletras.archivo.ErrorLinea;
+import sopadeletras.archivo.ExportadorResultados;
+import sopadeletras.archivo.OyenteCarga;
+import sopadeletras.archivo.SnapshotSopa;
 import sopadeletras.estructuras.ListaPalabras;
+import sopadeletras.logica.BusquedaAproximada;
+import sopadeletras.logica.BusquedaPatron;
+import sopadeletras.logica.ContextoBusqueda;
+import sopadeletras.logica.CoincidenciaAproximada;
 import sopadeletras.logica.ControladorBusqueda;
+import sopadeletras.logica.EstadoBusqueda;
+import sopadeletras.logica.IndiceKGramas;
+import sopadeletras.logica.PatronBusqueda;
+import sopadeletras.logica.PresupuestoBusqueda;
+import sopadeletras.logica.RegistroTraza;
 import sopadeletras.modelo.NodoGrafo;
+import sopadeletras.modelo.Sopa;
 import sopadeletras.modelo.Tablero;
+import sopadeletras.visualizacion.ControlesTraza;
 import sopadeletras.visualizacion.PanelBFST;
 import sopadeletras.visualizacion.ResultadoBFS;
 
 import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
 import java.awt.*;
 import java.io.*;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Ventana principal de la aplicación Sopa de Letras.
@@ -18,15 +38,62 @@ import java.io.*;
  */
 public class VentanaPrincipal extends JFrame {
     private JTextArea areaTablero;
-    private JTextArea areaDiccionario;
-    private JTextArea areaResultados;
+    private JList<String> listaDiccionario;
+    private JTextField campoFiltro;
+    private JTable tablaResultados;
+    private JLabel etiquetaEstado;
     private JTextField campoPalabra;
-    private JRadioButton radioDFS, radioBFS;
-    private JButton botonBuscarTodas, botonBuscarUna, botonCargar;
+    private JSpinner selectorErrores;
+    private JRadioButton radioDFS, radioBFS, radioMosaicos;
+    private JCheckBox checkTraza;
+    private JButton botonBuscarTodas, botonExportar, botonBuscarUna, botonCargar;
+    private JProgressBar barraCarga;
     private PanelBFST panelBFST;
+    private ControlesTraza controlesTraza;
+
+    /** Número máximo de coincidencias que se muestran para un patrón con comodines. */
+    private static final int LIMITE_PATRON = 1000;
+
+    /** Número máximo de errores de edición que se pueden elegir para la búsqueda aproximada. */
+    private static final int MAX_ERRORES = 3;
+
+    /** Número máximo de coincidencias que se muestran en una búsqueda aproximada. */
+    private static final int LIMITE_APROXIMADA = 100;
+
+    /** Milisegundos sin teclear tras los cuales se aplica el filtro del diccionario. */
+    private static final int ESPERA_FILTRO = 150;
+
+    /** Largo de las cadenas cortas que se indexan al cargar un tablero. */
+    private static final int K_INDICE = 3;
+
+    /** Presupuesto de cada búsqueda hecha desde la ventana, para que un tablero adverso no la congele. */
+    private static final PresupuestoBusqueda PRESUPUESTO =
+        new PresupuestoBusqueda(5_000_000, 256L * 1024 * 1024, 2000);
 
     private ListaPalabras diccionario;
     private Tablero tablero;
+    private IndiceKGramas kgramas;
+
+    /** Controlador de búsqueda del tablero cargado, compartido por todas las búsquedas. */
+    private ControladorBusqueda buscador;
+
+    /** Palabras del diccionario que se muestran (todas o las que pasan el filtro). */
+    private final ModeloListaPalabras modeloDiccionario = new ModeloListaPalabras();
+
+    /** Filas de la tabla de resultados. */
+    private final ModeloResultados modeloResultados = new ModeloResultados();
+
+    /** Traza de la última búsqueda con "Grabar traza", reutilizada entre búsquedas. */
+    private RegistroTraza traza;
+
+    /** Contexto con la traza asignada, separado del de cada hilo para que las demás búsquedas no registren. */
+    private ContextoBusqueda contextoTraza;
+
+    /** Temporizador que agrupa las pulsaciones del filtro en una sola búsqueda por prefijo. */
+    private Timer temporizadorFiltro;
+
+    /** Número del último trabajo de fondo; los anteriores ya no actualizan la ventana. */
+    private int trabajoActual;
 
     /**
      * Constructor que inicializa la interfaz gráfica.
@@ -41,23 +108,42 @@ public class VentanaPrincipal extends JFrame {
         JPanel panelSuperior = new JPanel();
         botonCargar = new JButton("Cargar archivo");
         panelSuperior.add(botonCargar);
+        barraCarga = new JProgressBar(0, 100);
+        barraCarga.setStringPainted(true);
+        barraCarga.setVisible(false);
+        panelSuperior.add(barraCarga);
         add(panelSuperior, BorderLayout.NORTH);
 
-        // Panel para visualizar recorrido BFS
+        // Panel para visualizar recorrido BFS o reproducir una traza
         panelBFST = new PanelBFST();
         panelBFST.setPreferredSize(new Dimension(600, 200));
-        add(panelBFST, BorderLayout.EAST);
+        controlesTraza = new ControlesTraza(panelBFST);
+        JPanel panelVisualizacion = new JPanel(new BorderLayout());
+        panelVisualizacion.add(panelBFST, BorderLayout.CENTER);
+        panelVisualizacion.add(controlesTraza, BorderLayout.SOUTH);
+        add(panelVisualizacion, BorderLayout.EAST);
 
-        // Panel central con áreas de texto para tablero y diccionario
+        // Panel central con el tablero y el diccionario filtrable
         JPanel panelCentro = new JPanel(new GridLayout(1, 2));
         areaTablero = new JTextArea(8, 20);
-        areaDiccionario = new JTextArea(8, 20);
         panelCentro.add(new JScrollPane(areaTablero));
-        panelCentro.add(new JScrollPane(areaDiccionario));
+
+        // La celda prototipo fija el alto de las filas, así la lista no mide cada palabra
+        listaDiccionario = new JList<>(modeloDiccionario);
+        listaDiccionario.setPrototypeCellValue("MMMMMMMMMMMMMMMMMMMM");
+        campoFiltro = new JTextField(20);
+        JPanel panelDiccionario = new JPanel(new BorderLayout());
+        JPanel panelFiltro = new JPanel(new BorderLayout());
+        panelFiltro.add(new JLabel("Filtrar: "), BorderLayout.WEST);
+        panelFiltro.add(campoFiltro, BorderLayout.CENTER);
+        panelDiccionario.add(panelFiltro, BorderLayout.NORTH);
+        panelDiccionario.add(new JScrollPane(listaDiccionario), BorderLayout.CENTER);
+        panelCentro.add(panelDiccionario);
         add(panelCentro, BorderLayout.CENTER);
 
-        // Panel inferior con controles de búsqueda y resultados
-        JPanel panelInferior = new JPanel(new GridLayout(4, 1));
+        // Panel inferior con controles de búsqueda, tabla de resultados y estado
+        JPanel panelInferior = new JPanel(new BorderLayout());
+        JPanel panelControles = new JPanel(new GridLayout(3, 1));
 
         campoPalabra = new JTextField(20);
         botonBuscarUna = new JButton("Buscar palabra específica");
@@ -65,26 +151,46 @@ public class VentanaPrincipal extends JFrame {
         JPanel panelBusqueda = new JPanel();
         panelBusqueda.add(new JLabel("Palabra:"));
         panelBusqueda.add(campoPalabra);
+        selectorErrores = new JSpinner(new SpinnerNumberModel(0, 0, MAX_ERRORES, 1));
+        selectorErrores.setToolTipText("Con más de 0 errores se buscan las coincidencias aproximadas");
+        panelBusqueda.add(new JLabel("Errores:"));
+        panelBusqueda.add(selectorErrores);
         panelBusqueda.add(botonBuscarUna);
-        panelInferior.add(panelBusqueda);
+        panelControles.add(panelBusqueda);
 
         radioDFS = new JRadioButton("DFS", true);
         radioBFS = new JRadioButton("BFS");
+        radioMosaicos = new JRadioButton("Mosaicos");
+        radioMosaicos.setToolTipText("DFS en paralelo por regiones, para tableros muy grandes");
         ButtonGroup grupo = new ButtonGroup();
         grupo.add(radioDFS);
         grupo.add(radioBFS);
+        grupo.add(radioMosaicos);
         JPanel panelMetodos = new JPanel();
         panelMetodos.add(new JLabel("Método:"));
         panelMetodos.add(radioDFS);
         panelMetodos.add(radioBFS);
-        panelInferior.add(panelMetodos);
+        panelMetodos.add(radioMosaicos);
+        checkTraza = new JCheckBox("Grabar traza");
+        panelMetodos.add(checkTraza);
+        panelControles.add(panelMetodos);
 
         botonBuscarTodas = new JButton("Buscar todas las palabras");
-        panelInferior.add(botonBuscarTodas);
+        botonExportar = new JButton("Buscar todas y exportar...");
+        JPanel panelTodas = new JPanel();
+        panelTodas.add(botonBuscarTodas);
+        panelTodas.add(botonExportar);
+        panelControles.add(panelTodas);
+        panelInferior.add(panelControles, BorderLayout.NORTH);
+
+        tablaResultados = new JTable(modeloResultados);
+        tablaResultados.setFillsViewportHeight(true);
+        JScrollPane scrollResultados = new JScrollPane(tablaResultados);
+        scrollResultados.setPreferredSize(new Dimension(500, 120));
+        panelInferior.add(scrollResultados, BorderLayout.CENTER);
 
-        areaResultados = new JTextArea(5, 50);
-        areaResultados.setEditable(false);
-        panelInferior.add(new JScrollPane(areaResultados));
+        etiquetaEstado = new JLabel(" ");
+        panelInferior.add(etiquetaEstado, BorderLayout.SOUTH);
 
         add(panelInferior, BorderLayout.SOUTH);
 
@@ -97,107 +203,500 @@ public class VentanaPrincipal extends JFrame {
     private void agregarEventos() {
         botonCargar.addActionListener(e -> cargarArchivo());
 
-        botonBuscarTodas.addActionListener(e -> {
-            if (tablero == null || diccionario == null) return;
-            ControladorBusqueda buscador = new ControladorBusqueda(tablero);
-            areaResultados.setText("");
-            for (String palabra : diccionario.aArreglo()) {
-                boolean encontrada = radioDFS.isSelected()
-                    ? buscador.buscarPalabraDFS(palabra)
-                    : buscador.buscarPalabraBFS(palabra);
-                if (encontrada) {
-                    areaResultados.append(palabra + " encontrada\n");
-                }
+        botonBuscarTodas.addActionListener(e -> buscarTodas(null));
+        botonExportar.addActionListener(e -> exportarTodas());
+
+        temporizadorFiltro = new Timer(ESPERA_FILTRO, e -> aplicarFiltro());
+        temporizadorFiltro.setRepeats(false);
+        campoFiltro.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                temporizadorFiltro.restart();
+            }
+
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                temporizadorFiltro.restart();
+            }
+
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+                temporizadorFiltro.restart();
             }
         });
 
         botonBuscarUna.addActionListener(e -> {
-            String palabra = campoPalabra.getText().trim().toUpperCase();
-            if (palabra.length() < 3 || tablero == null) return;
-            ControladorBusqueda buscador = new ControladorBusqueda(tablero);
-            ResultadoBFS resultado = buscador.buscarConVisualizacion(palabra);
-            if (resultado != null && resultado.fueEncontrado()) {
-                areaResultados.setText("La palabra '" + palabra + "' fue encontrada.");
-                diccionario.agregar(palabra);
-                actualizarDiccionario();
-                panelBFST.setResultado(resultado);
-            } else {
-                areaResultados.setText("La palabra '" + palabra + "' NO fue encontrada.");
-                panelBFST.setResultado(null);
+            if (tablero == null) return;
+            String palabra = tablero.getAlfabeto().normalizar(campoPalabra.getText().trim());
+            if (PatronBusqueda.esPatron(palabra)) {
+                buscarPatron(palabra);
+                return;
+            }
+            if (palabra.length() < 3) return;
+            int errores = (Integer) selectorErrores.getValue();
+            if (errores > 0) {
+                buscarAproximada(palabra, errores);
+                return;
             }
+            buscarPalabra(palabra);
         });
     }
 
     /**
-     * Carga un archivo de texto con el formato esperado para sopa de letras y diccionario.
-     * Actualiza la vista con los datos cargados.
+     * Busca una palabra con BFS en un hilo de fondo, con el mismo presupuesto que "Buscar todas", y
+     * muestra su recorrido en el panel. Con "Grabar traza" marcado repite la búsqueda con el método
+     * elegido registrando sus eventos, y carga la traza en el panel para reproducirla paso a paso.
+     *
+     * @param palabra Palabra a buscar, ya normalizada.
      */
-    private void cargarArchivo() {
+    private void buscarPalabra(String palabra) {
+        ControladorBusqueda controlador = buscador;
+        Tablero tableroBusqueda = tablero;
+        ListaPalabras diccionarioBusqueda = diccionario;
+        boolean grabar = checkTraza.isSelected();
+        // Los mosaicos recorren con DFS, así que su traza es la de DFS
+        boolean dfs = !radioBFS.isSelected();
+        if (grabar && traza == null) {
+            traza = new RegistroTraza();
+            contextoTraza = new ContextoBusqueda();
+            contextoTraza.setTraza(traza);
+        }
+        RegistroTraza registro = traza;
+        ContextoBusqueda contextoRegistro = contextoTraza;
+        controlesTraza.cargar(null, null);
+        panelBFST.setResultado(null);
+        int trabajo = empezarTrabajo();
+        etiquetaEstado.setText("Buscando '" + palabra + "'...");
+
+        new SwingWorker<ResultadoBFS, Void>() {
+            /** Indica si la búsqueda con visualización agotó el presupuesto. */
+            private boolean abortada;
+
+            /** Resultado de la búsqueda repetida para grabar la traza. */
+            private EstadoBusqueda estadoTraza;
+
+            @Override
+            protected ResultadoBFS doInBackground() {
+                ContextoBusqueda contexto = ContextoBusqueda.actual();
+                ResultadoBFS resultado = controlador.buscarConVisualizacion(palabra, PRESUPUESTO, contexto);
+                abortada = contexto.presupuestoAgotado();
+                if (grabar) {
+                    registro.limpiar();
+                    estadoTraza = dfs
+                        ? controlador.buscarPalabraDFS(palabra, PRESUPUESTO, contextoRegistro)
+                        : controlador.buscarPalabraBFS(palabra, PRESUPUESTO, contextoRegistro);
+                }
+                return resultado;
+            }
+
+            @Override
+            protected void done() {
+                if (!terminarTrabajo(trabajo)) return;
+                try {
+                    ResultadoBFS resultado = get();
+                    boolean encontrada = resultado != null && resultado.fueEncontrado();
+                    String texto;
+                    if (encontrada) {
+                        texto = "La palabra '" + palabra + "' fue encontrada.";
+                        diccionarioBusqueda.agregar(palabra);
+                        actualizarDiccionario();
+                    } else if (abortada) {
+                        texto = "La búsqueda de '" + palabra + "' fue abortada: presupuesto agotado.";
+                    } else {
+                        texto = "La palabra '" + palabra + "' NO fue encontrada.";
+                    }
+                    if (grabar) {
+                        controlesTraza.cargar(registro, tableroBusqueda);
+                        texto += " Traza " + (dfs ? "DFS" : "BFS") + " (" + estadoTraza + "): "
+                            + registro.getTotal() + " eventos";
+                        if (registro.getDescartados() > 0) {
+                            texto += ", se conservan los últimos " + registro.getCantidad();
+                        }
+                        texto += ".";
+                    } else {
+                        panelBFST.setResultado(encontrada ? resultado : null);
+                    }
+                    etiquetaEstado.setText(texto);
+                } catch (Exception ex) {
+                    Throwable causa = ex.getCause() != null ? ex.getCause() : ex;
+                    etiquetaEstado.setText("Error durante la búsqueda: " + causa.getMessage());
+                }
+            }
+        }.execute();
+    }
+
+    /**
+     * Pide un archivo de destino y busca todas las palabras exportando cada resultado a medida
+     * que se obtiene (CSV, o JSON por líneas si la extensión es ".jsonl").
+     */
+    private void exportarTodas() {
+        if (tablero == null || diccionario == null) return;
         JFileChooser chooser = new JFileChooser();
-        int resultado = chooser.showOpenDialog(this);
-        if (resultado == JFileChooser.APPROVE_OPTION) {
-            File archivo = chooser.getSelectedFile();
-            try (BufferedReader br = new BufferedReader(new FileReader(archivo))) {
-                diccionario = new ListaPalabras();
-                char[][] letras = new char[4][4];
-                String linea;
-                boolean enDic = false, enTab = false;
-                int fila = 0;
-
-                while ((linea = br.readLine()) != null) {
-                    if (linea.equalsIgnoreCase("dic")) {
-                        enDic = true;
-                    } else if (linea.equalsIgnoreCase("/dic")) {
-                        enDic = false;
-                    } else if (linea.equalsIgnoreCase("tab")) {
-                        enTab = true;
-                    } else if (linea.equalsIgnoreCase("/tab")) {
-                        enTab = false;
-                    } else if (enDic) {
-                        diccionario.agregar(linea.trim().toUpperCase());
-                    } else if (enTab) {
-                        String[] letrasLinea = linea.split(",");
-                        for (int i = 0; i < 4; i++) {
-                            letras[fila][i] = letrasLinea[i].trim().charAt(0);
+        if (chooser.showSaveDialog(this) != JFileChooser.APPROVE_OPTION) return;
+        buscarTodas(chooser.getSelectedFile());
+    }
+
+    /**
+     * Busca todas las palabras del diccionario en un hilo de fondo. Las palabras encontradas o
+     * abortadas se publican a la tabla por lotes, con el camino de las encontradas, y la ventana
+     * sigue respondiendo mientras tanto. Si se indica un archivo, todos los resultados (también
+     * los no encontrados) se escriben en él con un {@link ExportadorResultados}.
+     *
+     * @param destino Archivo donde exportar los resultados, o null para no exportar.
+     */
+    private void buscarTodas(File destino) {
+        if (tablero == null || diccionario == null) return;
+        String[] palabras = diccionario.aArreglo();
+        ControladorBusqueda controlador = buscador;
+        int columnas = tablero.getColumnas();
+        boolean dfs = radioDFS.isSelected();
+        boolean porMosaicos = radioMosaicos.isSelected();
+        modeloResultados.limpiar();
+        int trabajo = empezarTrabajo();
+        etiquetaEstado.setText("Buscando " + palabras.length + " palabras...");
+
+        new SwingWorker<Integer, ModeloResultados.Fila>() {
+            /** Palabras revisadas hasta el último lote publicado. */
+            private volatile int revisadas;
+
+            @Override
+            protected Integer doInBackground() throws IOException {
+                ContextoBusqueda contexto = ContextoBusqueda.actual();
+                ExportadorResultados exportador = destino == null ? null
+                    : new ExportadorResultados(destino.toPath(),
+                        ExportadorResultados.Formato.segunExtension(destino.toPath()), columnas);
+                try {
+                    int encontradas = 0;
+                    for (int i = 0; i < palabras.length; i++) {
+                        String palabra = palabras[i];
+                        long inicio = System.nanoTime();
+                        EstadoBusqueda estado = dfs
+                            ? controlador.buscarPalabraDFS(palabra, PRESUPUESTO, contexto)
+                            : porMosaicos
+                            ? controlador.buscarPalabraMosaicos(palabra, PRESUPUESTO, contexto)
+                            : controlador.buscarPalabraBFS(palabra, PRESUPUESTO, contexto);
+                        long duracion = System.nanoTime() - inicio;
+                        int[] camino = estado == EstadoBusqueda.ENCONTRADA ? contexto.getCaminoEncontrado() : null;
+                        if (exportador != null) {
+                            exportador.escribir(palabra, estado, camino, duracion);
+                        }
+                        if (estado == EstadoBusqueda.ENCONTRADA) {
+                            encontradas++;
+                            publish(new ModeloResultados.Fila(palabra, "encontrada", formatearCeldas(camino, columnas)));
+                        } else if (estado == EstadoBusqueda.ABORTADA) {
+                            publish(new ModeloResultados.Fila(palabra, "abortada", "presupuesto agotado"));
                         }
-                        fila++;
+                        revisadas = i + 1;
                     }
+                    return encontradas;
+                } finally {
+                    if (exportador != null) exportador.close();
                 }
+            }
 
-                tablero = new Tablero(letras);
-                actualizarTablero(letras);
-                actualizarDiccionario();
-                areaResultados.setText("Archivo cargado correctamente.");
+            @Override
+            protected void process(List<ModeloResultados.Fila> lote) {
+                if (trabajo != trabajoActual) return;
+                modeloResultados.agregar(lote);
+                etiquetaEstado.setText("Buscando... " + revisadas + " de " + palabras.length + " palabras revisadas.");
+            }
 
-            } catch (Exception ex) {
-                areaResultados.setText("Error al leer el archivo.");
+            @Override
+            protected void done() {
+                if (!terminarTrabajo(trabajo)) return;
+                try {
+                    String texto = get() + " de " + palabras.length + " palabras encontradas.";
+                    etiquetaEstado.setText(destino == null ? texto : texto + " Resultados exportados a " + destino.getName() + ".");
+                } catch (Exception ex) {
+                    Throwable causa = ex.getCause() != null ? ex.getCause() : ex;
+                    etiquetaEstado.setText("Error durante la búsqueda: " + causa.getMessage());
+                }
             }
+        }.execute();
+    }
+
+    /**
+     * Empieza un trabajo de fondo: deshabilita los botones que cargan, buscan o exportan, para que
+     * ningún otro trabajo vacíe la tabla o cambie el tablero mientras este la llena.
+     *
+     * @return Número del trabajo, para comprobar en sus actualizaciones que sigue siendo el último.
+     */
+    private int empezarTrabajo() {
+        setBotonesHabilitados(false);
+        return ++trabajoActual;
+    }
+
+    /**
+     * Termina un trabajo de fondo y vuelve a habilitar los botones, salvo que otro trabajo lo haya reemplazado.
+     *
+     * @param trabajo Número del trabajo.
+     * @return false si el trabajo fue reemplazado y no debe tocar la ventana.
+     */
+    private boolean terminarTrabajo(int trabajo) {
+        if (trabajo != trabajoActual) return false;
+        setBotonesHabilitados(true);
+        return true;
+    }
+
+    /**
+     * Habilita o deshabilita los botones que lanzan trabajos de fondo.
+     *
+     * @param habilitados true para habilitarlos.
+     */
+    private void setBotonesHabilitados(boolean habilitados) {
+        botonCargar.setEnabled(habilitados);
+        botonBuscarUna.setEnabled(habilitados);
+        botonBuscarTodas.setEnabled(habilitados);
+        botonExportar.setEnabled(habilitados);
+    }
+
+    /**
+     * Convierte un camino de celdas en el texto "(fila,columna) (fila,columna) ...".
+     *
+     * @param celdas Celdas del camino (fila * columnas + columna), o null.
+     * @param columnas Número de columnas del tablero.
+     * @return Texto del camino, vacío si no hay camino.
+     */
+    private static String formatearCeldas(int[] celdas, int columnas) {
+        if (celdas == null) return "";
+        StringBuilder texto = new StringBuilder();
+        for (int celda : celdas) {
+            if (texto.length() > 0) texto.append(' ');
+            texto.append('(').append(celda / columnas).append(',').append(celda % columnas).append(')');
         }
+        return texto.toString();
     }
 
     /**
-     * Actualiza el área de texto que muestra el tablero con las letras cargadas.
+     * Muestra en la lista las palabras del diccionario que empiezan con el texto del filtro,
+     * buscándolas en el índice del diccionario; sin filtro se muestran todas.
+     */
+    private void aplicarFiltro() {
+        if (diccionario == null) return;
+        String prefijo = campoFiltro.getText().trim();
+        if (prefijo.isEmpty()) {
+            modeloDiccionario.setPalabras(diccionario.aArreglo());
+        } else {
+            modeloDiccionario.setPalabras(diccionario.buscarPrefijo(prefijo));
+        }
+    }
+
+    /**
+     * Busca un patrón con comodines en el tablero en un hilo de fondo, con el mismo presupuesto que
+     * "Buscar todas", y agrega a la tabla las ubicaciones a medida que se encuentran.
      *
-     * @param letras Matriz de letras del tablero.
+     * @param texto Patrón a buscar (por ejemplo "C?S?" o "PER*").
+     */
+    private void buscarPatron(String texto) {
+        BusquedaPatron busqueda;
+        try {
+            busqueda = new BusquedaPatron(tablero, PatronBusqueda.compilar(texto,
+                PatronBusqueda.MAX_COMODIN_DEFECTO, tablero.getAlfabeto()));
+        } catch (IllegalArgumentException ex) {
+            etiquetaEstado.setText(ex.getMessage());
+            return;
+        }
+        int columnas = tablero.getColumnas();
+        modeloResultados.limpiar();
+        controlesTraza.cargar(null, null);
+        panelBFST.setResultado(null);
+        int trabajo = empezarTrabajo();
+        etiquetaEstado.setText("Buscando '" + texto + "'...");
+
+        new SwingWorker<EstadoBusqueda, ModeloResultados.Fila>() {
+            /** Coincidencias encontradas hasta ahora. */
+            private volatile int encontradas;
+
+            @Override
+            protected EstadoBusqueda doInBackground() {
+                return busqueda.buscar(LIMITE_PATRON, PRESUPUESTO, c -> {
+                    encontradas++;
+                    publish(new ModeloResultados.Fila(c.getPalabra(), "coincidencia",
+                        formatearCeldas(c.getCeldas(), columnas)));
+                    return true;
+                });
+            }
+
+            @Override
+            protected void process(List<ModeloResultados.Fila> lote) {
+                if (trabajo != trabajoActual) return;
+                modeloResultados.agregar(lote);
+            }
+
+            @Override
+            protected void done() {
+                if (!terminarTrabajo(trabajo)) return;
+                try {
+                    EstadoBusqueda resultado = get();
+                    String estado = encontradas + " coincidencias para '" + texto + "'";
+                    if (resultado == EstadoBusqueda.ABORTADA) {
+                        estado += " (búsqueda abortada: presupuesto agotado)";
+                    } else if (encontradas >= LIMITE_PATRON) {
+                        estado += " (se muestran las primeras " + LIMITE_PATRON + ")";
+                    }
+                    etiquetaEstado.setText(estado);
+                } catch (Exception ex) {
+                    Throwable causa = ex.getCause() != null ? ex.getCause() : ex;
+                    etiquetaEstado.setText("Error durante la búsqueda: " + causa.getMessage());
+                }
+            }
+        }.execute();
+    }
+
+    /**
+     * Busca las mejores coincidencias aproximadas de una palabra en un hilo de fondo, con el mismo
+     * presupuesto que "Buscar todas", y las muestra en la tabla de menor a mayor distancia.
+     *
+     * @param palabra Palabra a buscar, ya normalizada.
+     * @param errores Número máximo de errores de edición permitidos.
+     */
+    private void buscarAproximada(String palabra, int errores) {
+        BusquedaAproximada busqueda = new BusquedaAproximada(tablero, palabra, errores);
+        int columnas = tablero.getColumnas();
+        modeloResultados.limpiar();
+        controlesTraza.cargar(null, null);
+        panelBFST.setResultado(null);
+        int trabajo = empezarTrabajo();
+        etiquetaEstado.setText("Buscando '" + palabra + "' con hasta " + errores + " errores...");
+
+        new SwingWorker<EstadoBusqueda, Void>() {
+            /** Coincidencias reunidas, de menor a mayor distancia. */
+            private final List<CoincidenciaAproximada> coincidencias = new ArrayList<>();
+
+            @Override
+            protected EstadoBusqueda doInBackground() {
+                return busqueda.buscar(LIMITE_APROXIMADA, PRESUPUESTO, coincidencias);
+            }
+
+            @Override
+            protected void done() {
+                if (!terminarTrabajo(trabajo)) return;
+                try {
+                    EstadoBusqueda resultado = get();
+                    List<ModeloResultados.Fila> filas = new ArrayList<>(coincidencias.size());
+                    for (CoincidenciaAproximada c : coincidencias) {
+                        filas.add(new ModeloResultados.Fila(c.getPalabra(), "distancia " + c.getDistancia(),
+                            formatearCeldas(c.getCeldas(), columnas)));
+                    }
+                    modeloResultados.agregar(filas);
+                    String estado = coincidencias.size() + " coincidencias aproximadas para '" + palabra + "'";
+                    if (resultado == EstadoBusqueda.ABORTADA) {
+                        estado += " (búsqueda abortada: presupuesto agotado)";
+                    } else if (coincidencias.size() >= LIMITE_APROXIMADA) {
+                        estado += " (se muestran las " + LIMITE_APROXIMADA + " más cercanas)";
+                    }
+                    etiquetaEstado.setText(estado);
+                } catch (Exception ex) {
+                    Throwable causa = ex.getCause() != null ? ex.getCause() : ex;
+                    etiquetaEstado.setText("Error durante la búsqueda: " + causa.getMessage());
+                }
+            }
+        }.execute();
+    }
+
+    /**
+     * Carga un archivo de texto con el formato esperado para sopa de letras y diccionario,
+     * o un snapshot binario si el archivo tiene extensión ".sopa".
+     * La lectura y la construcción de los índices se hacen en un hilo de fondo con {@link CargadorSopa};
+     * la barra muestra el avance y los errores de línea se agregan a la tabla a medida que aparecen.
+     * Al terminar se actualiza la vista con los datos cargados.
      */
-    private void actualizarTablero(char[][] letras) {
-        areaTablero.setText("");
-        for (int i = 0; i < letras.length; i++) {
-            for (int j = 0; j < letras[i].length; j++) {
-                areaTablero.append(letras[i][j] + " ");
+    private void cargarArchivo() {
+        JFileChooser chooser = new JFileChooser();
+        int resultado = chooser.showOpenDialog(this);
+        if (resultado != JFileChooser.APPROVE_OPTION) return;
+        File archivo = chooser.getSelectedFile();
+        boolean snapshot = SnapshotSopa.esSnapshot(archivo);
+
+        int trabajo = empezarTrabajo();
+        barraCarga.setValue(0);
+        barraCarga.setIndeterminate(snapshot);
+        barraCarga.setVisible(true);
+        modeloResultados.limpiar();
+        etiquetaEstado.setText("Cargando " + archivo.getName() + "...");
+
+        SwingWorker<Sopa, ErrorLinea> carga = new SwingWorker<>() {
+            /** Índice de cadenas cortas del tablero cargado. */
+            private IndiceKGramas kgramasCargados;
+
+            @Override
+            protected Sopa doInBackground() throws IOException {
+                Sopa sopa = snapshot
+                    ? SnapshotSopa.cargar(archivo)
+                    : new CargadorSopa().cargar(archivo.toPath(), new OyenteCarga() {
+                        @Override
+                        public void progreso(long leidos, long total) {
+                            setProgress(total == 0 ? 100 : (int) (100 * leidos / total));
+                        }
+
+                        @Override
+                        public void errorLinea(ErrorLinea error) {
+                            publish(error);
+                        }
+                    });
+                kgramasCargados = new IndiceKGramas(sopa.getTablero(), K_INDICE, true);
+                return sopa;
             }
-            areaTablero.append("\n");
+
+            @Override
+            protected void process(List<ErrorLinea> errores) {
+                if (trabajo != trabajoActual) return;
+                List<ModeloResultados.Fila> filas = new ArrayList<>(errores.size());
+                for (ErrorLinea error : errores) {
+                    filas.add(new ModeloResultados.Fila("Línea " + error.getLinea(),
+                        error.isGrave() ? "error" : "aviso", error.getMensaje()));
+                }
+                modeloResultados.agregar(filas);
+            }
+
+            @Override
+            protected void done() {
+                if (!terminarTrabajo(trabajo)) return;
+                barraCarga.setVisible(false);
+                Sopa sopa;
+                try {
+                    sopa = get();
+                } catch (Exception ex) {
+                    Throwable causa = ex.getCause() != null ? ex.getCause() : ex;
+                    etiquetaEstado.setText("Error al leer el archivo: " + causa.getMessage());
+                    return;
+                }
+                diccionario = sopa.getDiccionario();
+                tablero = sopa.getTablero();
+                kgramas = kgramasCargados;
+                buscador = new ControladorBusqueda(tablero, kgramas);
+                actualizarTablero();
+                actualizarDiccionario();
+                etiquetaEstado.setText("Archivo cargado correctamente.");
+            }
+        };
+        carga.addPropertyChangeListener(e -> {
+            if ("progress".equals(e.getPropertyName())) {
+                barraCarga.setValue((Integer) e.getNewValue());
+            }
+        });
+        carga.execute();
+    }
+
+    /**
+     * Actualiza el área de texto que muestra el tablero con las letras cargadas.
+     */
+    private void actualizarTablero() {
+        StringBuilder texto = new StringBuilder();
+        for (int i = 0; i < tablero.getFilas(); i++) {
+            for (int j = 0; j < tablero.getColumnas(); j++) {
+                texto.append(tablero.getLetra(i, j)).append(' ');
+            }
+            texto.append('\n');
         }
+        areaTablero.setText(texto.toString());
     }
 
     /**
-     * Actualiza el área de texto que muestra el diccionario con las palabras almacenadas.
+     * Actualiza la lista que muestra el diccionario, respetando el filtro escrito.
      */
     private void actualizarDiccionario() {
-        areaDiccionario.setText("");
-        for (String palabra : diccionario.aArreglo()) {
-            areaDiccionario.append(palabra + "\n");
-        }
+        aplicarFiltro();
     }
 
     /**